@@ -40,4 +40,7 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     Status status;
+
+    @Version
+    long version;
 }
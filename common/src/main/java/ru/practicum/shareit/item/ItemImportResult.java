@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// rows are numbered from 1 in the order of the import
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemImportResult {
+    private int imported;
+    private List<Long> ids;
+    private List<RowError> errors;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private int row;
+        private String message;
+    }
+}
@@ -16,8 +16,10 @@ import ru.practicum.shareit.user.User;
 @NoArgsConstructor
 public class Item {
 
+    // ids come from a pooled sequence, so inserts of many items are sent in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -38,4 +40,7 @@ public class Item {
     @JoinColumn(name = "request_id")
     ItemRequest request;
 
+    @Version
+    long version;
+
 }
@@ -31,5 +31,8 @@ public class ItemRequest {
     @Column
     LocalDateTime created;
 
+    @Version
+    long version;
+
 
 }
@@ -23,4 +23,7 @@ public class User {
     @Column
     String name;
 
+    @Version
+    long version;
+
 }
@@ -4,12 +4,17 @@ import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -21,41 +26,61 @@ public class BookingClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size) {
+        return getBookings(userId, state, from, size, null);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size,
+                                                    String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return send(HttpMethod.GET, withCursor("?state={state}&from={from}&size={size}", parameters, cursor),
+                userId, parameters, null);
+    }
+
+
+    public void exportBookings(long userId, OutputStream target) {
+        stream("/export", userId, MediaType.APPLICATION_NDJSON, target);
     }
 
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookingRequestDto requestDto) {
+        return send(HttpMethod.POST, "", userId, null, requestDto);
+    }
 
-    public ResponseEntity<Object> bookItem(long userId, BookingRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
+        return send(HttpMethod.GET, "/" + bookingId, userId, null, null);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public Mono<ResponseEntity<Object>> getBookingsByIds(long userId, List<Long> ids) {
+        return sendQuery("/batch-get", userId, ids);
     }
 
-    public ResponseEntity<Object> approvedBooking(long bookingId, long userId, boolean approved) {
+    public Mono<ResponseEntity<Object>> approvedBooking(long bookingId, long userId, boolean approved) {
 
         String path = "/" + bookingId + "?approved=" + approved;
-        return patch(path, userId);
+        return send(HttpMethod.PATCH, path, userId, null, null);
     }
 
-    public ResponseEntity<Object> getBookingsByUserItem(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getBookingsByUserItem(long userId, BookingState state, Integer from,
+                                                              Integer size) {
+        return getBookingsByUserItem(userId, state, from, size, null);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsByUserItem(long userId, BookingState state, Integer from,
+                                                              Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return send(HttpMethod.GET, withCursor("/owner?state={state}&from={from}&size={size}", parameters, cursor),
+                userId, parameters, null);
     }
 }
@@ -7,10 +7,16 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
+
+import java.util.List;
 
 
 @Controller
@@ -23,35 +29,56 @@ public class BookingController {
     private final BookingValidator bookingValidator;
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
+    @PostMapping("/batch-get")
+    public Mono<ResponseEntity<Object>> getBookingsByIds(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<Long> ids
+    ) {
+        log.info("Get {} bookings by ids, userId={}", ids.size(), userId);
+        BaseClient.validateIds(ids);
+        return bookingClient.getBookingsByIds(userId, ids);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getBookingsByUser(
+    public Mono<ResponseEntity<Object>> getBookingsByUser(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new ValidationException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size,
+                cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByUser(
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Export bookings, userId={}", userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bookingClient.exportBookings(userId, out));
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestBody @Valid BookingRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @Valid BookingRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         bookingValidator.validateDate(requestDto);
         return bookingClient.bookItem(userId, requestDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approvedBooking(
+    public Mono<ResponseEntity<Object>> approvedBooking(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PathVariable Long bookingId,
             @RequestParam boolean approved
@@ -61,16 +88,18 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingByUserItem(
+    public Mono<ResponseEntity<Object>> getBookingByUserItem(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", required = false,  defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new ValidationException("Unknown state: " + stateParam));
-        log.info("Get booking by user item with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsByUserItem(userId, state, from, size);
+        log.info("Get booking by user item with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId,
+                from, size, cursor);
+        return bookingClient.getBookingsByUserItem(userId, state, from, size, cursor);
     }
 
 
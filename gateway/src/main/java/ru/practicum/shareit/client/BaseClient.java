@@ -1,100 +1,255 @@
 package ru.practicum.shareit.client;
 
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exceptions.ValidationException;
 
 public class BaseClient {
+    // the most ids a batch-get may ask for
+    public static final int MAX_BATCH_SIZE = 100;
+    // the cursor of the next page a paginated response of the server carries
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
     protected final RestTemplate rest;
+    private boolean passthrough;
+    private WebClient webClient;
+    private WebClient eventClient;
+    private ResponseCache responseCache;
+    private SingleFlight singleFlight;
 
     public BaseClient(RestTemplate rest) {
         this.rest = rest;
     }
 
-    protected ResponseEntity<Object> get(String path) {
-        return get(path, null, null);
-    }
-
-    protected ResponseEntity<Object> get(String path, long userId) {
-        return get(path, userId, null);
-    }
-
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    // successful responses are returned as the bytes sent by the server instead of being parsed and written again
+    @Autowired
+    public void setPassthrough(@Value("${shareit-server.passthrough:true}") boolean passthrough) {
+        this.passthrough = passthrough;
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
-        return post(path, null, null, body);
+    // with shareit-server.reactive calls wait on the server without holding a thread; the uri templates of the
+    // RestTemplate are reused
+    @Autowired
+    public void setWebClient(@Value("${shareit-server.reactive:false}") boolean reactive, WebClient serverWebClient) {
+        if (rest.getUriTemplateHandler() instanceof UriBuilderFactory uriBuilderFactory) {
+            this.eventClient = serverWebClient.mutate().uriBuilderFactory(uriBuilderFactory).build();
+        } else {
+            this.eventClient = serverWebClient;
+        }
+        // event streams always go through the WebClient, a blocking call would hold a thread per subscriber
+        this.webClient = reactive ? eventClient : null;
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
-        return post(path, userId, null, body);
+    @Autowired(required = false)
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    // identical GETs in flight at the same time share one call to the server
+    @Autowired(required = false)
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
-        return put(path, userId, null, body);
+    protected <T> Mono<ResponseEntity<Object>> send(HttpMethod method, String path, @Nullable Long userId,
+                                                    @Nullable Map<String, Object> parameters, @Nullable T body) {
+        Mono<ResponseEntity<Object>> response = send(method, path, defaultHeaders(userId), parameters, body);
+        if (responseCache == null || method == HttpMethod.GET) {
+            return response;
+        }
+        return response.doOnNext(result -> {
+            if (result.getStatusCode().is2xxSuccessful()) {
+                responseCache.invalidateAfterChangeOf(expand(path, parameters));
+            }
+        });
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+    // a POST that only reads, such as a batch-get: it changes nothing, so no cached response is dropped
+    protected <T> Mono<ResponseEntity<Object>> sendQuery(String path, @Nullable Long userId, T body) {
+        return send(HttpMethod.POST, path, defaultHeaders(userId), null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
-        return patch(path, null, null, body);
+    public static void validateIds(@Nullable List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Нужно от 1 до " + MAX_BATCH_SIZE + " id");
+        }
+        if (ids.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new ValidationException("id должны быть положительными");
+        }
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
-        return patch(path, userId, null, null);
+    // a GET answered from the response cache while fresh and revalidated with the ETag of the cached body after
+    protected Mono<ResponseEntity<Object>> sendCached(String path, @Nullable Long userId,
+                                                      @Nullable Map<String, Object> parameters) {
+        if (responseCache == null) {
+            return send(HttpMethod.GET, path, userId, parameters, null);
+        }
+        URI uri = expand(path, parameters);
+        ResponseCache.Entry cached = responseCache.get(uri, userId);
+        if (cached != null && responseCache.isFresh(cached)) {
+            return Mono.just(cached.toResponse());
+        }
+        HttpHeaders headers = defaultHeaders(userId);
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.etag());
+        }
+        long generation = responseCache.generation(uri);
+        return send(HttpMethod.GET, path, headers, parameters, null)
+                .map(response -> responseCache.update(uri, userId, cached, generation, response));
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
-        return patch(path, userId, null, body);
+    // copies the server response body as it arrives instead of reading it into memory first
+    protected void stream(String path, long userId, MediaType accept, OutputStream target) {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> {
+                request.getHeaders().setAccept(List.of(accept));
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }, response -> {
+                StreamUtils.copy(response.getBody(), target);
+                return null;
+            });
+        } catch (HttpStatusCodeException e) {
+            throw new ResponseStatusException(e.getStatusCode(), e.getResponseBodyAsString(), e);
+        }
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    // server-sent events relayed as they arrive; an idle stream stays inside the read timeout by the heartbeats
+    // of the server, an error status of the server is answered before the stream starts
+    protected Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> subscribe(String path, long userId) {
+        return eventClient.get()
+                .uri(path)
+                .headers(headers -> headers.addAll(defaultHeaders(userId)))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .toEntityFlux(EVENT_TYPE)
+                .map(response -> ResponseEntity.status(response.getStatusCode())
+                        .contentType(MediaType.TEXT_EVENT_STREAM)
+                        .body(response.getBody()))
+                .onErrorMap(WebClientResponseException.class,
+                        e -> new ResponseStatusException(e.getStatusCode(), e.getResponseBodyAsString(), e));
     }
 
-    protected ResponseEntity<Object> delete(String path) {
-        return delete(path, null, null);
+    // the cursor is optional, so it is added to the uri template only when present
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        if (cursor == null) {
+            return path;
+        }
+        parameters.put("cursor", cursor);
+        return path + (path.contains("?") ? "&" : "?") + "cursor={cursor}";
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
-        return delete(path, userId, null);
+    private <T> Mono<ResponseEntity<Object>> send(HttpMethod method, String path, HttpHeaders headers,
+                                                  @Nullable Map<String, Object> parameters, @Nullable T body) {
+        if (singleFlight == null || method != HttpMethod.GET) {
+            return call(method, path, headers, parameters, body);
+        }
+        // the headers that differ between the calls of a client: the user and the ETag of its cached response;
+        // a call started before a change of the resource is not shared with the calls after it
+        URI uri = expand(path, parameters);
+        String key = uri + " " + headers.getFirst("X-Sharer-User-Id") + " "
+                + headers.getFirst(HttpHeaders.IF_NONE_MATCH)
+                + (responseCache != null ? " " + responseCache.generation(uri) : "");
+        // deferred, so a blocking call is sent once the flight is registered and not while registering it
+        return singleFlight.execute(key, () -> Mono.defer(() -> call(method, path, headers, parameters, body)));
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    private <T> Mono<ResponseEntity<Object>> call(HttpMethod method, String path, HttpHeaders headers,
+                                                  @Nullable Map<String, Object> parameters, @Nullable T body) {
+        if (webClient == null) {
+            return Mono.just(makeAndSendRequest(method, path, headers, parameters, body));
+        }
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        return (body != null ? request.bodyValue(body) : request).exchangeToMono(response -> {
+            Mono<?> responseBody = !passthrough && response.statusCode().is2xxSuccessful()
+                    ? response.bodyToMono(Object.class)
+                    : response.bodyToMono(byte[].class);
+            return responseBody.map(content -> gatewayResponse(response, content))
+                    .defaultIfEmpty(gatewayResponse(response, null));
+        });
     }
 
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path,
-                                                          Long userId, @Nullable Map<String, Object> parameters,
+                                                          HttpHeaders headers, @Nullable Map<String, Object> parameters,
                                                           @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
-        ResponseEntity<Object> shareitServerResponse;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            if (passthrough) {
+                ResponseEntity<byte[]> response = exchange(method, path, parameters, requestEntity, byte[].class);
+                return ResponseEntity.status(response.getStatusCode())
+                        .headers(passedHeaders(response.getHeaders()))
+                        .body(response.getBody());
             }
+            return prepareGatewayResponse(exchange(method, path, parameters, requestEntity, Object.class));
         } catch (HttpStatusCodeException e) {
             return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    // the same response as makeAndSendRequest gives for the status
+    private static ResponseEntity<Object> gatewayResponse(ClientResponse response, @Nullable Object body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.statusCode());
+        if (response.statusCode().is2xxSuccessful() || response.statusCode() == HttpStatus.NOT_MODIFIED) {
+            builder.headers(passedHeaders(response.headers().asHttpHeaders()));
+        }
+        return builder.body(body);
+    }
+
+    // the content type, the ETag the response cache and the clients of the gateway revalidate with
+    // and the cursor of the next page
+    private static HttpHeaders passedHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders.getContentType() != null) {
+            headers.setContentType(serverHeaders.getContentType());
+        }
+        if (serverHeaders.getETag() != null) {
+            headers.setETag(serverHeaders.getETag());
+        }
+        if (serverHeaders.getFirst(NEXT_CURSOR_HEADER) != null) {
+            headers.set(NEXT_CURSOR_HEADER, serverHeaders.getFirst(NEXT_CURSOR_HEADER));
+        }
+        return headers;
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return rest.getUriTemplateHandler().expand(path, parameters != null ? parameters : Map.of());
+    }
+
+    private <T, R> ResponseEntity<R> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                              HttpEntity<T> requestEntity, Class<R> responseType) {
+        if (parameters != null) {
+            return rest.exchange(path, method, requestEntity, responseType, parameters);
+        }
+        return rest.exchange(path, method, requestEntity, responseType);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * All clients call the server through one connection pool. Outbound calls block the thread of the
+ * incoming request, so with spring.threads.virtual.enabled the pool size and not the Tomcat thread
+ * pool limits the number of requests waiting on the server. A thread waiting for a free connection
+ * blocks in Object.wait and pins its virtual thread to the carrier, so the pool should not be smaller
+ * than the expected number of concurrent requests.
+ * Connections are kept alive for shareit-server.keep-alive unless the server sends its own timeout,
+ * checked before reuse after a second of inactivity and closed by a background evictor once idle for
+ * shareit-server.idle-timeout.
+ */
+@Configuration
+public class ClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            @Value("${shareit-server.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.max-connections-per-route:200}") int maxConnectionsPerRoute,
+            @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.read-timeout:30s}") Duration readTimeout) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        // the server may have closed a connection that was idle in the pool
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, POOL_NAME);
+    }
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory serverRequestFactory(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            @Value("${shareit-server.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit-server.pool-timeout:5s}") Duration poolTimeout,
+            @Value("${shareit-server.keep-alive:60s}") Duration keepAlive,
+            @Value("${shareit-server.idle-timeout:30s}") Duration idleTimeout) {
+        return new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(serverConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        // unless the response has a Keep-Alive header
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build());
+    }
+
+    // the pool of shareit-server.reactive, connections are kept by Reactor Netty
+    @Bean
+    public WebClient serverWebClient(
+            WebClient.Builder builder,
+            @Value("${shareit-server.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit-server.pool-timeout:5s}") Duration poolTimeout,
+            @Value("${shareit-server.keep-alive:60s}") Duration keepAlive,
+            @Value("${shareit-server.idle-timeout:30s}") Duration idleTimeout) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(poolTimeout)
+                .maxLifeTime(keepAlive)
+                .maxIdleTime(idleTimeout)
+                .evictInBackground(idleTimeout)
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    @Bean
+    public RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer configurer,
+                                                   HttpComponentsClientHttpRequestFactory serverRequestFactory) {
+        return configurer.configure(new RestTemplateBuilder())
+                .requestFactory(() -> serverRequestFactory);
+    }
+}
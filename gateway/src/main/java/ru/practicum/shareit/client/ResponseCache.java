@@ -0,0 +1,179 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Successful GET responses of the server that carry an ETag, keyed by path, query and user. An entry is
+ * returned without asking the server for shareit-server.cache.max-age, then revalidated with If-None-Match,
+ * a 304 of the server keeps the cached body. Entries are kept per resource (the first path segment), the
+ * least recently used ones of a resource are dropped above shareit-server.cache.max-entries.
+ * A successful change through the gateway drops the entries of the resources whose responses it may
+ * change: a booking changes the item pages of the owner, an item the requests it answers, a user the
+ * names shown on items and requests. Dropping a resource starts its next generation; a response to a GET
+ * sent in an earlier generation is returned to its caller but not cached, it may predate the change.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit-server.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCache {
+    private static final Map<String, Set<String>> INVALIDATES = Map.of(
+            "bookings", Set.of("items"),
+            "items", Set.of("items", "requests"),
+            "requests", Set.of("requests"),
+            "users", Set.of("users", "items", "requests")
+    );
+
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResponseCache(@Value("${shareit-server.cache.max-entries:10000}") int maxEntries,
+                         @Value("${shareit-server.cache.max-age:5s}") Duration maxAge) {
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    @Nullable
+    public Entry get(URI uri, @Nullable Long userId) {
+        return resource(uri).get(key(uri, userId));
+    }
+
+    // taken before the GET is sent and passed to update with its response
+    public long generation(URI uri) {
+        return resource(uri).generation();
+    }
+
+    // stores the server response for the uri and returns the response for the caller
+    public ResponseEntity<Object> update(URI uri, @Nullable Long userId, @Nullable Entry cached, long generation,
+                                         ResponseEntity<Object> response) {
+        Resource resource = resource(uri);
+        String key = key(uri, userId);
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            resource.put(key, new Entry(cached.etag(), cached.contentType(), cached.nextCursor(), cached.body(),
+                    System.nanoTime()), generation);
+            return cached.toResponse();
+        }
+        String etag = response.getHeaders().getETag();
+        if (response.getStatusCode().is2xxSuccessful() && etag != null && response.getBody() != null) {
+            resource.put(key, new Entry(etag, response.getHeaders().getContentType(),
+                    response.getHeaders().getFirst(BaseClient.NEXT_CURSOR_HEADER), response.getBody(), System.nanoTime()),
+                    generation);
+        } else {
+            resource.remove(key);
+        }
+        return response;
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.nanoTime() - entry.validatedAt() < maxAgeNanos;
+    }
+
+    public void invalidateAfterChangeOf(URI uri) {
+        for (String name : INVALIDATES.getOrDefault(resourceName(uri.getRawPath()), Set.of())) {
+            Resource resource = resources.get(name);
+            if (resource != null) {
+                resource.clear();
+            }
+        }
+    }
+
+    public int size() {
+        return resources.values().stream().mapToInt(Resource::size).sum();
+    }
+
+    private Resource resource(URI uri) {
+        return resources.computeIfAbsent(resourceName(uri.getRawPath()), name -> new Resource(maxEntries));
+    }
+
+    private static String key(URI uri, @Nullable Long userId) {
+        String query = uri.getRawQuery();
+        return uri.getRawPath() + (query != null ? "?" + query : "") + " " + userId;
+    }
+
+    // the first segment of the path: /items/1 -> items
+    private static String resourceName(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?') {
+            end++;
+        }
+        return path.substring(start, end);
+    }
+
+    // the entries of one resource under its own lock; clearing replaces the map instead of walking it
+    private static final class Resource {
+        private final int maxEntries;
+        private Map<String, Entry> entries;
+        private long generation;
+
+        Resource(int maxEntries) {
+            this.maxEntries = maxEntries;
+            this.entries = newEntries();
+        }
+
+        synchronized Entry get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized void put(String key, Entry entry, long sentInGeneration) {
+            if (sentInGeneration == generation) {
+                entries.put(key, entry);
+            }
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        synchronized void clear() {
+            entries = newEntries();
+            generation++;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        private Map<String, Entry> newEntries() {
+            return new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    public record Entry(String etag, @Nullable MediaType contentType, @Nullable String nextCursor, Object body,
+                        long validatedAt) {
+
+        ResponseEntity<Object> toResponse() {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(etag);
+            if (contentType != null) {
+                builder.contentType(contentType);
+            }
+            if (nextCursor != null) {
+                builder.header(BaseClient.NEXT_CURSOR_HEADER, nextCursor);
+            }
+            return builder.body(body);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Identical GETs to the server that arrive while one is in flight wait for its response instead of
+ * sending their own. The calls are counted in shareit.server.gets by result: sent to the server or
+ * merged into a call in flight.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit-server.single-flight", havingValue = "true", matchIfMissing = true)
+public class SingleFlight {
+    private final Map<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter sent;
+    private final Counter merged;
+
+    @Autowired
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.sent = Counter.builder("shareit.server.gets").tag("result", "sent").register(meterRegistry);
+        this.merged = Counter.builder("shareit.server.gets").tag("result", "merged").register(meterRegistry);
+    }
+
+    public Mono<ResponseEntity<Object>> execute(String key, Supplier<Mono<ResponseEntity<Object>>> call) {
+        return Mono.defer(() -> {
+            boolean[] leader = new boolean[1];
+            Mono<ResponseEntity<Object>> flight = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                // cache() and not share(): a call that joined just before the end gets the response, not a new call
+                return call.get()
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+            (leader[0] ? sent : merged).increment();
+            return flight;
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -4,64 +4,87 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    // the most rows one import may carry
+    public static final int MAX_IMPORT_SIZE = 10_000;
 
     @Autowired
     public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getItemsByUser(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getItemsByUser(long userId, Integer from, Integer size) {
+        return getItemsByUser(userId, from, size, null);
+    }
+
+    public Mono<ResponseEntity<Object>> getItemsByUser(long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
+        ));
+
+        return send(HttpMethod.GET, withCursor("?from={from}&size={size}", parameters, cursor),
+                userId, parameters, null);
+    }
 
-        return get("?from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getItemById(long itemId, long userId) {
+        return sendCached("/" + itemId, userId, null);
     }
 
-    public ResponseEntity<Object> getItemById(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemsByIds(long userId, List<Long> ids) {
+        return sendQuery("/batch-get", userId, ids);
     }
 
-    public ResponseEntity<Object> create(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> create(long userId, ItemDto itemDto) {
+        return send(HttpMethod.POST, "", userId, null, itemDto);
     }
 
-    public ResponseEntity<Object> edit(long itemId, long userId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public Mono<ResponseEntity<Object>> importItems(long userId, List<ItemDto> itemDtos) {
+        return send(HttpMethod.POST, "/import", userId, null, itemDtos);
     }
 
-    public ResponseEntity<Object> delete(long itemId, long userId) {
-        return delete("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> edit(long itemId, long userId, ItemDto itemDto) {
+        return send(HttpMethod.PATCH, "/" + itemId, userId, null, itemDto);
     }
 
-    public ResponseEntity<Object> search(String text, Long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> delete(long itemId, long userId) {
+        return send(HttpMethod.DELETE, "/" + itemId, userId, null, null);
+    }
+
+    public Mono<ResponseEntity<Object>> search(String text, Long userId, Integer from, Integer size) {
+        return search(text, userId, from, size, null);
+    }
+
+    public Mono<ResponseEntity<Object>> search(String text, Long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "text", text,
                 "from", from,
                 "size", size
-        );
-        return get("/search?" + text, userId, parameters);
+        ));
+        return send(HttpMethod.GET, withCursor("/search?text={text}&from={from}&size={size}", parameters, cursor),
+                userId, parameters, null);
     }
 
-    public ResponseEntity<Object> postComment(long itemId, long userId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> postComment(long itemId, long userId, CommentDto commentDto) {
         String path = "/" + itemId + "/comment";
-        return post(path, userId, commentDto);
+        return send(HttpMethod.POST, path, userId, null, commentDto);
     }
 }
@@ -1,15 +1,28 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.exceptions.ValidationException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Controller
@@ -20,19 +33,21 @@ import java.util.List;
 public class ItemController {
     private final ItemClient itemClient;
     private final ItemValidator itemValidator;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsByUser(
+    public Mono<ResponseEntity<Object>> getAllItemsByUser(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        log.info("Get items with userId={}, from={}, size={}", userId, from, size);
-        return itemClient.getItemsByUser(userId, from, size);
+        log.info("Get items with userId={}, from={}, size={}, cursor={}", userId, from, size, cursor);
+        return itemClient.getItemsByUser(userId, from, size, cursor);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(
+    public Mono<ResponseEntity<Object>> getItemById(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @PathVariable Long itemId
     ) {
@@ -40,8 +55,18 @@ public class ItemController {
         return itemClient.getItemById(itemId, userId);
     }
 
+    @PostMapping("/batch-get")
+    public Mono<ResponseEntity<Object>> getItemsByIds(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<Long> ids
+    ) {
+        log.info("Get {} items by ids, userId={}", ids.size(), userId);
+        BaseClient.validateIds(ids);
+        return itemClient.getItemsByIds(userId, ids);
+    }
+
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Object>> create(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestBody @Valid ItemDto itemDto
     ) {
@@ -50,8 +75,97 @@ public class ItemController {
         return itemClient.create(userId, itemDto);
     }
 
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> importItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<ItemDto> itemDtos
+    ) {
+        log.info("Import {} items with userId={}", itemDtos.size(), userId);
+        return importValidated(userId, itemDtos);
+    }
+
+    // one item per line, read as the upload arrives; a line that is not an item is reported as an invalid row
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Object>> importItemLines(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            InputStream lines
+    ) throws IOException {
+        List<ItemDto> itemDtos = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(lines, StandardCharsets.UTF_8));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (itemDtos.size() == ItemClient.MAX_IMPORT_SIZE) {
+                throw new ValidationException("Нужно от 1 до " + ItemClient.MAX_IMPORT_SIZE + " вещей");
+            }
+            itemDtos.add(readItem(line));
+        }
+        log.info("Import {} item lines with userId={}", itemDtos.size(), userId);
+        return importValidated(userId, itemDtos);
+    }
+
+    private ItemDto readItem(String line) {
+        try {
+            return objectMapper.readValue(line, ItemDto.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    // like the server, the valid rows are imported and the invalid ones reported; only the valid rows are
+    // sent, so the rows of the server errors are mapped back to the rows of the upload
+    private Mono<ResponseEntity<Object>> importValidated(long userId, List<ItemDto> itemDtos) {
+        List<ItemImportResult.RowError> errors = itemValidator.validateImport(itemDtos);
+        if (errors.isEmpty()) {
+            return itemClient.importItems(userId, itemDtos);
+        }
+        if (errors.size() == itemDtos.size()) {
+            return Mono.just(ResponseEntity.badRequest().body(ItemImportResult.builder()
+                    .imported(0)
+                    .ids(List.of())
+                    .errors(errors)
+                    .build()));
+        }
+        List<Integer> sentRows = new ArrayList<>();
+        List<ItemDto> valid = new ArrayList<>();
+        int next = 0;
+        for (int row = 1; row <= itemDtos.size(); row++) {
+            if (next < errors.size() && errors.get(next).getRow() == row) {
+                next++;
+            } else {
+                sentRows.add(row);
+                valid.add(itemDtos.get(row - 1));
+            }
+        }
+        return itemClient.importItems(userId, valid).map(response -> {
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return response;
+            }
+            ItemImportResult result = readResult(response.getBody());
+            List<ItemImportResult.RowError> merged = new ArrayList<>(errors);
+            for (ItemImportResult.RowError error : result.getErrors()) {
+                merged.add(new ItemImportResult.RowError(sentRows.get(error.getRow() - 1), error.getMessage()));
+            }
+            merged.sort(Comparator.comparingInt(ItemImportResult.RowError::getRow));
+            result.setErrors(merged);
+            return ResponseEntity.status(response.getStatusCode()).contentType(MediaType.APPLICATION_JSON)
+                    .body(result);
+        });
+    }
+
+    // bytes in passthrough mode, a parsed body otherwise
+    private ItemImportResult readResult(Object body) {
+        try {
+            return body instanceof byte[] bytes ? objectMapper.readValue(bytes, ItemImportResult.class)
+                    : objectMapper.convertValue(body, ItemImportResult.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("ответ сервера на импорт не прочитан", e);
+        }
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> edit(
+    public Mono<ResponseEntity<Object>> edit(
             @PathVariable Long itemId,
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestBody @Valid ItemDto itemDto
@@ -61,7 +175,7 @@ public class ItemController {
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> delete(
+    public Mono<ResponseEntity<Object>> delete(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") Long userId
     ) {
@@ -70,22 +184,22 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(
+    public Mono<ResponseEntity<Object>> searchItem(
             @RequestParam String text,
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
-
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        log.info("Search item with userId={}, text={}", userId, text);
+        log.info("Search item with userId={}, text={}, cursor={}", userId, text, cursor);
         if (text.isBlank()) {
-            return ResponseEntity.ok().body(List.of());
+            return Mono.just(ResponseEntity.ok().body(List.of()));
         }
-        return itemClient.search(text, userId, from, size);
+        return itemClient.search(text, userId, from, size, cursor);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> postComment(
+    public Mono<ResponseEntity<Object>> postComment(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestBody @Valid CommentDto commentDto
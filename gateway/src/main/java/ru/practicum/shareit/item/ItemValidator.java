@@ -4,6 +4,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.exceptions.ValidationException;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @Slf4j
 public class ItemValidator {
@@ -14,6 +17,28 @@ public class ItemValidator {
         validateAvailable(itemDto.getAvailable());
     }
 
+    // all rows are checked, so every invalid row is reported at once
+    public List<ItemImportResult.RowError> validateImport(List<ItemDto> itemDtos) {
+        log.info("валидация {} импортируемых вещей", itemDtos.size());
+        if (itemDtos.isEmpty() || itemDtos.size() > ItemClient.MAX_IMPORT_SIZE) {
+            log.error("неверное число импортируемых вещей: {}", itemDtos.size());
+            throw new ValidationException("Нужно от 1 до " + ItemClient.MAX_IMPORT_SIZE + " вещей");
+        }
+        List<ItemImportResult.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < itemDtos.size(); i++) {
+            if (itemDtos.get(i) == null) {
+                errors.add(new ItemImportResult.RowError(i + 1, "строка не содержит вещь"));
+                continue;
+            }
+            try {
+                validate(itemDtos.get(i));
+            } catch (ValidationException e) {
+                errors.add(new ItemImportResult.RowError(i + 1, e.getMessage()));
+            }
+        }
+        return errors;
+    }
+
     public void validateName(String name) {
         log.info("валидация названия вещи");
 
@@ -4,12 +4,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Slf4j
@@ -22,33 +26,50 @@ public class ItemRequestClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
                         .build()
         );
     }
 
-    public ResponseEntity<Object> create(long userId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> create(long userId, ItemRequestDto itemRequestDto) {
         log.info("create itemRequest in itemRequestClient");
-        return post("", userId, itemRequestDto);
+        return send(HttpMethod.POST, "", userId, null, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getRequestByUser(long xUserId) {
+    public Mono<ResponseEntity<Object>> getRequestByUser(long xUserId, int from, int size) {
+        return getRequestByUser(xUserId, from, size, null);
+    }
+
+    public Mono<ResponseEntity<Object>> getRequestByUser(long xUserId, int from, int size, String cursor) {
         log.info("get itemRequest by User in itemRequestClient");
-        return get("", xUserId);
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "from", from,
+                "size", size
+        ));
+        return send(HttpMethod.GET, withCursor("?from={from}&size={size}", parameters, cursor), xUserId,
+                parameters, null);
     }
 
-    public ResponseEntity<Object> getAllRequests(long xUserId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAllRequests(long xUserId, int from, int size) {
+        return getAllRequests(xUserId, from, size, null);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllRequests(long xUserId, int from, int size, String cursor) {
         log.info("get All Requests in itemRequestClient");
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all", xUserId, parameters);
+        ));
+        return sendCached(withCursor("/all?from={from}&size={size}", parameters, cursor), xUserId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> subscribe(long xUserId) {
+        log.info("subscribe to answers in itemRequestClient");
+        return subscribe("/subscribe", xUserId);
     }
 
-    public ResponseEntity<Object> getRequestById(long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(long requestId) {
         log.info("get Request By Id in itemRequestClient");
-        return get("/" + requestId);
+        return send(HttpMethod.GET, "/" + requestId, null, null, null);
     }
 
 }
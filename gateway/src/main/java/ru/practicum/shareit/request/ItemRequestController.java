@@ -5,9 +5,13 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 
 @RestController
@@ -19,7 +23,7 @@ public class ItemRequestController {
     private final ItemRequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Object>> create(
             @RequestBody @Valid ItemRequestDto itemRequestDto,
             @RequestHeader("X-Sharer-User-Id") long xUserId
             ) {
@@ -28,25 +32,38 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequestByUser(
-            @RequestHeader("X-Sharer-User-Id") long xUserId
+    public Mono<ResponseEntity<Object>> getRequestByUser(
+            @RequestHeader("X-Sharer-User-Id") long xUserId,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        log.info("Get ItemRequest with userId = {}", xUserId);
-        return requestClient.getRequestByUser(xUserId);
+        log.info("Get ItemRequest with userId = {}, from={}, size={}, cursor={}", xUserId, from, size, cursor);
+        return requestClient.getRequestByUser(xUserId, from, size, cursor);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(
+    public Mono<ResponseEntity<Object>> getAllRequests(
             @RequestHeader("X-Sharer-User-Id") long xUserId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        log.info("Get users with  from={}, size={}, cursor={}", from, size, cursor);
+        return requestClient.getAllRequests(xUserId, from, size, cursor);
+    }
+
+    // items answering the requests of the user as server-sent events, instead of polling GET /requests
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> subscribe(
+            @RequestHeader("X-Sharer-User-Id") long xUserId
     ) {
-        log.info("Get users with  from={}, size={}", from, size);
-        return requestClient.getAllRequests(xUserId, from, size);
+        log.info("Subscribe to answers with userId = {}", xUserId);
+        return requestClient.subscribe(xUserId);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(
+    public Mono<ResponseEntity<Object>> getRequestById(
             @RequestHeader("X-Sharer-User-Id") long xUserId,
             @PathVariable Long requestId
     ) {
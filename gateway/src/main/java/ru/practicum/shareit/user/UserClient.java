@@ -4,12 +4,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -22,37 +25,46 @@ public class UserClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getAllUsers(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllUsers(long userId, Integer from, Integer size) {
+        return getAllUsers(userId, from, size, null);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllUsers(long userId, Integer from, Integer size, String cursor) {
         log.info("get all users in UserClient");
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("", userId, parameters);
+        ));
+        return send(HttpMethod.GET, withCursor("?from={from}&size={size}", parameters, cursor),
+                userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(long userId) {
         log.info("get User By Id in UserClient");
-        return get("/" + userId);
+        return sendCached("/" + userId, null, null);
+    }
+
+    public Mono<ResponseEntity<Object>> getUsersByIds(List<Long> ids) {
+        log.info("get {} users by ids in UserClient", ids.size());
+        return sendQuery("/batch-get", null, ids);
     }
 
-    public ResponseEntity<Object> create(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(UserDto userDto) {
         log.info("create user in UserClient");
-        return post("", userDto);
+        return send(HttpMethod.POST, "", null, null, userDto);
     }
 
-    public ResponseEntity<Object> edit(long userId, UserDto userDto) {
+    public Mono<ResponseEntity<Object>> edit(long userId, UserDto userDto) {
         log.info("edit user in UserClient");
-        return patch("/" + userId, userDto);
+        return send(HttpMethod.PATCH, "/" + userId, null, null, userDto);
     }
 
-    public ResponseEntity<Object> delete(long userId) {
+    public Mono<ResponseEntity<Object>> delete(long userId) {
         log.info("delete user in UserClient");
-        return delete("/" + userId);
+        return send(HttpMethod.DELETE, "/" + userId, null, null, null);
     }
 }
@@ -9,6 +9,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
+
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/users")
@@ -20,23 +24,33 @@ public class UserController {
     private final UserValidator userValidator;
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers(
+    public Mono<ResponseEntity<Object>> getAllUsers(
             @RequestHeader("X-Sharer-User-Id") long xUserId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
-        log.info("Get users with userId={}, from={}, size={}", xUserId, from, size);
-        return userClient.getAllUsers(xUserId, from, size);
+        log.info("Get users with userId={}, from={}, size={}, cursor={}", xUserId, from, size, cursor);
+        return userClient.getAllUsers(xUserId, from, size, cursor);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable Long userId) {
         log.info("Get user with userId={}", userId);
         return userClient.getUserById(userId);
     }
 
+    @PostMapping("/batch-get")
+    public Mono<ResponseEntity<Object>> getUsersByIds(
+            @RequestBody List<Long> ids
+    ) {
+        log.info("Get {} users by ids", ids.size());
+        BaseClient.validateIds(ids);
+        return userClient.getUsersByIds(ids);
+    }
+
     @PostMapping
-    public ResponseEntity<Object> create(
+    public Mono<ResponseEntity<Object>> create(
             @RequestBody @Valid UserDto userDto
             ) {
         log.info("Create user with userDto={}", userDto);
@@ -45,7 +59,7 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> edit(
+    public Mono<ResponseEntity<Object>> edit(
             @PathVariable long userId,
             @RequestBody @Valid UserDto userDto
     ) {
@@ -54,7 +68,7 @@ public class UserController {
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(
+    public Mono<ResponseEntity<Object>> delete(
             @PathVariable long userId
     ) {
         log.info("Delete user with userId={}", userId);
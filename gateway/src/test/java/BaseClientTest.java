@@ -5,11 +5,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.*;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +39,46 @@ class BaseClientTest {
         baseClient = new TestableBaseClient(restTemplate);
     }
 
+    @Test
+    @DisplayName("курсор добавляется в шаблон только если передан")
+    void withCursor_ShouldAppendCursorOnlyWhenPresent() {
+        Map<String, Object> parameters = new HashMap<>(Map.of("from", 0));
+
+        assertEquals("?from={from}", baseClient.testWithCursor("?from={from}", parameters, null));
+        assertEquals(Map.of("from", 0), parameters);
+        assertEquals("?from={from}&cursor={cursor}", baseClient.testWithCursor("?from={from}", parameters, "MTA"));
+        assertEquals("/all?cursor={cursor}", baseClient.testWithCursor("/all", new HashMap<>(), "MTA"));
+        assertEquals("MTA", parameters.get("cursor"));
+    }
+
+    @Test
+    @DisplayName("поток ответа копируется без изменений")
+    void stream_ShouldCopyResponseBody() throws Exception {
+        byte[] body = "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8);
+        when(restTemplate.execute(eq("/export"), eq(HttpMethod.GET), any(RequestCallback.class),
+                any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+                        .extractData(new MockClientHttpResponse(body, HttpStatus.OK)));
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        baseClient.testStream("/export", 1L, MediaType.APPLICATION_NDJSON, target);
+
+        assertArrayEquals(body, target.toByteArray());
+    }
+
+    @Test
+    @DisplayName("ошибка сервера при потоковой передаче сохраняет статус")
+    void stream_WhenServerFails_ShouldKeepStatus() {
+        when(restTemplate.execute(eq("/export"), eq(HttpMethod.GET), any(RequestCallback.class),
+                any(ResponseExtractor.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> baseClient.testStream("/export", 1L, MediaType.APPLICATION_NDJSON, new ByteArrayOutputStream()));
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
     @Test
     @DisplayName("GET без параметров и userId")
     void get_WithoutParametersAndUserId() {
@@ -39,7 +86,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testGet("/test");
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.GET, "/test", null, null, null);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class));
@@ -52,7 +99,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testGet("/test", 1L);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.GET, "/test", 1L, null, null);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class));
@@ -67,7 +114,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class), eq(parameters)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testGet("/test", 1L, parameters);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.GET, "/test", 1L, parameters, null);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class), eq(parameters));
@@ -82,7 +129,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.POST), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPost("/test", requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.POST, "/test", null, null, requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.POST), any(), eq(Object.class));
@@ -97,7 +144,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.POST), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPost("/test", 1L, requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.POST, "/test", 1L, null, requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.POST), any(), eq(Object.class));
@@ -113,7 +160,8 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.POST), any(), eq(Object.class), eq(parameters)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPost("/test", 1L, parameters, requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.POST, "/test", 1L, parameters,
+                requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.POST), any(), eq(Object.class), eq(parameters));
@@ -128,7 +176,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.PUT), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPut("/test", 1L, requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.PUT, "/test", 1L, null, requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.PUT), any(), eq(Object.class));
@@ -144,7 +192,8 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.PUT), any(), eq(Object.class), eq(parameters)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPut("/test", 1L, parameters, requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.PUT, "/test", 1L, parameters,
+                requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.PUT), any(), eq(Object.class), eq(parameters));
@@ -159,7 +208,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPatch("/test", requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.PATCH, "/test", null, null, requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class));
@@ -173,7 +222,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPatch("/test", 1L);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.PATCH, "/test", 1L, null, null);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class));
@@ -188,7 +237,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPatch("/test", 1L, requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.PATCH, "/test", 1L, null, requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class));
@@ -204,7 +253,8 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class), eq(parameters)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testPatch("/test", 1L, parameters, requestBody);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.PATCH, "/test", 1L, parameters,
+                requestBody);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.PATCH), any(), eq(Object.class), eq(parameters));
@@ -218,7 +268,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.DELETE), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testDelete("/test");
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.DELETE, "/test", null, null, null);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.DELETE), any(), eq(Object.class));
@@ -232,7 +282,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.DELETE), any(), eq(Object.class)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testDelete("/test", 1L);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.DELETE, "/test", 1L, null, null);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.DELETE), any(), eq(Object.class));
@@ -247,7 +297,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.DELETE), any(), eq(Object.class), eq(parameters)))
                 .thenReturn(expectedResponse);
 
-        ResponseEntity<Object> actualResponse = baseClient.testDelete("/test", 1L, parameters);
+        ResponseEntity<Object> actualResponse = baseClient.testSend(HttpMethod.DELETE, "/test", 1L, parameters, null);
 
         assertEquals(expectedResponse, actualResponse);
         verify(restTemplate).exchange(eq("/test"), eq(HttpMethod.DELETE), any(), eq(Object.class), eq(parameters));
@@ -315,7 +365,7 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class)))
                 .thenThrow(exception);
 
-        ResponseEntity<Object> response = baseClient.testGet("/test");
+        ResponseEntity<Object> response = baseClient.testSend(HttpMethod.GET, "/test", null, null, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -331,12 +381,49 @@ class BaseClientTest {
         when(restTemplate.exchange(eq("/test"), eq(HttpMethod.GET), any(), eq(Object.class)))
                 .thenThrow(exception);
 
-        ResponseEntity<Object> response = baseClient.testGet("/test");
+        ResponseEntity<Object> response = baseClient.testSend(HttpMethod.GET, "/test", null, null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertNotNull(response.getBody());
     }
 
+    @Test
+    @DisplayName("В режиме passthrough тело ответа сервера возвращается без разбора")
+    void passthrough_ShouldReturnServerBytesAndContentType() {
+        byte[] body = "[{\"id\":1},{\"id\":2}]".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setConnection("keep-alive");
+        Map<String, Object> parameters = Map.of("from", 0);
+        when(restTemplate.exchange(eq("/test?from={from}"), eq(HttpMethod.GET), any(), eq(byte[].class),
+                eq(parameters)))
+                .thenReturn(new ResponseEntity<>(body, headers, HttpStatus.OK));
+        baseClient.setPassthrough(true);
+
+        ResponseEntity<Object> response = baseClient.testSend(HttpMethod.GET, "/test?from={from}", 1L, parameters,
+                null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(body, response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertTrue(response.getHeaders().getConnection().isEmpty());
+        verify(restTemplate, never()).exchange(anyString(), any(HttpMethod.class), any(), eq(Object.class), anyMap());
+    }
+
+    @Test
+    @DisplayName("В режиме passthrough ошибка сервера сохраняет статус и тело")
+    void passthrough_WhenServerFails_ShouldKeepStatusAndBody() {
+        when(restTemplate.exchange(eq("/test"), eq(HttpMethod.DELETE), any(), eq(byte[].class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found",
+                        HttpHeaders.EMPTY, "error".getBytes(), null));
+        baseClient.setPassthrough(true);
+
+        ResponseEntity<Object> response = baseClient.testSend(HttpMethod.DELETE, "/test", 1L, null, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals("error".getBytes(), (byte[]) response.getBody());
+    }
+
     private HttpHeaders invokeDefaultHeaders(Long userId) {
         try {
             var method = BaseClient.class.getDeclaredMethod("defaultHeaders", Long.class);
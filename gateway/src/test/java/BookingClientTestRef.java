@@ -1,3 +1,4 @@
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.booking.BookingState;
@@ -19,20 +20,21 @@ class BookingClientTestRef extends BaseClient {
                 "from", from,
                 "size", size
         );
-        return get(API_PREFIX + "?state={state}&from={from}&size={size}", userId, parameters);
+        return send(HttpMethod.GET, API_PREFIX + "?state={state}&from={from}&size={size}", userId,
+                parameters, null).block();
     }
 
     public ResponseEntity<Object> bookItem(long userId, BookingRequestDto requestDto) {
-        return post(API_PREFIX, userId, requestDto);
+        return send(HttpMethod.POST, API_PREFIX, userId, null, requestDto).block();
     }
 
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
-        return get(API_PREFIX + "/" + bookingId, userId);
+        return send(HttpMethod.GET, API_PREFIX + "/" + bookingId, userId, null, null).block();
     }
 
     public ResponseEntity<Object> approvedBooking(long bookingId, long userId, boolean approved) {
         String path = API_PREFIX + "/" + bookingId + "?approved=" + approved;
-        return patch(path, userId);
+        return send(HttpMethod.PATCH, path, userId, null, null).block();
     }
 
     public ResponseEntity<Object> getBookingsByUserItem(long userId, BookingState state, Integer from, Integer size) {
@@ -41,6 +43,7 @@ class BookingClientTestRef extends BaseClient {
                 "from", from,
                 "size", size
         );
-        return get(API_PREFIX + "/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return send(HttpMethod.GET, API_PREFIX + "/owner?state={state}&from={from}&size={size}", userId,
+                parameters, null).block();
     }
 }
\ No newline at end of file
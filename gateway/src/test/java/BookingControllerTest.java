@@ -7,13 +7,22 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.BookingClient;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = ShareItTestApplication.class)
@@ -30,20 +39,47 @@ class BookingControllerTest {
     @DisplayName("GET /bookings/{id} — успешный запрос")
     void getBooking_ok() throws Exception {
         Mockito.when(bookingClient.getBooking(any(Long.class), any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/bookings/1")
+        AsyncMockMvc.perform(mockMvc, get("/bookings/1")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("POST /bookings/batch-get — бронирования по списку id")
+    void getBookingsByIds_ok() throws Exception {
+        Mockito.when(bookingClient.getBookingsByIds(1L, List.of(4L, 3L)))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
+
+        AsyncMockMvc.perform(mockMvc, post("/bookings/batch-get")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[4, 3]"))
+                .andExpect(status().isOk());
+        Mockito.verify(bookingClient).getBookingsByIds(1L, List.of(4L, 3L));
+    }
+
+    @Test
+    @DisplayName("POST /bookings/batch-get — ошибка при пустом списке или неположительном id")
+    void getBookingsByIds_invalidIds() throws Exception {
+        for (String ids : List.of("[]", "[-4]", "[1, null]")) {
+            mockMvc.perform(post("/bookings/batch-get")
+                            .header("X-Sharer-User-Id", 1)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(ids))
+                    .andExpect(status().isBadRequest());
+        }
+        Mockito.verify(bookingClient, Mockito.never()).getBookingsByIds(any(Long.class), any());
+    }
+
     @Test
     @DisplayName("GET /bookings — успешный запрос")
     void getBookingsByUser_ok() throws Exception {
-        Mockito.when(bookingClient.getBookings(any(Long.class), any(), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(bookingClient.getBookings(any(Long.class), any(), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/bookings")
+        AsyncMockMvc.perform(mockMvc, get("/bookings")
                         .header("X-Sharer-User-Id", 1)
                         .param("state", "all")
                         .param("from", "0")
@@ -55,7 +91,7 @@ class BookingControllerTest {
     @Test
     @DisplayName("GET /bookings — факт ошибки при неизвестном state")
     void getBookingsByUser_unknownState() throws Exception {
-        mockMvc.perform(get("/bookings")
+        AsyncMockMvc.perform(mockMvc, get("/bookings")
                         .header("X-Sharer-User-Id", 1)
                         .param("state", "WRONG_STATE")
                         .param("from", "0")
@@ -75,9 +111,9 @@ class BookingControllerTest {
                 "}";
 
         Mockito.when(bookingClient.bookItem(any(Long.class), any(BookingRequestDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(post("/bookings")
+        AsyncMockMvc.perform(mockMvc, post("/bookings")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
@@ -87,7 +123,7 @@ class BookingControllerTest {
     @Test
     @DisplayName("POST /bookings — факт ошибки при пустом теле")
     void bookItem_emptyBody() throws Exception {
-        mockMvc.perform(post("/bookings")
+        AsyncMockMvc.perform(mockMvc, post("/bookings")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{}"))
@@ -98,9 +134,9 @@ class BookingControllerTest {
     @DisplayName("PATCH /bookings/{id} — успешное одобрение брони")
     void approvedBooking_ok() throws Exception {
         Mockito.when(bookingClient.approvedBooking(eq(1L), eq(1L), eq(true)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(patch("/bookings/1")
+        AsyncMockMvc.perform(mockMvc, patch("/bookings/1")
                         .header("X-Sharer-User-Id", 1)
                         .param("approved", "true"))
                 .andExpect(status().isOk());
@@ -109,10 +145,10 @@ class BookingControllerTest {
     @Test
     @DisplayName("GET /bookings/owner — успешный запрос")
     void getBookingByUserItem_ok() throws Exception {
-        Mockito.when(bookingClient.getBookingsByUserItem(any(Long.class), any(), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(bookingClient.getBookingsByUserItem(any(Long.class), any(), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/bookings/owner")
+        AsyncMockMvc.perform(mockMvc, get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1)
                         .param("state", "all")
                         .param("from", "0")
@@ -120,4 +156,22 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("GET /bookings/export — ответ сервера передаётся потоком")
+    void exportBookings_ok() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingClient).exportBookings(eq(1L), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
 }
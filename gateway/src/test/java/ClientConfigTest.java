@@ -0,0 +1,54 @@
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.request.ItemRequestClient;
+import ru.practicum.shareit.user.UserClient;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(classes = ShareItTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+class ClientConfigTest {
+    @Autowired
+    private ServletWebServerApplicationContext context;
+    @Autowired
+    private UserClient userClient;
+    @Autowired
+    private ItemClient itemClient;
+    @Autowired
+    private ItemRequestClient itemRequestClient;
+    @Autowired
+    private BookingClient bookingClient;
+
+    @Test
+    @DisplayName("Все клиенты используют один пул соединений с сервером")
+    void clients_ShouldShareRequestFactory() {
+        assertEquals(1, Stream.of(userClient, itemClient, itemRequestClient, bookingClient)
+                .map(client -> (RestTemplate) ReflectionTestUtils.getField(client, "rest"))
+                .map(RestTemplate::getRequestFactory)
+                .distinct()
+                .count());
+    }
+
+    @Test
+    @DisplayName("В режиме виртуальных потоков Tomcat обрабатывает запросы на виртуальных потоках")
+    void virtualThreadsEnabled_ShouldRunTomcatOnVirtualThreads() {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+
+        assertInstanceOf(VirtualThreadExecutor.class,
+                webServer.getTomcat().getConnector().getProtocolHandler().getExecutor());
+    }
+}
@@ -0,0 +1,143 @@
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItGateway;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Loads the gateway with platform request threads, with virtual ones and with a few platform threads and
+ * non-blocking calls to the server, in front of a stub server that answers after a fixed delay, and logs
+ * throughput and p99 of each mode.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=GatewayThreadsBenchmarkTest
+ * [-Dbenchmark.requests=N] [-Dbenchmark.concurrency=N] [-Dbenchmark.latency=MS]}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GatewayThreadsBenchmarkTest {
+    // request threads of the reactive mode, the calls to the server do not hold them
+    private static final int REACTIVE_THREADS = 8;
+    private static final byte[] USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@mail.ru\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 20_000);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 1000);
+        int latency = Integer.getInteger("benchmark.latency", 50);
+        HttpServer server = stubServer(latency, concurrency);
+        try {
+            for (Mode mode : Mode.values()) {
+                try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                        .run("--server.port=0",
+                                "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                                // the pool must not be the limit of any mode
+                                "--shareit-server.max-connections=" + concurrency,
+                                "--shareit-server.max-connections-per-route=" + concurrency,
+                                "--shareit-server.pool-timeout=60s",
+                                // every request reaches the stub server
+                                "--shareit-server.single-flight=false",
+                                "--spring.threads.virtual.enabled=" + (mode == Mode.VIRTUAL),
+                                "--shareit-server.reactive=" + (mode == Mode.REACTIVE),
+                                "--server.tomcat.threads.max=" + (mode == Mode.REACTIVE ? REACTIVE_THREADS : 200),
+                                "--logging.level.root=WARN",
+                                "--logging.level.org.springframework.web.client.RestTemplate=WARN",
+                                "--logging.level.GatewayThreadsBenchmarkTest=INFO")) {
+                    String url = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port")
+                            + "/users/1";
+                    load(url, concurrency, concurrency); // warm up
+                    long started = System.nanoTime();
+                    long[] latencies = load(url, requests, concurrency);
+                    long elapsed = System.nanoTime() - started;
+                    Arrays.sort(latencies);
+                    log.info("{} threads, {} requests by {} clients, server latency {} ms: {} req/s, p50 {} ms, "
+                                    + "p99 {} ms", mode.label, requests, concurrency, latency,
+                            requests * 1_000_000_000L / elapsed, percentile(latencies, 50),
+                            percentile(latencies, 99));
+                }
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private HttpServer stubServer(int latency, int backlog) throws Exception {
+        // keeps the pooled connections of the gateway open
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(backlog));
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), backlog);
+        // platform threads, so that the stub does not compete with the virtual threads of the gateway
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/users", exchange -> {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, USER.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(USER);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private long[] load(String url, int requests, int concurrency) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        long[] latencies = new long[requests];
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(clients).build()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < concurrency; client++) {
+                int first = client;
+                futures.add(clients.submit(() -> {
+                    for (int i = first; i < requests; i += concurrency) {
+                        long started = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = System.nanoTime() - started;
+                        assertEquals(200, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.max(0, sorted.length * percentile / 100 - 1)] / 1_000_000;
+    }
+
+    private enum Mode {
+        PLATFORM("platform"),
+        VIRTUAL("virtual "),
+        REACTIVE("reactive");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.client.BaseClient;
@@ -18,23 +19,23 @@ class ItemClientWrap extends BaseClient {
                     "from", from,
                     "size", size
             );
-            return get(API_PREFIX + "?from={from}&size={size}", userId, parameters);
+            return send(HttpMethod.GET, API_PREFIX + "?from={from}&size={size}", userId, parameters, null).block();
         }
 
         public ResponseEntity<Object> getItemById(long itemId, long userId) {
-            return get(API_PREFIX + "/" + itemId, userId);
+            return send(HttpMethod.GET, API_PREFIX + "/" + itemId, userId, null, null).block();
         }
 
         public ResponseEntity<Object> create(long userId, ItemDto itemDto) {
-            return post(API_PREFIX, userId, itemDto);
+            return send(HttpMethod.POST, API_PREFIX, userId, null, itemDto).block();
         }
 
         public ResponseEntity<Object> edit(long itemId, long userId, ItemDto itemDto) {
-            return patch(API_PREFIX + "/" + itemId, userId, itemDto);
+            return send(HttpMethod.PATCH, API_PREFIX + "/" + itemId, userId, null, itemDto).block();
         }
 
         public ResponseEntity<Object> delete(long itemId, long userId) {
-            return delete(API_PREFIX + "/" + itemId, userId);
+            return send(HttpMethod.DELETE, API_PREFIX + "/" + itemId, userId, null, null).block();
         }
 
         public ResponseEntity<Object> search(String text, Long userId, Integer from, Integer size) {
@@ -42,11 +43,11 @@ class ItemClientWrap extends BaseClient {
                     "from", from,
                     "size", size
             );
-            return get(API_PREFIX + "/search?" + text, userId, parameters);
+            return send(HttpMethod.GET, API_PREFIX + "/search?" + text, userId, parameters, null).block();
         }
 
         public ResponseEntity<Object> postComment(long itemId, long userId, CommentDto commentDto) {
             String path = API_PREFIX + "/" + itemId + "/comment";
-            return post(path, userId, commentDto);
+            return send(HttpMethod.POST, path, userId, null, commentDto).block();
         }
     }
\ No newline at end of file
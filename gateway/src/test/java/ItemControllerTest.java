@@ -6,15 +6,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.CommentDto;
 import ru.practicum.shareit.item.ItemClient;
 import ru.practicum.shareit.item.ItemDto;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import reactor.core.publisher.Mono;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -55,10 +63,10 @@ class ItemControllerTest {
         Long userId = 1L;
         String expectedResponse = "{\"items\": []}";
 
-        when(itemClient.getItemsByUser(eq(userId), anyInt(), anyInt()))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+        when(itemClient.getItemsByUser(eq(userId), anyInt(), anyInt(), isNull()))
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(get("/items")
+        AsyncMockMvc.perform(mockMvc, get("/items")
                         .header("X-Sharer-User-Id", userId)
                         .param("from", "0")
                         .param("size", "10"))
@@ -69,12 +77,120 @@ class ItemControllerTest {
 
     @Test
     void getAllItemsByUser_WhenMissingUserIdHeader_ShouldReturnBadRequest() throws Exception {
-        mockMvc.perform(get("/items")
+        AsyncMockMvc.perform(mockMvc, get("/items")
                         .param("from", "0")
                         .param("size", "10"))
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getItemsByIds_WhenValidRequest_ShouldPassIdsInOrder() throws Exception {
+        when(itemClient.getItemsByIds(1L, List.of(5L, 2L)))
+                .thenReturn(Mono.just(new ResponseEntity<>("[]", HttpStatus.OK)));
+
+        AsyncMockMvc.perform(mockMvc, post("/items/batch-get")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[5, 2]"))
+                .andExpect(status().isOk());
+        verify(itemClient).getItemsByIds(1L, List.of(5L, 2L));
+    }
+
+    @Test
+    void getItemsByIds_WhenIdsInvalid_ShouldReturnBadRequest() throws Exception {
+        for (String ids : List.of("[]", "[1, 0]", objectMapper.writeValueAsString(
+                LongStream.rangeClosed(1, BaseClient.MAX_BATCH_SIZE + 1).boxed().toList()))) {
+            mockMvc.perform(post("/items/batch-get")
+                            .header("X-Sharer-User-Id", 1L)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(ids))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(itemClient, never()).getItemsByIds(anyLong(), any());
+    }
+
+    @Test
+    void importItems_WhenRowsValid_ShouldSendThemToServer() throws Exception {
+        List<ItemDto> rows = List.of(createTestItemDto(), createTestItemDto());
+        when(itemClient.importItems(eq(1L), anyList()))
+                .thenReturn(Mono.just(new ResponseEntity<>("{\"imported\":2}", HttpStatus.OK)));
+
+        AsyncMockMvc.perform(mockMvc, post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rows)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+        verify(itemClient).importItems(1L, rows);
+    }
+
+    @Test
+    void importItems_WhenNdjson_ShouldReadItemPerLine() throws Exception {
+        ItemDto item = createTestItemDto();
+        when(itemClient.importItems(eq(1L), anyList()))
+                .thenReturn(Mono.just(new ResponseEntity<>("{\"imported\":2}", HttpStatus.OK)));
+
+        AsyncMockMvc.perform(mockMvc, post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(item) + "\n\n"
+                                + objectMapper.writeValueAsString(item) + "\n"))
+                .andExpect(status().isOk());
+        verify(itemClient).importItems(1L, List.of(item, item));
+    }
+
+    @Test
+    void importItems_WhenAllRowsInvalid_ShouldReportRowsAndSendNothing() throws Exception {
+        ItemDto noDescription = createTestItemDto();
+        noDescription.setDescription(" ");
+
+        AsyncMockMvc.perform(mockMvc, post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{not json\n" + objectMapper.writeValueAsString(noDescription)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(1))
+                .andExpect(jsonPath("$.errors[1].row").value(2))
+                .andExpect(jsonPath("$.errors[1].message").value("не указано описание"));
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        verify(itemClient, never()).importItems(anyLong(), any());
+    }
+
+    @Test
+    void importItems_WhenSomeRowsInvalid_ShouldSendValidRowsAndMergeErrors() throws Exception {
+        ItemDto first = createTestItemDto();
+        ItemDto second = createTestItemDto();
+        second.setName("Второй");
+        ItemDto noDescription = createTestItemDto();
+        noDescription.setDescription(" ");
+        // the server rejects its second row, which is the fourth row of the upload
+        when(itemClient.importItems(eq(1L), anyList())).thenReturn(Mono.just(new ResponseEntity<>(
+                "{\"imported\":1,\"ids\":[7],\"errors\":[{\"row\":2,\"message\":\"запрос не найден\"}]}"
+                        .getBytes(StandardCharsets.UTF_8), HttpStatus.OK)));
+
+        AsyncMockMvc.perform(mockMvc, post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(first) + "\n{not json\n"
+                                + objectMapper.writeValueAsString(noDescription) + "\n"
+                                + objectMapper.writeValueAsString(second)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.ids[0]").value(7))
+                .andExpect(jsonPath("$.errors.length()").value(3))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[1].row").value(3))
+                .andExpect(jsonPath("$.errors[2].row").value(4))
+                .andExpect(jsonPath("$.errors[2].message").value("запрос не найден"));
+        verify(itemClient).importItems(1L, List.of(first, second));
+    }
+
     @Test
     void getItemById_WhenValidRequest_ShouldReturnItem() throws Exception {
         Long userId = 1L;
@@ -82,9 +198,9 @@ class ItemControllerTest {
         String expectedResponse = "{\"id\": 1, \"name\": \"Test Item\"}";
 
         when(itemClient.getItemById(itemId, userId))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(get("/items/{itemId}", itemId)
+        AsyncMockMvc.perform(mockMvc, get("/items/{itemId}", itemId)
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(expectedResponse));
@@ -97,9 +213,9 @@ class ItemControllerTest {
         String expectedResponse = "{\"id\": 1, \"name\": \"Test Item\"}";
 
         when(itemClient.create(eq(userId), any(ItemDto.class)))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(post("/items")
+        AsyncMockMvc.perform(mockMvc, post("/items")
                         .header("X-Sharer-User-Id", userId)
                         .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(itemDto)))
@@ -112,7 +228,7 @@ class ItemControllerTest {
     void create_WhenMissingUserIdHeader_ShouldReturnBadRequest() throws Exception {
         ItemDto itemDto = createTestItemDto();
 
-        mockMvc.perform(post("/items")
+        AsyncMockMvc.perform(mockMvc, post("/items")
                         .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(itemDto)))
                 .andExpect(status().isBadRequest());
@@ -130,9 +246,9 @@ class ItemControllerTest {
         String expectedResponse = "{\"id\": 1, \"name\": \"Updated Name\"}";
 
         when(itemClient.edit(eq(itemId), eq(userId), any(ItemDto.class)))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(patch("/items/{itemId}", itemId)
+        AsyncMockMvc.perform(mockMvc, patch("/items/{itemId}", itemId)
                         .header("X-Sharer-User-Id", userId)
                         .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(itemDto)))
@@ -150,9 +266,9 @@ class ItemControllerTest {
         String expectedResponse = "{\"id\": 1, \"name\": \"Only Name Updated\"}";
 
         when(itemClient.edit(eq(itemId), eq(userId), any(ItemDto.class)))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(patch("/items/{itemId}", itemId)
+        AsyncMockMvc.perform(mockMvc, patch("/items/{itemId}", itemId)
                         .header("X-Sharer-User-Id", userId)
                         .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(partialUpdateDto)))
@@ -167,9 +283,9 @@ class ItemControllerTest {
         String expectedResponse = "{\"message\": \"Item deleted\"}";
 
         when(itemClient.delete(itemId, userId))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(delete("/items/{itemId}", itemId)
+        AsyncMockMvc.perform(mockMvc, delete("/items/{itemId}", itemId)
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(expectedResponse));
@@ -181,10 +297,10 @@ class ItemControllerTest {
         String searchText = "test";
         String expectedResponse = "{\"items\": []}";
 
-        when(itemClient.search(eq(searchText), eq(userId), anyInt(), anyInt()))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+        when(itemClient.search(eq(searchText), eq(userId), anyInt(), anyInt(), isNull()))
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(get("/items/search")
+        AsyncMockMvc.perform(mockMvc, get("/items/search")
                         .header("X-Sharer-User-Id", userId)
                         .param("text", searchText)
                         .param("from", "0")
@@ -193,12 +309,28 @@ class ItemControllerTest {
                 .andExpect(content().json(expectedResponse));
     }
 
+    @Test
+    void searchItem_WithCursor_ShouldForwardCursor() throws Exception {
+        Long userId = 1L;
+        String expectedResponse = "{\"items\": []}";
+
+        when(itemClient.search(eq("test"), eq(userId), anyInt(), anyInt(), eq("MTA")))
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
+
+        AsyncMockMvc.perform(mockMvc, get("/items/search")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("text", "test")
+                        .param("cursor", "MTA"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse));
+    }
+
     @Test
     void searchItem_WhenEmptySearchText_ShouldReturnEmptyList() throws Exception {
         Long userId = 1L;
         String emptySearchText = "";
 
-        mockMvc.perform(get("/items/search")
+        AsyncMockMvc.perform(mockMvc, get("/items/search")
                         .header("X-Sharer-User-Id", userId)
                         .param("text", emptySearchText)
                         .param("from", "0")
@@ -216,9 +348,9 @@ class ItemControllerTest {
         String expectedResponse = "{\"id\": 1, \"text\": \"Test comment\"}";
 
         when(itemClient.postComment(eq(itemId), eq(userId), any(CommentDto.class)))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(post("/items/{itemId}/comment", itemId)
+        AsyncMockMvc.perform(mockMvc, post("/items/{itemId}/comment", itemId)
                         .header("X-Sharer-User-Id", userId)
                         .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(commentDto)))
@@ -232,7 +364,7 @@ class ItemControllerTest {
         Long itemId = 1L;
         CommentDto commentDto = createTestCommentDto();
 
-        mockMvc.perform(post("/items/{itemId}/comment", itemId)
+        AsyncMockMvc.perform(mockMvc, post("/items/{itemId}/comment", itemId)
                         .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(commentDto)))
                 .andExpect(status().isBadRequest());
@@ -243,10 +375,10 @@ class ItemControllerTest {
         Long userId = 1L;
         String expectedResponse = "{\"items\": []}";
 
-        when(itemClient.getItemsByUser(eq(userId), eq(0), eq(10)))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+        when(itemClient.getItemsByUser(eq(userId), eq(0), eq(10), isNull()))
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(get("/items")
+        AsyncMockMvc.perform(mockMvc, get("/items")
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(expectedResponse));
@@ -258,10 +390,10 @@ class ItemControllerTest {
         String searchText = "test";
         String expectedResponse = "{\"items\": []}";
 
-        when(itemClient.search(eq(searchText), eq(userId), eq(0), eq(10)))
-                .thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+        when(itemClient.search(eq(searchText), eq(userId), eq(0), eq(10), isNull()))
+                .thenReturn(Mono.just(new ResponseEntity<>(expectedResponse, HttpStatus.OK)));
 
-        mockMvc.perform(get("/items/search")
+        AsyncMockMvc.perform(mockMvc, get("/items/search")
                         .header("X-Sharer-User-Id", userId)
                         .param("text", searchText))
                 .andExpect(status().isOk())
@@ -160,7 +160,7 @@ class ItemRequestClientTest {
         }
 
         try {
-            client.getRequestByUser(1L);
+            client.getRequestByUser(1L, 0, 10);
         } catch (Exception e) {
             log.error(e.getMessage());
         }
@@ -1,3 +1,4 @@
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.client.BaseClient;
@@ -13,11 +14,15 @@ class ItemRequestClientWrap extends BaseClient {
     }
 
     public ResponseEntity<Object> create(long userId, ItemRequestDto itemRequestDto) {
-        return post(API_PREFIX, userId, itemRequestDto);
+        return send(HttpMethod.POST, API_PREFIX, userId, null, itemRequestDto).block();
     }
 
-    public ResponseEntity<Object> getRequestByUser(long xUserId) {
-        return get(API_PREFIX, xUserId);
+    public ResponseEntity<Object> getRequestByUser(long xUserId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return send(HttpMethod.GET, API_PREFIX + "?from={from}&size={size}", xUserId, parameters, null).block();
     }
 
     public ResponseEntity<Object> getAllRequests(long xUserId, int from, int size) {
@@ -25,10 +30,10 @@ class ItemRequestClientWrap extends BaseClient {
                 "from", from,
                 "size", size
         );
-        return get(API_PREFIX + "/all?from={from}&size={size}", xUserId, parameters);
+        return send(HttpMethod.GET, API_PREFIX + "/all?from={from}&size={size}", xUserId, parameters, null).block();
     }
 
     public ResponseEntity<Object> getRequestById(long requestId) {
-        return get(API_PREFIX + "/" + requestId);
+        return send(HttpMethod.GET, API_PREFIX + "/" + requestId, null, null, null).block();
     }
 }
\ No newline at end of file
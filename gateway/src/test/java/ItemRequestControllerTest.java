@@ -12,10 +12,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.ItemRequestClient;
 import ru.practicum.shareit.request.ItemRequestDto;
+import reactor.core.publisher.Mono;
 
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -41,9 +43,9 @@ class ItemRequestControllerTest {
                 "}";
 
         Mockito.when(itemRequestClient.create(any(Long.class), any(ItemRequestDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(post("/requests")
+        AsyncMockMvc.perform(mockMvc, post("/requests")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
@@ -53,7 +55,7 @@ class ItemRequestControllerTest {
     @Test
     @DisplayName("POST /requests - факт ошибки при пустом теле")
     void create_emptyBody() throws Exception {
-        mockMvc.perform(post("/requests")
+        AsyncMockMvc.perform(mockMvc, post("/requests")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{}"))
@@ -67,7 +69,7 @@ class ItemRequestControllerTest {
                 "  \"description\": \"Нужна дрель\"\n" +
                 "}";
 
-        mockMvc.perform(post("/requests")
+        AsyncMockMvc.perform(mockMvc, post("/requests")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(result -> assertNotNull(result.getResolvedException()));
@@ -76,28 +78,52 @@ class ItemRequestControllerTest {
     @Test
     @DisplayName("GET /requests - успешный запрос своих запросов")
     void getRequestByUser_ok() throws Exception {
-        Mockito.when(itemRequestClient.getRequestByUser(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(itemRequestClient.getRequestByUser(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/requests")
+        AsyncMockMvc.perform(mockMvc, get("/requests")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("GET /requests - страница и курсор передаются на сервер")
+    void getRequestByUser_withPageAndCursor_ok() throws Exception {
+        Mockito.when(itemRequestClient.getRequestByUser(1L, 5, 2, "abc"))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
+
+        AsyncMockMvc.perform(mockMvc, get("/requests")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "5")
+                        .param("size", "2")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(itemRequestClient).getRequestByUser(1L, 5, 2, "abc");
+    }
+
+    @Test
+    @DisplayName("GET /requests/subscribe - ошибка без заголовка X-Sharer-User-Id")
+    void subscribe_missingUserIdHeader() throws Exception {
+        mockMvc.perform(get("/requests/subscribe").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(result -> assertNotNull(result.getResolvedException()));
+        Mockito.verifyNoInteractions(itemRequestClient);
+    }
+
     @Test
     @DisplayName("GET /requests - факт ошибки без заголовка X-Sharer-User-Id")
     void getRequestByUser_missingUserIdHeader() throws Exception {
-        mockMvc.perform(get("/requests"))
+        AsyncMockMvc.perform(mockMvc, get("/requests"))
                 .andExpect(result -> assertNotNull(result.getResolvedException()));
     }
 
     @Test
     @DisplayName("GET /requests/all - успешный запрос всех запросов")
     void getAllRequests_ok() throws Exception {
-        Mockito.when(itemRequestClient.getAllRequests(any(Long.class), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(itemRequestClient.getAllRequests(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/requests/all")
+        AsyncMockMvc.perform(mockMvc, get("/requests/all")
                         .header("X-Sharer-User-Id", 1)
                         .param("from", "0")
                         .param("size", "10"))
@@ -107,10 +133,10 @@ class ItemRequestControllerTest {
     @Test
     @DisplayName("GET /requests/all - успешный запрос с параметрами по умолчанию")
     void getAllRequests_withDefaultParams() throws Exception {
-        Mockito.when(itemRequestClient.getAllRequests(any(Long.class), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(itemRequestClient.getAllRequests(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/requests/all")
+        AsyncMockMvc.perform(mockMvc, get("/requests/all")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
     }
@@ -118,7 +144,7 @@ class ItemRequestControllerTest {
     @Test
     @DisplayName("GET /requests/all - факт ошибки без заголовка X-Sharer-User-Id")
     void getAllRequests_missingUserIdHeader() throws Exception {
-        mockMvc.perform(get("/requests/all")
+        AsyncMockMvc.perform(mockMvc, get("/requests/all")
                         .param("from", "0")
                         .param("size", "10"))
                 .andExpect(result -> assertNotNull(result.getResolvedException()));
@@ -128,9 +154,9 @@ class ItemRequestControllerTest {
     @DisplayName("GET /requests/{requestId} - успешный запрос по ID")
     void getRequestById_ok() throws Exception {
         Mockito.when(itemRequestClient.getRequestById(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/requests/1")
+        AsyncMockMvc.perform(mockMvc, get("/requests/1")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
     }
@@ -138,7 +164,7 @@ class ItemRequestControllerTest {
     @Test
     @DisplayName("GET /requests/{requestId} - факт ошибки без заголовка X-Sharer-User-Id")
     void getRequestById_missingUserIdHeader() throws Exception {
-        mockMvc.perform(get("/requests/1"))
+        AsyncMockMvc.perform(mockMvc, get("/requests/1"))
                 .andExpect(result -> assertNotNull(result.getResolvedException()));
     }
 
@@ -146,17 +172,17 @@ class ItemRequestControllerTest {
     @DisplayName("GET /requests/{requestId} - с различными ID")
     void getRequestById_differentIds() throws Exception {
         Mockito.when(itemRequestClient.getRequestById(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/requests/1")
+        AsyncMockMvc.perform(mockMvc, get("/requests/1")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/requests/999")
+        AsyncMockMvc.perform(mockMvc, get("/requests/999")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/requests/123456")
+        AsyncMockMvc.perform(mockMvc, get("/requests/123456")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
     }
@@ -165,17 +191,17 @@ class ItemRequestControllerTest {
     @DisplayName("POST /requests - с различными описаниями")
     void create_differentDescriptions() throws Exception {
         Mockito.when(itemRequestClient.create(any(Long.class), any(ItemRequestDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
         String shortJson = "{\"description\": \"Дрель\"}";
-        mockMvc.perform(post("/requests")
+        AsyncMockMvc.perform(mockMvc, post("/requests")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(shortJson))
                 .andExpect(status().isOk());
 
         String longJson = "{\"description\": \"Очень нужна качественная дрель с набором сверл для домашнего ремонта\"}";
-        mockMvc.perform(post("/requests")
+        AsyncMockMvc.perform(mockMvc, post("/requests")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(longJson))
@@ -186,33 +212,33 @@ class ItemRequestControllerTest {
     @DisplayName("Все endpoints - логируются")
     void allEndpoints_areLogged() throws Exception {
         Mockito.when(itemRequestClient.create(any(Long.class), any(ItemRequestDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
-        Mockito.when(itemRequestClient.getRequestByUser(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
-        Mockito.when(itemRequestClient.getAllRequests(any(Long.class), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
+        Mockito.when(itemRequestClient.getRequestByUser(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
+        Mockito.when(itemRequestClient.getAllRequests(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
         Mockito.when(itemRequestClient.getRequestById(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
         String json = "{\"description\": \"Тест\"}";
 
-        mockMvc.perform(post("/requests")
+        AsyncMockMvc.perform(mockMvc, post("/requests")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/requests")
+        AsyncMockMvc.perform(mockMvc, get("/requests")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/requests/all")
+        AsyncMockMvc.perform(mockMvc, get("/requests/all")
                         .header("X-Sharer-User-Id", 1)
                         .param("from", "0")
                         .param("size", "5"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/requests/123")
+        AsyncMockMvc.perform(mockMvc, get("/requests/123")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
 
@@ -5,8 +5,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.CommentDto;
 import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemImportResult;
 import ru.practicum.shareit.item.ItemValidator;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -84,6 +88,23 @@ class ItemValidatorTest {
         );
     }
 
+    @Test
+    void validateImport_ShouldReportEveryInvalidRow() {
+        ItemDto valid = new ItemDto();
+        valid.setName("Valid Name");
+        valid.setDescription("Valid Description");
+        valid.setAvailable(true);
+        ItemDto noName = new ItemDto();
+        noName.setDescription("Valid Description");
+        noName.setAvailable(true);
+
+        List<ItemImportResult.RowError> errors = itemValidator.validateImport(Arrays.asList(valid, noName, null));
+
+        assertEquals(List.of(new ItemImportResult.RowError(2, "не указано название"),
+                new ItemImportResult.RowError(3, "строка не содержит вещь")), errors);
+        assertThrows(ValidationException.class, () -> itemValidator.validateImport(List.of()));
+    }
+
     @Test
     void validateItemDto_WithVariousInvalidFields_ShouldThrowException() {
         assertAll(
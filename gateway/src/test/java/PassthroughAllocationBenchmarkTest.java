@@ -0,0 +1,110 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the bytes allocated and the time spent per proxied call when the server response is parsed
+ * into objects and written again and when it is passed through as bytes. The server is replaced by a
+ * request factory answering with a fixed list of bookings, the response is written by the converters
+ * the gateway uses for each body type.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=PassthroughAllocationBenchmarkTest [-Dbenchmark.bookings=N]}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PassthroughAllocationBenchmarkTest {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter();
+    private final ByteArrayHttpMessageConverter bytesConverter = new ByteArrayHttpMessageConverter();
+
+    @Test
+    void compareObjectAndPassthrough() throws Exception {
+        byte[] body = bookings(Integer.getInteger("benchmark.bookings", 500));
+        RestTemplate rest = new RestTemplate((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(body, HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        });
+        TestableBaseClient objectClient = new TestableBaseClient(rest);
+        TestableBaseClient passthroughClient = new TestableBaseClient(rest);
+        passthroughClient.setPassthrough(true);
+
+        byte[] parsed = measure("object     ", body.length,
+                () -> write(objectClient.testSend(HttpMethod.GET, "/bookings", 1L, null, null)));
+        byte[] passed = measure("passthrough", body.length,
+                () -> write(passthroughClient.testSend(HttpMethod.GET, "/bookings", 1L, null, null)));
+
+        assertEquals(objectMapper.readTree(parsed), objectMapper.readTree(passed));
+    }
+
+    private byte[] measure(String label, int size, Supplier<byte[]> call) {
+        byte[] result = null;
+        for (int i = 0; i < 2000; i++) {
+            result = call.get();
+        }
+        int rounds = 5000;
+        long threadId = Thread.currentThread().threadId();
+        long allocated = THREADS.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            result = call.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated;
+        log.info("{}: response of {} bytes, {} bytes allocated and {} us per call", label, size,
+                allocated / rounds, elapsed / rounds / 1000);
+        return result;
+    }
+
+    // writes the body as the gateway does: byte[] as it is, anything else as json
+    private byte[] write(ResponseEntity<Object> response) {
+        try {
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            if (response.getBody() instanceof byte[] bytes) {
+                bytesConverter.write(bytes, response.getHeaders().getContentType(), output);
+            } else {
+                jsonConverter.write(response.getBody(), MediaType.APPLICATION_JSON, output);
+            }
+            return output.getBodyAsBytes();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] bookings(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"start\":\"2030-01-01T10:00:00\",\"end\":\"2030-01-02T10:00:00\",\"status\":\"WAITING\"")
+                    .append(",\"booker\":{\"id\":").append(i % 50).append(",\"name\":\"booker ").append(i % 50)
+                    .append("\",\"email\":\"booker").append(i % 50).append("@mail.ru\"}")
+                    .append(",\"item\":{\"id\":").append(i % 100).append(",\"name\":\"дрель ").append(i)
+                    .append("\",\"description\":\"аккумуляторная дрель\",\"available\":true}}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,141 @@
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.user.UserClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// concurrent identical calls must each wait on the server
+@SpringBootTest(classes = ShareItTestApplication.class, properties = {
+        "shareit-server.reactive=true",
+        "shareit-server.single-flight=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReactiveClientTest {
+    private static final String USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@mail.ru\"}";
+    private static final int SLOW_MS = 500;
+    private static final long SLOW_USER_ID = 2;
+    private static final String NEXT_CURSOR = "MQ";
+    private static StubServer server;
+
+    @Autowired
+    private UserClient userClient;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new StubServer(1000, "/users", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/404")) {
+                StubServer.respond(exchange, 404,
+                        "{\"error\":\"Пользователь с id = 404 не найден\"}");
+            } else if (path.equals("/users")) {
+                exchange.getResponseHeaders().add(BaseClient.NEXT_CURSOR_HEADER, NEXT_CURSOR);
+                StubServer.respond(exchange, 200, "[" + USER + "]");
+            } else if (exchange.getRequestMethod().equals("PATCH")) {
+                StubServer.respond(exchange, 200, exchange.getRequestBody().readAllBytes());
+            } else {
+                if (path.endsWith("/" + SLOW_USER_ID)) {
+                    try {
+                        Thread.sleep(SLOW_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                StubServer.respond(exchange, 200, USER);
+            }
+        });
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server.register(registry);
+    }
+
+    @Test
+    @DisplayName("Ответ сервера передаётся байтами вместе с типом содержимого")
+    void get_ShouldPassServerResponseThrough() {
+        ResponseEntity<Object> response = userClient.getUserById(1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(USER, new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Курсор следующей страницы передаётся клиенту")
+    void getAll_ShouldPassNextCursor() {
+        ResponseEntity<Object> response = userClient.getAllUsers(1L, 0, 1).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(NEXT_CURSOR, response.getHeaders().getFirst(BaseClient.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Ошибка сервера сохраняет статус и тело")
+    void get_WhenServerFails_ShouldKeepStatusAndBody() {
+        ResponseEntity<Object> response = userClient.getUserById(404L).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertTrue(new String((byte[]) response.getBody(), StandardCharsets.UTF_8).contains("не найден"));
+    }
+
+    @Test
+    @DisplayName("Контроллер отдаёт ответ сервера после асинхронной обработки")
+    void controller_ShouldReturnServerResponse() throws Exception {
+        AsyncMockMvc.perform(mockMvc, patch("/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"new name\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"name\":\"new name\"}"));
+        AsyncMockMvc.perform(mockMvc, get("/users/404"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Сотни запросов ждут сервер одновременно, не занимая потоков")
+    void manySlowCalls_ShouldWaitConcurrently() {
+        List<Mono<ResponseEntity<Object>>> calls = IntStream.range(0, 200)
+                .mapToObj(i -> userClient.getUserById(SLOW_USER_ID))
+                .toList();
+
+        long started = System.nanoTime();
+        List<ResponseEntity<Object>> responses = Flux.merge(calls).collectList().block(Duration.ofSeconds(30));
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(200, responses.size());
+        responses.forEach(response -> assertEquals(HttpStatus.OK, response.getStatusCode()));
+        // one after another they would take 200 * SLOW_MS
+        assertTrue(elapsed < 20L * SLOW_MS, () -> "запросы выполнялись " + elapsed + " мс");
+    }
+}
@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.request.ItemRequestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the events of the server are relayed one by one, also with the blocking client to the server
+@SpringBootTest(classes = ShareItTestApplication.class, properties = "shareit-server.reactive=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestEventsRelayTest {
+    private static final String ANSWER = "{\"id\":5,\"name\":\"дрель\",\"requestId\":3,\"ownerId\":2}";
+    private static final long UNKNOWN_USER_ID = 404;
+    private static StubServer server;
+
+    @Autowired
+    private ItemRequestClient requestClient;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new StubServer(100, "/requests/subscribe", exchange -> {
+            if (exchange.getRequestHeaders().getFirst("X-Sharer-User-Id").equals(String.valueOf(UNKNOWN_USER_ID))) {
+                StubServer.respond(exchange, 404,
+                        "{\"error\":\"Пользователь с id = 404 не найден\"}");
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                write(out, "event:item\nid:5\ndata:" + ANSWER + "\n\n");
+                write(out, ":heartbeat\n\n");
+                write(out, "event:item\nid:6\ndata:{\"id\":6}\n\n");
+            }
+        });
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server.register(registry);
+    }
+
+    private static void write(OutputStream out, String event) throws IOException {
+        out.write(event.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    @Test
+    @DisplayName("События сервера передаются с именем, id и данными")
+    void subscribe_ShouldRelayServerEvents() {
+        ResponseEntity<Flux<ServerSentEvent<String>>> response = requestClient.subscribe(1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.TEXT_EVENT_STREAM, response.getHeaders().getContentType());
+        List<ServerSentEvent<String>> events = response.getBody().collectList().block(Duration.ofSeconds(10));
+        List<ServerSentEvent<String>> items = events.stream().filter(event -> event.data() != null).toList();
+        assertEquals(List.of("5", "6"), items.stream().map(ServerSentEvent::id).toList());
+        assertEquals("item", items.getFirst().event());
+        assertEquals(ANSWER, items.getFirst().data());
+    }
+
+    @Test
+    @DisplayName("Ошибка сервера приходит статусом до начала потока")
+    void subscribe_WhenServerFails_ShouldKeepStatus() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> requestClient.subscribe(UNKNOWN_USER_ID).block());
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        assertTrue(e.getReason().contains("не найден"));
+    }
+
+    @Test
+    @DisplayName("Контроллер отдаёт события клиенту как text/event-stream")
+    void controller_ShouldStreamEvents() throws Exception {
+        MockHttpServletResponse response = AsyncMockMvc.perform(mockMvc, get("/requests/subscribe")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        // the events are written after the dispatch, as the server sends them
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString(StandardCharsets.UTF_8).contains("id:6")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        String content = response.getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(content.contains("id:5\nevent:item\ndata:" + ANSWER + "\n\n"), content);
+        assertTrue(content.contains(":heartbeat\n"), content);
+        assertTrue(content.contains("id:6\n"), content);
+
+        AsyncMockMvc.perform(mockMvc, get("/requests/subscribe")
+                        .header("X-Sharer-User-Id", UNKNOWN_USER_ID)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,199 @@
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.UserDto;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItTestApplication.class, properties = "shareit-server.cache.max-age=300ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResponseCacheTest {
+    private static final long MAX_AGE_MS = 300;
+    private static final String NEXT_CURSOR = "MTA";
+    private static StubServer server;
+    // versions of the stub resources, a PATCH changes the version and so the ETag
+    private static final Map<String, AtomicInteger> versions = new ConcurrentHashMap<>();
+    private static final List<String> requests = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private UserClient userClient;
+    @Autowired
+    private ItemClient itemClient;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new StubServer(100, "/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String user = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            requests.add(exchange.getRequestMethod() + " " + path + " " + ifNoneMatch);
+            AtomicInteger version = versions.computeIfAbsent(path, key -> new AtomicInteger());
+            if (exchange.getRequestMethod().equals("PATCH")) {
+                version.incrementAndGet();
+                StubServer.respond(exchange, 200, "{}");
+                return;
+            }
+            String etag = "\"" + path.hashCode() + "-" + user + "-" + version.get() + "\"";
+            if (etag.equals(ifNoneMatch)) {
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                if (path.equals("/requests/all")) {
+                    exchange.getResponseHeaders().add(BaseClient.NEXT_CURSOR_HEADER, NEXT_CURSOR);
+                }
+                exchange.getResponseHeaders().add("ETag", etag);
+                StubServer.respond(exchange, 200, "{\"path\":\"" + path + "\",\"user\":\"" + user + "\",\"version\":"
+                        + version.get() + "}");
+            }
+        });
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server.register(registry);
+    }
+
+    @BeforeEach
+    void clearRequests() {
+        requests.clear();
+    }
+
+    private static String body(ResponseEntity<Object> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Свежий ответ отдаётся из кэша без запроса к серверу")
+    void get_WhenFresh_ShouldNotCallServer() {
+        ResponseEntity<Object> first = userClient.getUserById(11L).block();
+        ResponseEntity<Object> second = userClient.getUserById(11L).block();
+
+        assertEquals(List.of("GET /users/11 null"), requests);
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertEquals(body(first), body(second));
+    }
+
+    @Test
+    @DisplayName("Устаревший ответ проверяется по ETag, на 304 отдаётся тело из кэша")
+    void get_WhenStale_ShouldRevalidate() throws Exception {
+        ResponseEntity<Object> first = userClient.getUserById(12L).block();
+        Thread.sleep(MAX_AGE_MS + 100);
+        ResponseEntity<Object> second = userClient.getUserById(12L).block();
+        ResponseEntity<Object> third = userClient.getUserById(12L).block();
+
+        String etag = first.getHeaders().getETag();
+        assertEquals(List.of("GET /users/12 null", "GET /users/12 " + etag), requests);
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(body(first), body(second));
+        assertEquals(body(first), body(third));
+    }
+
+    @Test
+    @DisplayName("Изменение через шлюз сбрасывает кэш")
+    void get_AfterChange_ShouldCallServerAgain() {
+        ResponseEntity<Object> first = userClient.getUserById(13L).block();
+        itemClient.getItemById(1L, 13L).block();
+        userClient.edit(13L, UserDto.builder().name("new name").build()).block();
+        ResponseEntity<Object> second = userClient.getUserById(13L).block();
+        itemClient.getItemById(1L, 13L).block();
+
+        assertEquals(List.of("GET /users/13 null", "GET /items/1 null", "PATCH /users/13 null",
+                "GET /users/13 null", "GET /items/1 null"), requests);
+        assertNotEquals(body(first), body(second));
+        assertTrue(body(second).contains("\"version\":1"));
+    }
+
+    @Test
+    @DisplayName("Ответы разных пользователей кэшируются отдельно")
+    void get_ForDifferentUsers_ShouldCacheSeparately() {
+        ResponseEntity<Object> owner = itemClient.getItemById(2L, 1L).block();
+        ResponseEntity<Object> other = itemClient.getItemById(2L, 2L).block();
+        itemClient.getItemById(2L, 1L).block();
+        itemClient.getItemById(2L, 2L).block();
+
+        assertEquals(2, requests.size());
+        assertTrue(body(owner).contains("\"user\":\"1\""));
+        assertTrue(body(other).contains("\"user\":\"2\""));
+    }
+
+    @Test
+    @DisplayName("Шлюз отвечает 304 клиенту с совпадающим ETag")
+    void controller_WhenEtagMatches_ShouldReturnNotModified() throws Exception {
+        String etag = AsyncMockMvc.perform(mockMvc, get("/users/14"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        AsyncMockMvc.perform(mockMvc, get("/users/14").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    @DisplayName("Курсор следующей страницы передаётся и из кэша")
+    void controller_ShouldPassNextCursorOfCachedPage() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            AsyncMockMvc.perform(mockMvc, get("/requests/all").header("X-Sharer-User-Id", 1))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(BaseClient.NEXT_CURSOR_HEADER, NEXT_CURSOR));
+        }
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    @DisplayName("Ответ на запрос, отправленный до изменения, не кэшируется")
+    void update_WhenChangedSinceSent_ShouldNotCache() {
+        ResponseCache cache = new ResponseCache(100, Duration.ofMinutes(1));
+        URI item = URI.create("http://localhost/items/1");
+        URI user = URI.create("http://localhost/users/1");
+        ResponseEntity<Object> response = ResponseEntity.ok().eTag("\"1\"").body("{}");
+        long sentBefore = cache.generation(item);
+        cache.update(user, 1L, null, cache.generation(user), response);
+
+        cache.invalidateAfterChangeOf(URI.create("http://localhost/bookings/1"));
+
+        assertSame(response, cache.update(item, 1L, null, sentBefore, response));
+        assertNull(cache.get(item, 1L));
+        assertNotNull(cache.get(user, 1L));
+        cache.update(item, 1L, null, cache.generation(item), response);
+        assertNotNull(cache.get(item, 1L));
+        assertEquals(2, cache.size());
+    }
+}
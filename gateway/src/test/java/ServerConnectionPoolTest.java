@@ -0,0 +1,101 @@
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.user.UserClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = ShareItTestApplication.class, properties = {
+        "shareit-server.max-connections-per-route=4",
+        "shareit-server.read-timeout=300ms",
+        // concurrent identical calls must each take a connection
+        "shareit-server.single-flight=false"
+})
+@ActiveProfiles("test")
+class ServerConnectionPoolTest {
+    private static final byte[] USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@mail.ru\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    // one client port per TCP connection opened by the gateway
+    private static final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+    private static StubServer server;
+
+    @Autowired
+    private UserClient userClient;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new StubServer(0, "/users", exchange -> {
+            connections.add(exchange.getRemoteAddress().getPort());
+            if (exchange.getRequestURI().getPath().endsWith("/2")) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StubServer.respond(exchange, 200, USER);
+        });
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server.register(registry);
+    }
+
+    @Test
+    @DisplayName("Параллельные запросы к серверу переиспользуют соединения пула")
+    void parallelRequests_ShouldReuseConnections() throws Exception {
+        connections.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> assertEquals(200,
+                        userClient.getUserById(1L).block().getStatusCode().value())));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(connections.size() <= 4, () -> "открыто соединений: " + connections.size());
+        assertEquals(4, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tag("httpclient", "shareit-server").gauge().value());
+        assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", "shareit-server").tag("state", "leased").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Запрос к медленному серверу прерывается по таймауту чтения")
+    void slowServer_ShouldFailOnReadTimeout() {
+        assertThrows(ResourceAccessException.class, () -> userClient.getUserById(2L).block());
+    }
+}
@@ -0,0 +1,145 @@
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.client.SingleFlight;
+import ru.practicum.shareit.item.ItemClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ShareItTestApplication.class)
+@ActiveProfiles("test")
+class SingleFlightTest {
+    private static final int CALLS = 10;
+    private static StubServer server;
+    private static final List<String> requests = new CopyOnWriteArrayList<>();
+    // the stub answers once this many requests arrived or the merged calls were counted
+    private static volatile CountDownLatch arrived = new CountDownLatch(1);
+    private static volatile MeterRegistry registry;
+    private static volatile double mergedBefore;
+
+    @Autowired
+    private ItemClient itemClient;
+    @Autowired
+    private SingleFlight singleFlight;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new StubServer(100, "/items", exchange -> {
+            String user = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+            requests.add(exchange.getRequestURI().getPath() + " " + user);
+            arrived.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            try {
+                while (System.nanoTime() < deadline
+                        && arrived.getCount() > 0 && merged() - mergedBefore < CALLS - 1) {
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.respond(exchange, 200, "{\"id\":1,\"user\":\"" + user + "\"}");
+        });
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        server.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = meterRegistry;
+        mergedBefore = merged();
+        requests.clear();
+    }
+
+    private static double merged() {
+        return registry.get("shareit.server.gets").tag("result", "merged").counter().count();
+    }
+
+
+    private List<ResponseEntity<Object>> concurrently(List<Long> users) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(users.size());
+        try {
+            List<Future<ResponseEntity<Object>>> futures = users.stream()
+                    .map(user -> executor.submit(() -> itemClient.getItemById(1L, user).block()))
+                    .toList();
+            List<ResponseEntity<Object>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<Object>> future : futures) {
+                responses.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Одинаковые одновременные GET уходят на сервер одним запросом")
+    void identicalGets_ShouldShareOneCall() throws Exception {
+        arrived = new CountDownLatch(CALLS);
+        double sentBefore = meterRegistry.get("shareit.server.gets").tag("result", "sent").counter().count();
+
+        List<ResponseEntity<Object>> responses = concurrently(IntStream.range(0, CALLS).mapToObj(i -> 1L).toList());
+
+        assertEquals(List.of("/items/1 1"), requests);
+        responses.forEach(response -> {
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("{\"id\":1,\"user\":\"1\"}", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        });
+        assertEquals(CALLS - 1, merged() - mergedBefore);
+        assertEquals(1, meterRegistry.get("shareit.server.gets").tag("result", "sent").counter().count() - sentBefore);
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    @DisplayName("GET разных пользователей не объединяются")
+    void getsOfDifferentUsers_ShouldNotBeMerged() throws Exception {
+        arrived = new CountDownLatch(2);
+
+        List<ResponseEntity<Object>> responses = concurrently(List.of(1L, 2L));
+
+        assertEquals(2, requests.size());
+        assertTrue(new String((byte[]) responses.get(1).getBody(), StandardCharsets.UTF_8).contains("\"user\":\"2\""));
+        assertEquals(0, merged() - mergedBefore);
+    }
+
+    @Test
+    @DisplayName("Завершённый запрос не переиспользуется")
+    void getAfterCompletion_ShouldCallServerAgain() {
+        arrived = new CountDownLatch(0);
+
+        itemClient.getItemById(1L, 3L).block();
+        itemClient.getItemById(1L, 3L).block();
+
+        assertEquals(List.of("/items/1 3", "/items/1 3"), requests);
+    }
+}
@@ -1,3 +1,4 @@
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.client.BaseClient;
@@ -17,22 +18,22 @@ class UserClientWrap extends BaseClient {
                 "from", from,
                 "size", size
         );
-        return get(API_PREFIX + "?from={from}&size={size}", userId, parameters);
+        return send(HttpMethod.GET, API_PREFIX + "?from={from}&size={size}", userId, parameters, null).block();
     }
 
     public ResponseEntity<Object> getUserById(long userId) {
-        return get(API_PREFIX + "/" + userId);
+        return send(HttpMethod.GET, API_PREFIX + "/" + userId, null, null, null).block();
     }
 
     public ResponseEntity<Object> create(UserDto userDto) {
-        return post(API_PREFIX, userDto);
+        return send(HttpMethod.POST, API_PREFIX, null, null, userDto).block();
     }
 
     public ResponseEntity<Object> edit(long userId, UserDto userDto) {
-        return patch(API_PREFIX + "/" + userId, userDto);
+        return send(HttpMethod.PATCH, API_PREFIX + "/" + userId, null, null, userDto).block();
     }
 
     public ResponseEntity<Object> delete(long userId) {
-        return delete(API_PREFIX + "/" + userId);
+        return send(HttpMethod.DELETE, API_PREFIX + "/" + userId, null, null, null).block();
     }
 }
\ No newline at end of file
@@ -8,11 +8,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.UserClient;
 import ru.practicum.shareit.user.UserDto;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -33,10 +39,10 @@ class UserControllerTest {
     @Test
     @DisplayName("GET /users - успешный запрос всех пользователей")
     void getAllUsers_ok() throws Exception {
-        Mockito.when(userClient.getAllUsers(any(Long.class), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(userClient.getAllUsers(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/users")
+        AsyncMockMvc.perform(mockMvc, get("/users")
                         .header("X-Sharer-User-Id", 1)
                         .param("from", "0")
                         .param("size", "10"))
@@ -46,10 +52,10 @@ class UserControllerTest {
     @Test
     @DisplayName("GET /users - успешный запрос с параметрами по умолчанию")
     void getAllUsers_withDefaultParams() throws Exception {
-        Mockito.when(userClient.getAllUsers(any(Long.class), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(userClient.getAllUsers(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/users")
+        AsyncMockMvc.perform(mockMvc, get("/users")
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk());
     }
@@ -58,7 +64,7 @@ class UserControllerTest {
     @Test
     @DisplayName("GET /users - факт ошибки без заголовка X-Sharer-User-Id")
     void getAllUsers_missingUserIdHeader() throws Exception {
-        mockMvc.perform(get("/users")
+        AsyncMockMvc.perform(mockMvc, get("/users")
                         .param("from", "0")
                         .param("size", "10"))
                 .andExpect(result -> assertNotNull(result.getResolvedException()));
@@ -68,25 +74,57 @@ class UserControllerTest {
     @DisplayName("GET /users/{userId} - успешный запрос пользователя по ID")
     void getUserById_ok() throws Exception {
         Mockito.when(userClient.getUserById(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
+
+        AsyncMockMvc.perform(mockMvc, get("/users/1"))
+                .andExpect(status().isOk());
+    }
 
-        mockMvc.perform(get("/users/1"))
+    @Test
+    @DisplayName("POST /users/batch-get - пользователи по списку id")
+    void getUsersByIds_ok() throws Exception {
+        Mockito.when(userClient.getUsersByIds(List.of(3L, 1L, 2L)))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().body(List.of())));
+
+        AsyncMockMvc.perform(mockMvc, post("/users/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[3, 1, 2]"))
                 .andExpect(status().isOk());
+        Mockito.verify(userClient).getUsersByIds(List.of(3L, 1L, 2L));
+    }
+
+    @Test
+    @DisplayName("POST /users/batch-get - пустой или слишком длинный список id")
+    void getUsersByIds_invalidIds() throws Exception {
+        mockMvc.perform(post("/users/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/users/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                LongStream.rangeClosed(1, BaseClient.MAX_BATCH_SIZE + 1).boxed().toList())))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/users/batch-get")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, -1]"))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(userClient, Mockito.never()).getUsersByIds(any());
     }
 
     @Test
     @DisplayName("GET /users/{userId} - с различными ID")
     void getUserById_differentIds() throws Exception {
         Mockito.when(userClient.getUserById(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(get("/users/1"))
+        AsyncMockMvc.perform(mockMvc, get("/users/1"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/users/999"))
+        AsyncMockMvc.perform(mockMvc, get("/users/999"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/users/123456"))
+        AsyncMockMvc.perform(mockMvc, get("/users/123456"))
                 .andExpect(status().isOk());
     }
 
@@ -99,9 +137,9 @@ class UserControllerTest {
                 "}";
 
         Mockito.when(userClient.create(any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk());
@@ -116,7 +154,7 @@ class UserControllerTest {
                 "  \"email\": \"invalid-email\"\n" +
                 "}";
 
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(result -> assertNotNull(result.getResolvedException()));
@@ -133,9 +171,9 @@ class UserControllerTest {
                 "}";
 
         Mockito.when(userClient.edit(any(Long.class), any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(patch("/users/1")
+        AsyncMockMvc.perform(mockMvc, patch("/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk());
@@ -149,9 +187,9 @@ class UserControllerTest {
                 "}";
 
         Mockito.when(userClient.edit(any(Long.class), any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(patch("/users/1")
+        AsyncMockMvc.perform(mockMvc, patch("/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk());
@@ -165,9 +203,9 @@ class UserControllerTest {
                 "}";
 
         Mockito.when(userClient.edit(any(Long.class), any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(patch("/users/1")
+        AsyncMockMvc.perform(mockMvc, patch("/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk());
@@ -181,14 +219,14 @@ class UserControllerTest {
                 "}";
 
         Mockito.when(userClient.edit(any(Long.class), any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(patch("/users/1")
+        AsyncMockMvc.perform(mockMvc, patch("/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(patch("/users/999")
+        AsyncMockMvc.perform(mockMvc, patch("/users/999")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk());
@@ -198,9 +236,9 @@ class UserControllerTest {
     @DisplayName("DELETE /users/{userId} - успешное удаление пользователя")
     void delete_ok() throws Exception {
         Mockito.when(userClient.delete(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(delete("/users/1"))
+        AsyncMockMvc.perform(mockMvc, delete("/users/1"))
                 .andExpect(status().isOk());
     }
 
@@ -208,15 +246,15 @@ class UserControllerTest {
     @DisplayName("DELETE /users/{userId} - с различными ID")
     void delete_differentIds() throws Exception {
         Mockito.when(userClient.delete(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
-        mockMvc.perform(delete("/users/1"))
+        AsyncMockMvc.perform(mockMvc, delete("/users/1"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(delete("/users/999"))
+        AsyncMockMvc.perform(mockMvc, delete("/users/999"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(delete("/users/123456"))
+        AsyncMockMvc.perform(mockMvc, delete("/users/123456"))
                 .andExpect(status().isOk());
     }
 
@@ -224,22 +262,22 @@ class UserControllerTest {
     @DisplayName("POST /users - с различными валидными данными")
     void create_differentValidData() throws Exception {
         Mockito.when(userClient.create(any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
         String json1 = "{\"name\": \"Alice\", \"email\": \"alice@example.com\"}";
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json1))
                 .andExpect(status().isOk());
 
         String json2 = "{\"name\": \"Bob Smith\", \"email\": \"bob.smith@company.org\"}";
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json2))
                 .andExpect(status().isOk());
 
         String json3 = "{\"name\": \"Чарли\", \"email\": \"charlie@test.ru\"}";
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json3))
                 .andExpect(status().isOk());
@@ -248,39 +286,39 @@ class UserControllerTest {
     @Test
     @DisplayName("Все endpoints - логируются")
     void allEndpoints_areLogged() throws Exception {
-        Mockito.when(userClient.getAllUsers(any(Long.class), any(Integer.class), any(Integer.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+        Mockito.when(userClient.getAllUsers(any(Long.class), any(Integer.class), any(Integer.class), isNull()))
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
         Mockito.when(userClient.getUserById(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
         Mockito.when(userClient.create(any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
         Mockito.when(userClient.edit(any(Long.class), any(UserDto.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
         Mockito.when(userClient.delete(any(Long.class)))
-                .thenReturn(org.springframework.http.ResponseEntity.ok().build());
+                .thenReturn(Mono.just(org.springframework.http.ResponseEntity.ok().build()));
 
         String userJson = "{\"name\": \"Test User\", \"email\": \"test@example.com\"}";
 
-        mockMvc.perform(get("/users")
+        AsyncMockMvc.perform(mockMvc, get("/users")
                         .header("X-Sharer-User-Id", 1)
                         .param("from", "0")
                         .param("size", "5"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/users/1"))
+        AsyncMockMvc.perform(mockMvc, get("/users/1"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(post("/users")
+        AsyncMockMvc.perform(mockMvc, post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(userJson))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(patch("/users/1")
+        AsyncMockMvc.perform(mockMvc, patch("/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(userJson))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(delete("/users/1"))
+        AsyncMockMvc.perform(mockMvc, delete("/users/1"))
                 .andExpect(status().isOk());
 
     }
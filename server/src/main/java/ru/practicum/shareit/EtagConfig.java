@@ -0,0 +1,24 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * GET responses of items, requests and users carry an ETag of their body, a request with a matching
+ * If-None-Match gets 304 without the body. The gateway revalidates its cached responses with it.
+ * Single items, requests, users and bookings set an ETag from the entity versions themselves and
+ * answer 304 before the body is built, the filter keeps that ETag.
+ */
+@Configuration
+public class EtagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/items/*", "/requests/*", "/users/*");
+        return registration;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * The Hibernate second-level cache is set up in application.properties (hibernate.classcache) and
+ * application.conf. Every region reports its hit ratio as hibernate.cache.hit.ratio tagged by region:
+ * entity regions are named after the entity classes, query results are in default-query-results-region.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // the default cache manager of the provider is shared in the JVM, but hibernate closes it with its context
+    @Bean
+    public HibernatePropertiesCustomizer ownCacheManager() {
+        return properties -> properties.computeIfAbsent(ConfigSettings.CACHE_MANAGER, key -> {
+            CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+            // not a resource, so the regions are configured from application.conf
+            return provider.getCacheManager(URI.create("shareit-second-level-cache-" + UUID.randomUUID()),
+                    provider.getDefaultClassLoader());
+        });
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                                s -> hitRatio(s.getCacheRegionStatistics(region)))
+                        .tag("region", region)
+                        .description("hits of the region among all its lookups, 0 without hibernate statistics")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return 0;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? 0 : (double) region.getHitCount() / lookups;
+    }
+}
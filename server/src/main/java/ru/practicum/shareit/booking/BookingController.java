@@ -1,11 +1,20 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Slf4j
@@ -13,29 +22,65 @@ import java.util.List;
 @RequestMapping("/bookings")
 public class BookingController {
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
     BookingService bookingService;
+    ObjectMapper objectMapper;
 
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(
             @RequestHeader("X-Sharer-User-Id") long userId,
-            @PathVariable long bookingId) {
+            @PathVariable long bookingId,
+            WebRequest request) {
         log.info("getBookingById in server/Booking Controller");
+        if (request.checkNotModified(bookingService.getBookingTag(userId, bookingId))) {
+            return null;
+        }
         return bookingService.getBookingById(userId, bookingId);
     }
 
+    @PostMapping("/batch-get")
+    public List<BookingResponseDto> getBookingsByIds(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<Long> ids) {
+        log.info("getBookingsByIds in server/Booking Controller");
+        return bookingService.getBookingsByIds(userId, ids);
+    }
+
     @GetMapping
     public List<BookingResponseDto> getBookingByUser(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", required = false) BookingState stateParam,
             @RequestParam(name = "from") Integer from,
-            @RequestParam(name = "size") Integer size
+            @RequestParam(name = "size") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response
     ) {
         log.info("getBookingByUser in server/Booking Controller");
-        return bookingService.getBookingByUser(userId, stateParam, from, size);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<BookingResponseDto> bookings = pageCursor == null
+                ? bookingService.getBookingByUser(userId, stateParam, from, size)
+                : bookingService.getBookingByUser(userId, stateParam, pageCursor, size);
+        PageCursor.writeNext(response, bookings, size, b -> new PageCursor(b.getStart(), b.getId()));
+        return bookings;
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookingsByUser(
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("exportBookingsByUser in server/Booking Controller");
+        StreamingResponseBody body = out -> bookingService.exportBookingsByUser(userId, booking -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(booking));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PostMapping
@@ -61,11 +106,17 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(required = false) BookingState state,
             @RequestParam(name = "from") Integer from,
-            @RequestParam (name = "size") Integer size
-
+            @RequestParam (name = "size") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response
     ) {
         log.info("getBookingByUserItem in server/Booking Controller");
-        return bookingService.getBookingByUserItem(userId, state, from, size);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<BookingResponseDto> bookings = pageCursor == null
+                ? bookingService.getBookingByUserItem(userId, state, from, size)
+                : bookingService.getBookingByUserItem(userId, state, pageCursor, size);
+        PageCursor.writeNext(response, bookings, size, b -> new PageCursor(b.getStart(), b.getId()));
+        return bookings;
     }
 
 }
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.DuplicatedDataException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Waiting and approved bookings of an item never overlap, so they are kept sorted by start and a
+ * new booking is checked against the single booking starting right before its end. Intervals are
+ * half-open, a booking may start when the previous one ends. Bookings of an item are loaded on the
+ * first reservation and checked and saved under a per-item lock stripe. A booking found overlapping is
+ * checked again against bookings loaded anew, as the overlapping one may have been rejected through
+ * another instance; the exclusion constraint ex_bookings_item_overlap (db/vendor/postgresql) rejects
+ * overlaps made by other instances.
+ * The save must commit before the lock is released, so it is not called inside a transaction.
+ * Ended bookings are dropped every prune interval, together with the items left without bookings.
+ */
+@Slf4j
+@Component
+public class BookingOverlapIndex {
+    static final String OVERLAP_CONSTRAINT = "ex_bookings_item_overlap";
+    private static final List<Status> ACTIVE = List.of(Status.WAITING, Status.APPROVED);
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Lock[] locks = new Lock[STRIPES];
+    private final Map<Long, NavigableMap<LocalDateTime, Interval>> items = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService pruning = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("booking-overlap-prune").daemon().factory());
+
+    @Autowired
+    public BookingOverlapIndex(BookingRepository bookingRepository,
+                               @Value("${shareit.booking.overlap.prune-interval:10m}") Duration pruneInterval) {
+        this.bookingRepository = bookingRepository;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        pruning.scheduleWithFixedDelay(() -> prune(LocalDateTime.now()), pruneInterval.toMillis(),
+                pruneInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Booking reserve(Booking booking, UnaryOperator<Booking> save) {
+        long itemId = booking.getItem().getId();
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            NavigableMap<LocalDateTime, Interval> intervals = items.computeIfAbsent(itemId, id -> load(id, now));
+            // ended bookings cannot overlap a new one
+            dropEnded(intervals, now);
+            if (overlaps(intervals, booking.getStart(), booking.getEnd())) {
+                intervals = load(itemId, now);
+                items.put(itemId, intervals);
+            }
+            if (overlaps(intervals, booking.getStart(), booking.getEnd())) {
+                log.error("вещь с id = {} уже забронирована на время {} - {}", itemId, booking.getStart(),
+                        booking.getEnd());
+                throw overlapException(itemId);
+            }
+            Booking saved = save(itemId, booking, save);
+            if (saved.getStart().isBefore(saved.getEnd())) {
+                intervals.put(saved.getStart(), new Interval(saved.getId(), saved.getEnd()));
+            }
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Booking booking) {
+        long itemId = booking.getItem().getId();
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            NavigableMap<LocalDateTime, Interval> intervals = items.get(itemId);
+            if (intervals != null) {
+                Interval interval = intervals.get(booking.getStart());
+                if (interval != null && interval.id() == booking.getId()) {
+                    intervals.remove(booking.getStart());
+                }
+                if (intervals.isEmpty()) {
+                    items.remove(itemId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void prune(LocalDateTime now) {
+        int pruned = 0;
+        for (Long itemId : items.keySet()) {
+            Lock lock = lockFor(itemId);
+            lock.lock();
+            try {
+                NavigableMap<LocalDateTime, Interval> intervals = items.get(itemId);
+                if (intervals == null) {
+                    continue;
+                }
+                dropEnded(intervals, now);
+                // the next reservation of the item loads its bookings again
+                if (intervals.isEmpty()) {
+                    items.remove(itemId);
+                    pruned++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.debug("из индекса пересечений бронирований удалено вещей без бронирований: {}", pruned);
+    }
+
+    @PreDestroy
+    public void close() {
+        pruning.shutdownNow();
+    }
+
+    private static void dropEnded(NavigableMap<LocalDateTime, Interval> intervals, LocalDateTime now) {
+        // bookings do not overlap, so they end in the order they start
+        while (!intervals.isEmpty() && !intervals.firstEntry().getValue().end().isAfter(now)) {
+            intervals.pollFirstEntry();
+        }
+    }
+
+    private Booking save(long itemId, Booking booking, UnaryOperator<Booking> save) {
+        try {
+            return save.apply(booking);
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (!message.contains(OVERLAP_CONSTRAINT)) {
+                throw e;
+            }
+            // booked through another instance, the loaded bookings are stale
+            items.remove(itemId);
+            log.error("бронирование вещи с id = {} отклонено ограничением {}", itemId, OVERLAP_CONSTRAINT);
+            throw overlapException(itemId);
+        }
+    }
+
+    private NavigableMap<LocalDateTime, Interval> load(long itemId, LocalDateTime now) {
+        NavigableMap<LocalDateTime, Interval> intervals = new TreeMap<>();
+        bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId, ACTIVE, now).stream()
+                .filter(b -> b.getStart().isBefore(b.getEnd()))
+                .forEach(b -> intervals.put(b.getStart(), new Interval(b.getId(), b.getEnd())));
+        return intervals;
+    }
+
+    private static boolean overlaps(NavigableMap<LocalDateTime, Interval> intervals, LocalDateTime start,
+                                    LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, Interval> before = intervals.lowerEntry(end);
+        return before != null && before.getValue().end().isAfter(start);
+    }
+
+    private Lock lockFor(long itemId) {
+        return locks[(int) Math.floorMod(itemId, (long) STRIPES)];
+    }
+
+    private static DuplicatedDataException overlapException(long itemId) {
+        return new DuplicatedDataException("вещь с id = " + itemId + " уже забронирована на это время");
+    }
+
+    private record Interval(long id, LocalDateTime end) {
+    }
+}
@@ -1,26 +1,70 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    int EXPORT_FETCH_SIZE = 200;
 
     //ALL
-    List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId);
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            order by b.start desc, b.id desc
+            limit :size offset :from
+            """)
+    List<Booking> findAllByBookerId(@Param("bookerId") long bookerId,
+                                    @Param("from") int from,
+                                    @Param("size") int size);
+
+    //ALL AS STREAM
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            order by b.start desc, b.id desc
+            """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Booking> streamAllByBookerId(@Param("bookerId") long bookerId);
+
+    //BY IDS, only the bookings the user booked or owns the item of
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch i.owner o
+            join fetch b.booker
+            where b.id in :ids
+            and (b.booker.id = :userId or o.id = :userId)
+            """)
+    List<Booking> findAllVisibleByIdIn(@Param("ids") List<Long> ids, @Param("userId") long userId);
 
     //CURRENT
-    @Query(value = """
-            select * from bookings b
-            where b.booker_id = :bookerId
-            and b.started < :now1 and b.ended > :now2
-            order by b.started desc
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and b.start < :now1 and b.end > :now2
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findCurrentByBookerId(@Param("bookerId") long bookerId,
                                         @Param("now1") LocalDateTime now1,
                                         @Param("now2") LocalDateTime now2,
@@ -28,66 +72,74 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                         @Param("size") int size);
 
     //PAST
-    @Query(value = """
-            select * from bookings b
-            where b.booker_id = :bookerId
-            and b.ended < :now
-            order by b.started desc
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and b.end < :now
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findPastByBookerId(@Param("bookerId") long bookerId,
                                      @Param("now") LocalDateTime now,
                                      @Param("from") int from,
                                      @Param("size") int size);
 
     //FUTURE
-    @Query(value = """
-            select * from bookings b
-            where b.booker_id = :bookerId
-            and b.started > :now
-            order by b.started desc
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and b.start > :now
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findFutureByBookerId(@Param("bookerId") long bookerId,
                                        @Param("now") LocalDateTime now,
                                        @Param("from") int from,
                                        @Param("size") int size);
 
     //STATUS
-    @Query(value = """
-            select * from booking b
-            where b.booker_id = :bookerId
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
             and b.status = :status
-            order by b.started desc
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findStatusByBookerId(@Param("bookerId") long bookerId,
                                        @Param("status") Status status,
-                                       @Param("size") int size,
-                                       @Param("from") int from);
+                                       @Param("from") int from,
+                                       @Param("size") int size);
 
     //ALL BY OWNER
-    @Query(value = """
-            select * from booking b
-            join items i on b.item_id = i.id
-            where i.user_id = :ownerId
-            order by b.started desc
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findAllByOwner(@Param("ownerId") long ownerId,
                                  @Param("from") int from,
                                  @Param("size") int size);
 
     //CURRENT BY OWNER
-    @Query(value = """
-            select * from booking b
-            join items i on b.item_id = i.id
-            where i.user_id = :ownerId
-            and b.started < :now1
-            and b.ended > :now2
-            order by b.started desc
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and b.start < :now1
+            and b.end > :now2
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findCurrentByOwnerItem(@Param("ownerId") long ownerId,
                                          @Param("now1") LocalDateTime now1,
                                          @Param("now2") LocalDateTime now2,
@@ -95,47 +147,235 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                          @Param("size") int size);
 
     //PAST BY OWNER
-    @Query(value = """
-            select * from booking b
-            join items i on b.item_id = i.id
-            where i.user_id = :ownerId
-            and b.ended < :now1
-            order by b.started desc
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and b.end < :now
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findPastByOwnerItem(@Param("ownerId") long ownerId,
                                       @Param("now") LocalDateTime now,
                                       @Param("from") int from,
                                       @Param("size") int size);
 
     //FUTURE BY OWNER
-    @Query(value = """
-            select * from booking b
-            join items i on b.item_id = i.id
-            where i.user_id = :ownerId
-            and b.started > :now
-            order by b.started desc
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and b.start > :now
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findFutureByOwnerItem(@Param("ownerId") long ownerId,
                                         @Param("now") LocalDateTime now,
                                         @Param("from") int from,
                                         @Param("size") int size);
 
     //STATUS BY OWNER
-    @Query(value = """
-            select * from booking b
-            join items i on b.item_id = i.id
-            where i.user_id = :ownerId
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
             and b.status = :status
-            order by b.started desc
+            order by b.start desc, b.id desc
             limit :size offset :from
-            """, nativeQuery = true)
+            """)
     List<Booking> findStatusByOwnerItem(@Param("ownerId") long ownerId,
                                         @Param("status") Status status,
                                         @Param("from") int from,
                                         @Param("size") int size);
 
+    //ALL AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findAllByBookerIdAfter(@Param("bookerId") long bookerId,
+                                         @Param("started") LocalDateTime started,
+                                         @Param("id") long id,
+                                         @Param("size") int size);
+
+    //CURRENT AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and b.start < :now1 and b.end > :now2
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findCurrentByBookerIdAfter(@Param("bookerId") long bookerId,
+                                             @Param("now1") LocalDateTime now1,
+                                             @Param("now2") LocalDateTime now2,
+                                             @Param("started") LocalDateTime started,
+                                             @Param("id") long id,
+                                             @Param("size") int size);
+
+    //PAST AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and b.end < :now
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findPastByBookerIdAfter(@Param("bookerId") long bookerId,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("started") LocalDateTime started,
+                                          @Param("id") long id,
+                                          @Param("size") int size);
+
+    //FUTURE AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and b.start > :now
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findFutureByBookerIdAfter(@Param("bookerId") long bookerId,
+                                            @Param("now") LocalDateTime now,
+                                            @Param("started") LocalDateTime started,
+                                            @Param("id") long id,
+                                            @Param("size") int size);
+
+    //STATUS AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.booker.id = :bookerId
+            and b.status = :status
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findStatusByBookerIdAfter(@Param("bookerId") long bookerId,
+                                            @Param("status") Status status,
+                                            @Param("started") LocalDateTime started,
+                                            @Param("id") long id,
+                                            @Param("size") int size);
+
+    //ALL BY OWNER AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findAllByOwnerAfter(@Param("ownerId") long ownerId,
+                                      @Param("started") LocalDateTime started,
+                                      @Param("id") long id,
+                                      @Param("size") int size);
+
+    //CURRENT BY OWNER AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and b.start < :now1
+            and b.end > :now2
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findCurrentByOwnerItemAfter(@Param("ownerId") long ownerId,
+                                              @Param("now1") LocalDateTime now1,
+                                              @Param("now2") LocalDateTime now2,
+                                              @Param("started") LocalDateTime started,
+                                              @Param("id") long id,
+                                              @Param("size") int size);
+
+    //PAST BY OWNER AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and b.end < :now
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findPastByOwnerItemAfter(@Param("ownerId") long ownerId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("started") LocalDateTime started,
+                                           @Param("id") long id,
+                                           @Param("size") int size);
+
+    //FUTURE BY OWNER AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and b.start > :now
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findFutureByOwnerItemAfter(@Param("ownerId") long ownerId,
+                                             @Param("now") LocalDateTime now,
+                                             @Param("started") LocalDateTime started,
+                                             @Param("id") long id,
+                                             @Param("size") int size);
+
+    //STATUS BY OWNER AFTER CURSOR
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where i.owner.id = :ownerId
+            and b.status = :status
+            and (b.start < :started or (b.start = :started and b.id < :id))
+            order by b.start desc, b.id desc
+            limit :size
+            """)
+    List<Booking> findStatusByOwnerItemAfter(@Param("ownerId") long ownerId,
+                                             @Param("status") Status status,
+                                             @Param("started") LocalDateTime started,
+                                             @Param("id") long id,
+                                             @Param("size") int size);
+
+    //BOOKING WITH ITEM AND BOOKER
+    @Query("""
+            select b from Booking b
+            join fetch b.item i
+            join fetch b.booker
+            where b.id = :id
+            """)
+    Optional<Booking> findWithItemAndBookerById(@Param("id") long id);
+
+    //APPROVED BOOKINGS FOR TIMELINE
+    List<Booking> findAllByStatusAndIdGreaterThanOrderByIdAsc(Status status, long id, Limit limit);
+
+    //WAITING AND APPROVED BOOKINGS NOT ENDED YET
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(long itemId, Collection<Status> statuses,
+                                                        LocalDateTime now);
+
     //LAST BOOKING
     Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(
             long itemId, LocalDateTime now, Status status
@@ -152,9 +392,4 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     );
 
 
-
-    //ALL BOOKINGS FOR ITEMS
-    List<Booking> findAllByItemIdInAndStatusOrderByStartAsc(List<Long> itemId, Status status);
-
-
 }
@@ -4,8 +4,10 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -15,7 +17,19 @@ public interface BookingService {
 
     BookingResponseDto getBookingById(long userId, long bookingId);
 
+    // the ETag of getBookingById, changes with the version of the booking, its item and its booker
+    String getBookingTag(long userId, long bookingId);
+
+    // in the order of the ids, bookings that are missing or not of the user are left out
+    List<BookingResponseDto> getBookingsByIds(long userId, List<Long> ids);
+
     List<BookingResponseDto> getBookingByUser(long userId, BookingState state, Integer from, Integer size);
 
+    List<BookingResponseDto> getBookingByUser(long userId, BookingState state, PageCursor cursor, int size);
+
+    void exportBookingsByUser(long userId, Consumer<BookingResponseDto> consumer);
+
     List<BookingResponseDto> getBookingByUserItem(long userId, BookingState state, Integer from, Integer size);
+
+    List<BookingResponseDto> getBookingByUserItem(long userId, BookingState state, PageCursor cursor, int size);
 }
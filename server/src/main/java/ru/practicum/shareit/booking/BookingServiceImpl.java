@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
+import ru.practicum.shareit.AfterCommit;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -7,15 +9,23 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserValidator;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -27,17 +37,25 @@ public class BookingServiceImpl implements BookingService {
     BookingMapper bookingMapper;
     BookingRepository bookingRepository;
     UserValidator userValidator;
+    EntityManager entityManager;
+    BookingTimeline bookingTimeline;
+    BookingOverlapIndex bookingOverlapIndex;
 
     @Autowired
     public BookingServiceImpl(BookingValidator bookingValidator, UserRepository userRepository,
                               BookingMapper bookingMapper, ItemRepository itemRepository,
-                              BookingRepository bookingRepository, UserValidator userValidator) {
+                              BookingRepository bookingRepository, UserValidator userValidator,
+                              EntityManager entityManager, BookingTimeline bookingTimeline,
+                              BookingOverlapIndex bookingOverlapIndex) {
         this.bookingValidator = bookingValidator;
         this.userRepository = userRepository;
         this.bookingMapper = bookingMapper;
         this.itemRepository = itemRepository;
         this.bookingRepository = bookingRepository;
         this.userValidator = userValidator;
+        this.entityManager = entityManager;
+        this.bookingTimeline = bookingTimeline;
+        this.bookingOverlapIndex = bookingOverlapIndex;
     }
 
     @Override
@@ -49,6 +67,32 @@ public class BookingServiceImpl implements BookingService {
         return bookingMapper.toBookingResponseDto(booking);
     }
 
+    @Override
+    public String getBookingTag(long userId, long bookingId) {
+        userValidator.isUserExists(userId);
+        Booking booking = getBookingOrThrow(bookingId);
+        bookingValidator.isBookerOrOwner(userId, booking);
+        return "booking-" + bookingId + "-" + booking.getVersion() + "-" + booking.getItem().getVersion()
+                + "-" + booking.getBooker().getVersion();
+    }
+
+    @Override
+    public List<BookingResponseDto> getBookingsByIds(long userId, List<Long> ids) {
+        log.info("получение {} бронирований по id в BookingServiceImpl", ids.size());
+        userValidator.isUserExists(userId);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Booking> found = bookingRepository.findAllVisibleByIdIn(ids, userId).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(bookingMapper::toBookingResponseDto)
+                .toList();
+    }
+
     @Override
     public List<BookingResponseDto> getBookingByUser(long userId, BookingState state, Integer from, Integer size) {
         log.info("получение бронирований по пользователю");
@@ -60,7 +104,7 @@ public class BookingServiceImpl implements BookingService {
             case FUTURE -> bookingRepository.findFutureByBookerId(userId, now, from, size);
             case WAITING -> bookingRepository.findStatusByBookerId(userId, Status.WAITING, from, size);
             case REJECTED -> bookingRepository.findStatusByBookerId(userId, Status.REJECTED, from, size);
-            default -> bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
+            default -> bookingRepository.findAllByBookerId(userId, from, size);
         };
 
         return bookings.stream()
@@ -68,6 +112,42 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<BookingResponseDto> getBookingByUser(long userId, BookingState state, PageCursor cursor, int size) {
+        log.info("получение бронирований по пользователю после курсора {}", cursor);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime started = cursor.requireKey();
+        long id = cursor.id();
+        List<Booking> bookings = switch (state) {
+            case CURRENT -> bookingRepository.findCurrentByBookerIdAfter(userId, now, now, started, id, size);
+            case PAST -> bookingRepository.findPastByBookerIdAfter(userId, now, started, id, size);
+            case FUTURE -> bookingRepository.findFutureByBookerIdAfter(userId, now, started, id, size);
+            case WAITING -> bookingRepository.findStatusByBookerIdAfter(userId, Status.WAITING,
+                    started, id, size);
+            case REJECTED -> bookingRepository.findStatusByBookerIdAfter(userId, Status.REJECTED,
+                    started, id, size);
+            default -> bookingRepository.findAllByBookerIdAfter(userId, started, id, size);
+        };
+        return bookings.stream().map(bookingMapper::toBookingResponseDto).collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBookingsByUser(long userId, Consumer<BookingResponseDto> consumer) {
+        log.info("выгрузка всех бронирований пользователя {}", userId);
+        userValidator.isUserExists(userId);
+        try (Stream<Booking> bookings = bookingRepository.streamAllByBookerId(userId)) {
+            int count = 0;
+            for (Iterator<Booking> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                consumer.accept(bookingMapper.toBookingResponseDto(iterator.next()));
+                // rows already written are not needed, so the persistence context does not grow with the history
+                if (++count % BookingRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     @Override
     public BookingResponseDto create(BookingRequestDto bookingRequestDto, long userId) {
         log.info("создание бронирования в BookingServiceImpl для {}, userId = {}", bookingRequestDto, userId);
@@ -76,18 +156,27 @@ public class BookingServiceImpl implements BookingService {
         bookingValidator.isItemAvailable(bookingRequestDto.getItemId());
         Booking booking = bookingMapper.toBooking(bookingRequestDto, item, user);
         booking.setStatus(Status.WAITING);
-        return bookingMapper.toBookingResponseDto(bookingRepository.save(booking));
+        Booking saved = bookingOverlapIndex.reserve(booking, bookingRepository::save);
+        AfterCommit.run(() -> bookingTimeline.update(saved));
+        return bookingMapper.toBookingResponseDto(saved);
     }
 
     @Override
+    @Transactional
     public BookingResponseDto approved(long ownerId, long bookingId, boolean approved) {
         log.info("подтверждение бронирования в BookingServiceImpl");
-        Booking booking = getBookingOrThrow(bookingId);
-        bookingValidator.isOwner(ownerId, booking);
+        Booking booking = bookingValidator.getOwnedBooking(bookingId, ownerId);
         bookingValidator.statusIsWaiting(booking);
-        userValidator.isUserExists(ownerId);
         booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        return bookingMapper.toBookingResponseDto(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        // a rolled back rejection keeps the time reserved
+        AfterCommit.run(() -> {
+            if (!approved) {
+                bookingOverlapIndex.release(saved);
+            }
+            bookingTimeline.update(saved);
+        });
+        return bookingMapper.toBookingResponseDto(saved);
     }
 
     @Override
@@ -106,6 +195,27 @@ public class BookingServiceImpl implements BookingService {
         return bookings.stream().map(bookingMapper::toBookingResponseDto).collect(Collectors.toList());
     }
 
+    @Override
+    public List<BookingResponseDto> getBookingByUserItem(long userId, BookingState state, PageCursor cursor,
+                                                         int size) {
+        log.info("получение бронирований по вещам пользователя после курсора {}", cursor);
+        bookingValidator.hasItem(userId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime started = cursor.requireKey();
+        long id = cursor.id();
+        List<Booking> bookings = switch (state) {
+            case CURRENT -> bookingRepository.findCurrentByOwnerItemAfter(userId, now, now, started, id, size);
+            case PAST -> bookingRepository.findPastByOwnerItemAfter(userId, now, started, id, size);
+            case FUTURE -> bookingRepository.findFutureByOwnerItemAfter(userId, now, started, id, size);
+            case WAITING -> bookingRepository.findStatusByOwnerItemAfter(userId, Status.WAITING,
+                    started, id, size);
+            case REJECTED -> bookingRepository.findStatusByOwnerItemAfter(userId, Status.REJECTED,
+                    started, id, size);
+            default -> bookingRepository.findAllByOwnerAfter(userId, started, id, size);
+        };
+        return bookings.stream().map(bookingMapper::toBookingResponseDto).collect(Collectors.toList());
+    }
+
 
 
     private User getUserOrThrow(long userId) {
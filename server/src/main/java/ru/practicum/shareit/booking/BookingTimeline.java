@@ -0,0 +1,223 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approved bookings of every item as arrays sorted by (start, id), so the last and next booking
+ * of an item are found by binary search. Times are kept as microseconds since the epoch, the
+ * precision of the timestamp columns. Until the timeline is built on startup, and when it is
+ * disabled, lookups go to the database.
+ */
+@Slf4j
+@Component
+public class BookingTimeline {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+    private final boolean enabled;
+
+    private final Object updateLock = new Object();
+    private volatile Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private List<Booking> pendingUpdates;
+
+    @Autowired
+    public BookingTimeline(BookingRepository bookingRepository, BookingMapper bookingMapper,
+                           @Value("${shareit.booking.timeline.enabled:false}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.bookingMapper = bookingMapper;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        log.info("построение таймлайна бронирований");
+        synchronized (updateLock) {
+            pendingUpdates = new ArrayList<>();
+        }
+
+        Map<Long, List<Booking>> byItem = new HashMap<>();
+        long lastId = 0;
+        List<Booking> batch;
+        do {
+            batch = bookingRepository.findAllByStatusAndIdGreaterThanOrderByIdAsc(Status.APPROVED, lastId,
+                    Limit.of(REBUILD_BATCH_SIZE));
+            for (Booking booking : batch) {
+                byItem.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking);
+                lastId = booking.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        Map<Long, Timeline> rebuilt = new ConcurrentHashMap<>();
+        byItem.forEach((itemId, bookings) -> rebuilt.put(itemId, Timeline.of(bookings)));
+
+        synchronized (updateLock) {
+            pendingUpdates.forEach(booking -> apply(rebuilt, booking));
+            pendingUpdates = null;
+            timelines = rebuilt;
+            ready = true;
+        }
+        log.info("таймлайн бронирований построен, вещей: {}", rebuilt.size());
+    }
+
+    public void update(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (updateLock) {
+            apply(timelines, booking);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(booking);
+            }
+        }
+    }
+
+    public Optional<BookingShortDto> findLast(long itemId, LocalDateTime now) {
+        if (!ready) {
+            return bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(itemId, now,
+                    Status.APPROVED).map(bookingMapper::toBookingShortDto);
+        }
+        Timeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return Optional.empty();
+        }
+        // the first position with start >= now, the booking before it started last
+        int position = timeline.firstAtOrAfter(toMicros(now), Long.MIN_VALUE);
+        return position == 0 ? Optional.empty() : Optional.of(timeline.toDto(position - 1));
+    }
+
+    public Optional<BookingShortDto> findNext(long itemId, LocalDateTime now) {
+        if (!ready) {
+            return bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(itemId, now,
+                    Status.APPROVED).map(bookingMapper::toBookingShortDto);
+        }
+        Timeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            return Optional.empty();
+        }
+        int position = timeline.firstAtOrAfter(toMicros(now), Long.MAX_VALUE);
+        return position == timeline.size() ? Optional.empty() : Optional.of(timeline.toDto(position));
+    }
+
+    private static void apply(Map<Long, Timeline> timelines, Booking booking) {
+        timelines.compute(booking.getItem().getId(), (itemId, timeline) -> {
+            Timeline updated = timeline == null ? Timeline.EMPTY : timeline.without(booking.getId());
+            if (booking.getStatus() == Status.APPROVED) {
+                updated = updated.with(booking);
+            }
+            return updated.size() == 0 ? null : updated;
+        });
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Immutable, every update of an item replaces its timeline.
+     */
+    private record Timeline(long[] starts, long[] ends, long[] ids, long[] bookerIds) {
+        static final Timeline EMPTY = new Timeline(new long[0], new long[0], new long[0], new long[0]);
+
+        static Timeline of(List<Booking> bookings) {
+            bookings.sort(Comparator.comparing(Booking::getStart).thenComparingLong(Booking::getId));
+            int size = bookings.size();
+            Timeline timeline = new Timeline(new long[size], new long[size], new long[size], new long[size]);
+            for (int i = 0; i < size; i++) {
+                timeline.set(i, bookings.get(i));
+            }
+            return timeline;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // first position whose (start, id) is not less than (start, id)
+        int firstAtOrAfter(long start, long id) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < start || (starts[middle] == start && ids[middle] < id)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        Timeline with(Booking booking) {
+            int position = firstAtOrAfter(toMicros(booking.getStart()), booking.getId());
+            Timeline copy = new Timeline(insert(starts, position), insert(ends, position), insert(ids, position),
+                    insert(bookerIds, position));
+            copy.set(position, booking);
+            return copy;
+        }
+
+        Timeline without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return new Timeline(remove(starts, i), remove(ends, i), remove(ids, i), remove(bookerIds, i));
+                }
+            }
+            return this;
+        }
+
+        BookingShortDto toDto(int position) {
+            return new BookingShortDto(ids[position], bookerIds[position], fromMicros(starts[position]),
+                    fromMicros(ends[position]));
+        }
+
+        private void set(int position, Booking booking) {
+            starts[position] = toMicros(booking.getStart());
+            ends[position] = toMicros(booking.getEnd());
+            ids[position] = booking.getId();
+            bookerIds[position] = booking.getBooker().getId();
+        }
+
+        private static long[] insert(long[] values, int position) {
+            long[] copy = Arrays.copyOf(values, values.length + 1);
+            System.arraycopy(values, position, copy, position + 1, values.length - position);
+            return copy;
+        }
+
+        private static long[] remove(long[] values, int position) {
+            long[] copy = Arrays.copyOf(values, values.length - 1);
+            System.arraycopy(values, position + 1, copy, position, values.length - position - 1);
+            return copy;
+        }
+    }
+}
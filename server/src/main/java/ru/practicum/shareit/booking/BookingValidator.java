@@ -17,10 +17,12 @@ import ru.practicum.shareit.item.ItemRepository;
 public class BookingValidator {
 
     private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
 
     @Autowired
     public BookingValidator(ItemRepository itemRepository, BookingRepository bookingRepository) {
         this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
     }
 
         public void isItemAvailable(long itemId) {
@@ -39,6 +41,16 @@ public class BookingValidator {
         }
     }
 
+    public Booking getOwnedBooking(long bookingId, long userId) {
+        log.info("проверка прав доступа пользователя");
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(() -> {
+            log.error("бронирование с id = {} не найдено", bookingId);
+            return new NotFoundException("Бронирование с введенным id = " + bookingId + " не найдено");
+        });
+        isOwner(userId, booking);
+        return booking;
+    }
+
     public void hasItem(long userId) {
         log.info("проверка наличия вещей у пользователя");
         if (!itemRepository.existsByOwnerId(userId)) {
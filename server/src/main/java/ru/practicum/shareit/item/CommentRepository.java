@@ -1,14 +1,41 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItemId(long itemId);
+    @Query("""
+            select c from Comment c
+            join fetch c.author
+            join fetch c.item
+            where c.item.id = :itemId
+            """)
+    List<Comment> findAllByItemId(@Param("itemId") long itemId);
 
-    List<Comment> findAllByItemIdIn(List<Long> itemIds);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            select c from Comment c
+            join fetch c.author
+            join fetch c.item
+            where c.item.id in :itemIds
+            """)
+    List<Comment> findAllByItemIdIn(@Param("itemIds") List<Long> itemIds);
+
+    // changes when a comment is added or the author of one is renamed
+    @Query("""
+            select concat(str(count(c)), '-', str(coalesce(sum(a.version), 0)))
+            from Comment c
+            join c.author a
+            where c.item.id = :itemId
+            """)
+    String findVersionsByItemId(@Param("itemId") long itemId);
 
 }
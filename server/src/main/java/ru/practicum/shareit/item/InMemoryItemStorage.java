@@ -3,100 +3,294 @@ package ru.practicum.shareit.item;
 import ru.practicum.shareit.exceptions.ForbiddenException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
+/**
+ * Thread-safe item storage kept in memory (profile in-memory), for load tests of the storage; ItemService
+ * keeps using the JPA repositories. Items of an owner come from a per-owner index.
+ * The search splits the query into words and intersects the items of each: a word inside the query must be
+ * a whole word of the text, the first one may end a word and the last one begin a word, a single word may be
+ * any part of one. Partial words are looked up among the dictionary words holding their first trigram, or the
+ * whole word when it is shorter; only the items found are checked against the lowercase text kept with them.
+ * A query without letters or digits finds nothing. Results are in ascending id order.
+ * Stored items are not handed out, callers get copies. Changes of an item are applied under the lock of its
+ * key to a new item that replaces the stored one; a read or a search running meanwhile sees either the old
+ * or the new item.
+ */
 @Slf4j
 @Repository
+@Profile("in-memory")
 public class InMemoryItemStorage implements ItemStorage {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int GRAM_LENGTH = 3;
 
-    private final Map<Long, Item> items = new HashMap<>();
+    private final Map<Long, Entry> items = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, Set<Long>> itemsByOwner = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> itemsByWord = new ConcurrentHashMap<>();
+    // substrings of one to three characters of the dictionary words
+    private final Map<String, Set<String>> wordsByGram = new ConcurrentHashMap<>();
 
     public Collection<Item> getAllItemsByUser(long userId) {
-        return items.values().stream()
-                .filter(item -> item.getOwner().getId() == userId)
-                .collect(Collectors.toList());
+        Set<Long> owned = itemsByOwner.getOrDefault(userId, Set.of());
+        List<Item> result = new ArrayList<>(owned.size());
+        for (long id : owned) {
+            Entry entry = items.get(id);
+            if (entry != null) {
+                result.add(copy(entry.item()));
+            }
+        }
+        return result;
     }
 
-
     public Optional<Item> getItemById(long id) {
-        return Optional.ofNullable(items.get(id));
+        Entry entry = items.get(id);
+        return entry == null ? Optional.empty() : Optional.of(copy(entry.item()));
     }
 
     public Item create(Item item) {
         log.info("вещь {} попала в метод create для добавления в базу", item);
-        item.setId(getNextId());
-
-        items.put(item.getId(), item);
-        log.info("вещь {} помещена в базу", item);
-        return item;
+        Item stored = copy(item);
+        stored.setId(ids.incrementAndGet());
+        log.info("создан id = {}", stored.getId());
+        items.compute(stored.getId(), (id, old) -> index(null, stored));
+        log.info("вещь {} помещена в базу", stored);
+        return copy(stored);
     }
 
     public Item edit(Item newItem, long itemId) {
         log.info("вещь {} попала в метод edit для изменения в базе", newItem);
-        newItem.setId(itemId);
+        Entry edited = items.computeIfPresent(itemId, (id, old) -> {
+            Item oldItem = old.item();
+            Item item = Item.builder()
+                    .id(itemId)
+                    .owner(oldItem.getOwner())
+                    .request(oldItem.getRequest())
+                    .version(oldItem.getVersion())
+                    .name(newItem.getName() != null && !newItem.getName().isBlank()
+                            ? newItem.getName() : oldItem.getName())
+                    .description(newItem.getDescription() != null && !newItem.getDescription().isBlank()
+                            ? newItem.getDescription() : oldItem.getDescription())
+                    .available(newItem.getAvailable() != null ? newItem.getAvailable() : oldItem.getAvailable())
+                    .build();
+            return index(old, item);
+        });
+        if (edited == null) {
+            throw notFound(itemId);
+        }
+        return copy(edited.item());
+    }
 
-        Item oldItem = items.get(itemId);
+    public void delete(Long itemId, long userId) {
+        items.computeIfPresent(itemId, (id, old) -> {
+            unindex(old);
+            return null;
+        });
+        log.info("вещь с id = {} удалена", itemId);
+    }
 
-        if (newItem.getName() != null && !newItem.getName().isBlank()) {
-            oldItem.setName(newItem.getName());
+    public List<Item> search(String text) {
+        String query = text.toLowerCase();
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(query)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        boolean partialFirst = !WORD_SEPARATOR.matcher(query.substring(0, 1)).matches();
+        boolean partialLast = !WORD_SEPARATOR.matcher(query.substring(query.length() - 1)).matches();
+        // whole words first, their items are found without the dictionary
+        List<Integer> order = new ArrayList<>();
+        for (int i = 1; i < words.size() - 1; i++) {
+            order.add(i);
+        }
+        order.add(0);
+        if (words.size() > 1) {
+            order.add(words.size() - 1);
         }
+        Set<Long> candidates = null;
+        for (int i : order) {
+            Set<Long> found = itemsOf(words.get(i), i == 0 && partialFirst, i == words.size() - 1 && partialLast);
+            if (candidates == null) {
+                candidates = new HashSet<>(found);
+            } else {
+                candidates.retainAll(found);
+            }
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Item> result = new ArrayList<>();
+        for (long id : candidates) {
+            Entry entry = items.get(id);
+            if (entry != null && Boolean.TRUE.equals(entry.item().getAvailable()) && entry.text().contains(query)) {
+                result.add(copy(entry.item()));
+            }
+        }
+        result.sort(Comparator.comparing(Item::getId));
+        return result;
+    }
+
+    public void hasAccess(long itemId, long userId) {
+        Entry entry = items.get(itemId);
+        if (entry == null) {
+            throw notFound(itemId);
+        }
+        if (entry.item().getOwner().getId() != userId) {
+            log.error("отсутствие прав доступа у пользователя");
+            throw new ForbiddenException("отсутствие прав доступа на изменения ресурса");
+        }
+    }
 
-        if (newItem.getDescription() != null && !newItem.getDescription().isBlank()) {
-                oldItem.setDescription(newItem.getDescription());
+    public void isItemExist(long itemId) {
+        if (!items.containsKey(itemId)) {
+            throw notFound(itemId);
         }
+    }
 
-        if (newItem.getAvailable() != null) {
-            oldItem.setAvailable(newItem.getAvailable());
+    // called under the lock of the item key, so changes of one item are indexed one after another
+    private Entry index(Entry old, Item item) {
+        String text = (item.getName() + "\n" + item.getDescription()).toLowerCase();
+        Set<String> words = words(text);
+        if (old != null) {
+            for (String word : old.words()) {
+                if (!words.contains(word)) {
+                    removeFromWord(word, item.getId());
+                }
+            }
+        } else {
+            addTo(itemsByOwner, item.getOwner().getId(), item.getId());
         }
+        for (String word : words) {
+            addToWord(word, item.getId());
+        }
+        return new Entry(item, text, words);
+    }
 
-        return oldItem;
+    private void unindex(Entry entry) {
+        Item item = entry.item();
+        itemsByOwner.computeIfPresent(item.getOwner().getId(), (owner, owned) -> {
+            owned.remove(item.getId());
+            return owned.isEmpty() ? null : owned;
+        });
+        entry.words().forEach(word -> removeFromWord(word, item.getId()));
+    }
 
+    // items of a whole word, or of every dictionary word the partial one may be a part of
+    private Set<Long> itemsOf(String word, boolean endOfWord, boolean startOfWord) {
+        if (!endOfWord && !startOfWord) {
+            return itemsByWord.getOrDefault(word, Set.of());
+        }
+        Set<String> holding = wordsByGram.get(word.length() > GRAM_LENGTH ? word.substring(0, GRAM_LENGTH) : word);
+        if (holding == null) {
+            return Set.of();
+        }
+        Set<Long> found = new HashSet<>();
+        for (String candidate : holding) {
+            boolean matches = endOfWord && startOfWord ? candidate.contains(word)
+                    : endOfWord ? candidate.endsWith(word) : candidate.startsWith(word);
+            if (matches) {
+                found.addAll(itemsByWord.getOrDefault(candidate, Set.of()));
+            }
+        }
+        return found;
     }
 
-    public void delete(Long itemId, long userId) {
-        items.remove(itemId);
-        log.info("пользователь с id = {} удален", itemId);
+    // a word entering or leaving the dictionary updates its grams under the lock of the word
+    private void addToWord(String word, long itemId) {
+        itemsByWord.compute(word, (w, ids) -> {
+            Set<Long> updated = ids;
+            if (updated == null) {
+                updated = new ConcurrentSkipListSet<>();
+                grams(word).forEach(gram -> addTo(wordsByGram, gram, word));
+            }
+            updated.add(itemId);
+            return updated;
+        });
     }
 
+    private void removeFromWord(String word, long itemId) {
+        itemsByWord.computeIfPresent(word, (w, ids) -> {
+            ids.remove(itemId);
+            if (!ids.isEmpty()) {
+                return ids;
+            }
+            grams(word).forEach(gram -> removeFrom(wordsByGram, gram, word));
+            return null;
+        });
+    }
 
-    public List<Item> search(String text) {
+    // added and removed under the lock of the key, so a value never lands in a set dropped meanwhile
+    private static <K, V> void addTo(Map<K, Set<V>> index, K key, V value) {
+        index.compute(key, (k, values) -> {
+            Set<V> updated = values != null ? values : new ConcurrentSkipListSet<>();
+            updated.add(value);
+            return updated;
+        });
+    }
 
-        return items.values().stream()
-                .filter(item ->
-                        (item.getName().toLowerCase().contains(text) ||
-                                item.getDescription().toLowerCase().contains(text)) &&
-                                (item.getAvailable())
-                )
-                .collect(Collectors.toList());
+    private static <K, V> void removeFrom(Map<K, Set<V>> index, K key, V value) {
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
     }
 
-    public void hasAccess(long itemId, long userId) {
-        if (items.get(itemId).getOwner().getId() != userId) {
-            log.error("отсутствие прав доступа у пользователя");
-            throw new ForbiddenException("отсутствие прав доступа на изменения ресурса");
+    private static Set<String> grams(String word) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < word.length(); i++) {
+            for (int length = 1; length <= GRAM_LENGTH && i + length <= word.length(); length++) {
+                grams.add(word.substring(i, i + length));
+            }
         }
+        return grams;
     }
 
-    public void isItemExist(long itemId) {
-        if (!items.containsKey(itemId)) {
-            log.error("вещь с введенным id не найдена");
-            throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
+    private static Item copy(Item item) {
+        return Item.builder()
+                .id(item.getId())
+                .owner(item.getOwner())
+                .request(item.getRequest())
+                .version(item.getVersion())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .build();
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : WORD_SEPARATOR.split(text)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
         }
+        return words;
     }
 
+    private static NotFoundException notFound(long itemId) {
+        log.error("вещь с введенным id не найдена");
+        return new NotFoundException("Вещь с id = " + itemId + " не найдена");
+    }
 
-    private Long getNextId() {
-        long currentMaxId = items.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        ++currentMaxId;
-        log.info("создан id = {}", currentMaxId);
-        return currentMaxId;
+    private record Entry(Item item, String text, Set<String> words) {
     }
 }
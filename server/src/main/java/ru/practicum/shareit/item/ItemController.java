@@ -1,7 +1,10 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -20,16 +23,43 @@ public class ItemController {
     public List<ItemDto> getAllItemsByUser(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam int from,
-            @RequestParam int size) {
-        return itemService.getAllItemsByUser(userId, from, size);
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<ItemDto> items = pageCursor == null
+                ? itemService.getAllItemsByUser(userId, from, size)
+                : itemService.getAllItemsByUser(userId, pageCursor, size);
+        PageCursor.writeNext(response, items, size, i -> PageCursor.of(i.getId()));
+        return items;
     }
 
     @GetMapping("/{itemId}")
     public ItemDto getItemById(
             @RequestHeader("X-Sharer-User-Id") long userId,
-            @PathVariable long itemId
+            @PathVariable long itemId,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(itemService.getItemTag(itemId, userId))) {
+            return null;
+        }
+        return itemService.getItemById(itemId, userId);
+    }
+
+    @PostMapping("/batch-get")
+    public List<ItemDto> getItemsByIds(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<Long> ids
+    ) {
+        return itemService.getItemsByIds(ids, userId);
+    }
+
+    @PostMapping("/import")
+    public ItemImportResult importItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<ItemDto> itemDtos
     ) {
-        return itemService.getItemById(itemId);
+        return itemService.importItems(itemDtos, userId);
     }
 
     @PostMapping
@@ -61,9 +91,16 @@ public class ItemController {
             @RequestParam String text,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam int from,
-            @RequestParam int size
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response
     ) {
-        return itemService.search(text, from, size);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<ItemDto> items = pageCursor == null
+                ? itemService.search(text, from, size)
+                : itemService.search(text, pageCursor, size);
+        PageCursor.writeNext(response, items, size, i -> PageCursor.of(i.getId()));
+        return items;
     }
 
     @PostMapping("/{itemId}/comment")
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
@@ -27,6 +28,23 @@ public class ItemMapper {
                 .build();
     }
 
+    public ItemDto toItemDtoWithBookings(ItemWithBookings item, List<CommentDto> commentsDto) {
+
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .owner(new UserShortDto(item.getOwnerId(), item.getOwnerName()))
+                .lastBooking(item.getLastBookingId() == null ? null : new BookingShortDto(item.getLastBookingId(),
+                        item.getLastBookerId(), item.getLastStart(), item.getLastEnd()))
+                .nextBooking(item.getNextBookingId() == null ? null : new BookingShortDto(item.getNextBookingId(),
+                        item.getNextBookerId(), item.getNextStart(), item.getNextEnd()))
+                .comments(commentsDto)
+                .build();
+    }
+
     public Item toItem(ItemDto itemDto, User user) {
         return Item.builder()
                 .id(itemDto.getId())
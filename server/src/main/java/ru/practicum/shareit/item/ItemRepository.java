@@ -1,22 +1,70 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String CACHE = "items";
 
-
-    @Query(value = """
-            select * from items i
-            where i.user_id = :ownerId
+    // the correlated top-1 subqueries pick one approved booking per item through ix_bookings_item_status_started
+    String WITH_BOOKINGS = """
+            select i.id as id, i.name as name, i.description as description, i.available as available,
+                   i.request_id as requestId, u.id as ownerId, u.name as ownerName,
+                   l.id as lastBookingId, l.booker_id as lastBookerId, l.started as lastStart, l.ended as lastEnd,
+                   n.id as nextBookingId, n.booker_id as nextBookerId, n.started as nextStart, n.ended as nextEnd
+            from (select p.*,
+                         (select b.id from bookings b
+                          where b.item_id = p.id and b.status = 'APPROVED' and b.started < :now
+                          order by b.started desc, b.id desc
+                          limit 1) as last_booking_id,
+                         (select b.id from bookings b
+                          where b.item_id = p.id and b.status = 'APPROVED' and b.started > :now
+                          order by b.started asc, b.id asc
+                          limit 1) as next_booking_id
+                  from items p
+            """;
+    String WITH_BOOKINGS_JOINS = """
+                 ) i
+            join users u on u.id = i.user_id
+            left join bookings l on l.id = i.last_booking_id
+            left join bookings n on n.id = i.next_booking_id
             order by i.id desc
-            limit :size offset :from
-            """, nativeQuery = true)
-    List<Item> findAllByOwnerId(long ownerId, int from, int size);
+            """;
+
+    @Query(value = WITH_BOOKINGS + """
+                  where p.user_id = :ownerId
+                  order by p.id desc
+                  limit :size offset :from
+            """ + WITH_BOOKINGS_JOINS, nativeQuery = true)
+    List<ItemWithBookings> findAllWithBookingsByOwnerId(@Param("ownerId") long ownerId,
+                                                        @Param("now") LocalDateTime now,
+                                                        @Param("from") int from,
+                                                        @Param("size") int size);
+
+    @Query(value = WITH_BOOKINGS + """
+                  where p.user_id = :ownerId
+                  and p.id < :id
+                  order by p.id desc
+                  limit :size
+            """ + WITH_BOOKINGS_JOINS, nativeQuery = true)
+    List<ItemWithBookings> findAllWithBookingsByOwnerIdAfter(@Param("ownerId") long ownerId,
+                                                             @Param("now") LocalDateTime now,
+                                                             @Param("id") long id,
+                                                             @Param("size") int size);
 
     boolean existsByIdAndOwnerId(long itemId, long ownerId);
 
@@ -33,12 +81,112 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
                                     @Param("from") int from,
                                     @Param("size") int size);
 
+    @Query(value = """
+        select *
+        from items i
+        where i.available = TRUE
+          and (lower(i.name) like lower(concat('%', :query, '%'))
+               or lower(i.description) like lower(concat('%', :query, '%')))
+          and i.id > :id
+        order by i.id asc
+        limit :size
+        """, nativeQuery = true)
+    List<Item> searchAvailableItemsAfter(@Param("query") String query,
+                                         @Param("id") long id,
+                                         @Param("size") int size);
+
+    @Query(value = """
+        select *
+        from items i
+        where i.available = TRUE
+          and (i.search_vector @@ plainto_tsquery('simple', :query)
+               or lower(i.name) like lower(concat('%', :query, '%'))
+               or lower(i.description) like lower(concat('%', :query, '%')))
+        order by ts_rank(i.search_vector, plainto_tsquery('simple', :query)) desc,
+                 similarity(lower(i.name), lower(:query)) desc,
+                 i.id asc
+        limit :size offset :from
+        """, nativeQuery = true)
+    List<Item> searchAvailableItemsRanked(@Param("query") String query,
+                                          @Param("from") int from,
+                                          @Param("size") int size);
+
+    // rank and similarity of the cursor row are recomputed, the cursor itself carries only its id
+    @Query(value = """
+        select i.*
+        from items i
+        join (select ts_rank(c.search_vector, plainto_tsquery('simple', :query)) as rank,
+                     similarity(lower(c.name), lower(:query)) as sim
+              from items c
+              where c.id = :id) c on true
+        where i.available = TRUE
+          and (i.search_vector @@ plainto_tsquery('simple', :query)
+               or lower(i.name) like lower(concat('%', :query, '%'))
+               or lower(i.description) like lower(concat('%', :query, '%')))
+          and (ts_rank(i.search_vector, plainto_tsquery('simple', :query)) < c.rank
+               or (ts_rank(i.search_vector, plainto_tsquery('simple', :query)) = c.rank
+                   and (similarity(lower(i.name), lower(:query)) < c.sim
+                        or (similarity(lower(i.name), lower(:query)) = c.sim and i.id > :id))))
+        order by ts_rank(i.search_vector, plainto_tsquery('simple', :query)) desc,
+                 similarity(lower(i.name), lower(:query)) desc,
+                 i.id asc
+        limit :size
+        """, nativeQuery = true)
+    List<Item> searchAvailableItemsRankedAfter(@Param("query") String query,
+                                               @Param("id") long id,
+                                               @Param("size") int size);
+
+    List<Item> findAllByAvailableIsTrueAndIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    @Query("""
+            select i from Item i
+            join fetch i.owner
+            where i.id in :ids
+            """)
+    List<Item> findAllWithOwnerByIdIn(@Param("ids") List<Long> ids);
 
     List<Item> findAllByRequestId(long requestId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Item> findAllByRequestIdIn(List<Long> itemsId);
 
+    // changes when an item answering the request is added, removed or edited
+    @Query("""
+            select concat(str(count(i)), '-', str(coalesce(max(i.id), 0)), '-', str(coalesce(sum(i.version), 0)))
+            from Item i
+            where i.request.id = :requestId
+            """)
+    String findVersionsByRequestId(@Param("requestId") long requestId);
+
     boolean existsByIdAndAvailableIsTrue(long id);
 
     boolean existsByOwnerId(long ownerId);
+
+    @Query("select i.id from Item i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") long ownerId);
+
+    // the cached item outlives its session, so the owner it is shown with is fetched along;
+    // a query, as an item found in the second-level cache would come with an owner proxy
+    @Override
+    @Cacheable(cacheNames = CACHE, unless = "#result == null")
+    @Query("""
+            select i from Item i
+            join fetch i.owner
+            where i.id = :id
+            """)
+    Optional<Item> findById(@Param("id") Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, key = "#result.id")
+    <S extends Item> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE)
+    void deleteById(Long id);
+
+    @Modifying
+    @Transactional
+    @CacheEvict(cacheNames = CACHE, key = "#p0")
+    @Query("delete from Item i where i.id = :id and i.owner.id = :ownerId")
+    int deleteByIdAndOwnerId(@Param("id") long id, @Param("ownerId") long ownerId);
 }
@@ -0,0 +1,311 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over name and description of available items, keyed by every substring
+ * of one to three characters. A query of three and more characters intersects the postings of its
+ * trigrams, a shorter one reads the postings of the query itself, so no query scans all documents.
+ * Results come in ascending id order like the SQL search.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private List<Item> pendingUpdates;
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.mode:LIKE}") ItemSearchMode searchMode) {
+        this.itemRepository = itemRepository;
+        this.enabled = searchMode == ItemSearchMode.INDEX;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        log.info("перестроение поискового индекса вещей");
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State rebuilt = new State();
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findAllByAvailableIsTrueAndIdGreaterThanOrderByIdAsc(lastId,
+                    Limit.of(REBUILD_BATCH_SIZE));
+            for (Item item : batch) {
+                rebuilt.put(item.getId(), item.getName(), item.getDescription());
+                lastId = item.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            pendingUpdates.forEach(item -> apply(rebuilt, item));
+            pendingUpdates = null;
+            state = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("поисковый индекс построен, проиндексировано вещей: {}", rebuilt.documents.size());
+    }
+
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(state, item);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        if (!enabled) {
+            return;
+        }
+        index(Item.builder().id(itemId).available(false).build());
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        return search(text, 0, from, size);
+    }
+
+    public List<Long> searchAfter(String text, long afterId, int size) {
+        return search(text, afterId, 0, size);
+    }
+
+    private List<Long> search(String text, long afterId, int from, int size) {
+        String query = text == null ? "" : text.toLowerCase(Locale.ROOT);
+        if (query.isEmpty() || query.indexOf(FIELD_SEPARATOR) >= 0 || size <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            PageCollector page = new PageCollector(state, query, from, size);
+            searchByGrams(query.length() >= GRAM_LENGTH ? trigrams(query) : Set.of(query), afterId, page);
+            return page.ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void searchByGrams(Set<String> queryGrams, long afterId, PageCollector page) {
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : queryGrams) {
+            Postings postings = state.grams.get(gram);
+            if (postings == null) {
+                return;
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        Postings driver = lists.getFirst();
+        candidates:
+        for (int i = driver.firstAfter(afterId); i < driver.size; i++) {
+            long id = driver.ids[i];
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(id)) {
+                    continue candidates;
+                }
+            }
+            if (page.offer(id)) {
+                return;
+            }
+        }
+    }
+
+    private static void apply(State state, Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable()) && item.getName() != null) {
+            state.put(item.getId(), item.getName(), item.getDescription());
+        } else {
+            state.remove(item.getId());
+        }
+    }
+
+    // substrings of one to three characters, taken within the name and within the description
+    private static Set<String> grams(String document) {
+        int separator = document.indexOf(FIELD_SEPARATOR);
+        Set<String> result = new HashSet<>();
+        addGrams(result, separator < 0 ? document : document.substring(0, separator));
+        if (separator >= 0) {
+            addGrams(result, document.substring(separator + 1));
+        }
+        return result;
+    }
+
+    private static void addGrams(Set<String> result, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            for (int length = 1; length <= GRAM_LENGTH && i + length <= text.length(); length++) {
+                result.add(text.substring(i, i + length));
+            }
+        }
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return result;
+    }
+
+    private static final class State {
+        private final Map<Long, String> documents = new HashMap<>();
+        private final Map<String, Postings> grams = new HashMap<>();
+        private long postingsCount;
+        private long staleCount;
+
+        void put(long id, String name, String description) {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            String lowerDescription = description == null ? "" : description.toLowerCase(Locale.ROOT);
+            String document = lowerName + FIELD_SEPARATOR + lowerDescription;
+
+            String previous = documents.put(id, document);
+            if (document.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                staleCount += grams(previous).size();
+            }
+            addAll(grams, ItemSearchIndex.grams(document), id);
+            compactIfNeeded();
+        }
+
+        void remove(long id) {
+            String previous = documents.remove(id);
+            if (previous != null) {
+                staleCount += grams(previous).size();
+                compactIfNeeded();
+            }
+        }
+
+        private void addAll(Map<String, Postings> index, Set<String> keys, long id) {
+            for (String key : keys) {
+                if (index.computeIfAbsent(key, k -> new Postings()).add(id)) {
+                    postingsCount++;
+                }
+            }
+        }
+
+        // Postings are never shrunk in place: entries of removed or changed documents are
+        // filtered out at query time and dropped here once they outweigh the live ones.
+        private void compactIfNeeded() {
+            if (staleCount < 1024 || staleCount * 2 < postingsCount) {
+                return;
+            }
+            Map<Long, String> live = new TreeMap<>(documents);
+            documents.clear();
+            grams.clear();
+            postingsCount = 0;
+            staleCount = 0;
+            live.forEach((id, document) -> {
+                int separator = document.indexOf(FIELD_SEPARATOR);
+                put(id, document.substring(0, separator), document.substring(separator + 1));
+            });
+        }
+    }
+
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        boolean add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return false;
+                }
+                int insertAt = -position - 1;
+                ensureCapacity();
+                System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+                ids[insertAt] = id;
+                size++;
+                return true;
+            }
+            ensureCapacity();
+            ids[size++] = id;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        int firstAfter(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+
+    private static final class PageCollector {
+        private final State state;
+        private final String query;
+        private final int size;
+        private final List<Long> ids = new ArrayList<>();
+        private int toSkip;
+
+        PageCollector(State state, String query, int from, int size) {
+            this.state = state;
+            this.query = query;
+            this.toSkip = Math.max(from, 0);
+            this.size = size;
+        }
+
+        // returns true once the page is full
+        boolean offer(long id) {
+            String document = state.documents.get(id);
+            if (document == null || !document.contains(query)) {
+                return false;
+            }
+            if (toSkip > 0) {
+                toSkip--;
+                return false;
+            }
+            ids.add(id);
+            return ids.size() == size;
+        }
+    }
+}
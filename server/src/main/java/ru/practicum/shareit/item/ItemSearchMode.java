@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item;
+
+public enum ItemSearchMode {
+    LIKE,
+    INDEX,
+    FULLTEXT
+}
@@ -1,19 +1,33 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.pagination.PageCursor;
+
 import java.util.List;
 
 public interface ItemService {
     List<ItemDto> getAllItemsByUser(long userId, Integer from, Integer size);
 
-    ItemDto getItemById(long id);
+    List<ItemDto> getAllItemsByUser(long userId, PageCursor cursor, int size);
+
+    ItemDto getItemById(long id, long userId);
+
+    // the ETag of getItemById, changes with the version of the item, its comments and for the owner its bookings
+    String getItemTag(long id, long userId);
+
+    // in the order of the ids, missing items are left out
+    List<ItemDto> getItemsByIds(List<Long> ids, long userId);
 
     ItemDto create(ItemDto itemDto, long userId);
 
+    ItemImportResult importItems(List<ItemDto> itemDtos, long userId);
+
     void delete(long id, long userId);
 
     ItemDto edit(ItemDto itemDto, long userId, long itemId);
 
     List<ItemDto> search(String text, int from, int size);
 
+    List<ItemDto> search(String text, PageCursor cursor, int size);
+
     CommentDto postComment(long itemId, long userId, CommentDto commentDto);
 }
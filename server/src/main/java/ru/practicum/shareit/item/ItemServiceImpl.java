@@ -1,27 +1,33 @@
 package ru.practicum.shareit.item;
 
-import ru.practicum.shareit.booking.Status;
-import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.AfterCommit;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.booking.BookingMapper;
-import ru.practicum.shareit.booking.BookingRepository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingTimeline;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestNotifier;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserValidator;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,32 +36,36 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     ItemRepository itemRepository;
     UserRepository userRepository;
-    BookingRepository bookingRepository;
     CommentRepository commentRepository;
     ItemMapper itemMapper;
-    BookingMapper bookingMapper;
     CommentMapper commentMapper;
     ItemValidator itemValidator;
     UserValidator userValidator;
     ItemRequestRepository requestRepository;
-
+    ItemSearchIndex searchIndex;
+    ItemSearchMode searchMode;
+    BookingTimeline bookingTimeline;
+    ItemRequestNotifier requestNotifier;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository, UserRepository userRepository, ItemMapper itemMapper,
                            ItemValidator itemValidator, CommentRepository commentRepository,
-                           UserValidator userValidator, BookingRepository bookingRepository,
-                           CommentMapper commentMapper, BookingMapper bookingMapper,
-                           ItemRequestRepository requestRepository) {
+                           UserValidator userValidator, CommentMapper commentMapper,
+                           ItemRequestRepository requestRepository, ItemSearchIndex searchIndex,
+                           @Value("${shareit.search.mode:LIKE}") ItemSearchMode searchMode,
+                           BookingTimeline bookingTimeline, ItemRequestNotifier requestNotifier) {
         this.itemMapper = itemMapper;
         this.itemValidator = itemValidator;
         this.userValidator = userValidator;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
-        this.bookingRepository = bookingRepository;
-        this.bookingMapper = bookingMapper;
         this.commentRepository = commentRepository;
         this.commentMapper = commentMapper;
         this.requestRepository = requestRepository;
+        this.searchIndex = searchIndex;
+        this.searchMode = searchMode != null ? searchMode : ItemSearchMode.LIKE;
+        this.bookingTimeline = bookingTimeline;
+        this.requestNotifier = requestNotifier;
     }
 
 
@@ -63,34 +73,69 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDto> getAllItemsByUser(long userId, Integer from, Integer size) {
         log.info("вызван метод getAllItemsByUser в ItemService");
         userValidator.isUserExists(userId);
-        LocalDateTime now = LocalDateTime.now();
-
-        List<Item> items = itemRepository.findAllByOwnerId(userId, from, size);
-
-        List<Long> itemsId = items.stream().map(Item::getId).toList();
-
-        List<Booking> bookings = bookingRepository.findAllByItemIdInAndStatusOrderByStartAsc(
-                items.stream().map(Item::getId).toList(), Status.APPROVED
-        );
-
-        Map<Long, List<Booking>> bookingByItem = bookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        return toItemDtosWithBookings(itemRepository.findAllWithBookingsByOwnerId(userId, LocalDateTime.now(),
+                from, size));
+    }
 
-        Map<Long, List<CommentDto>> commentsByItem = commentRepository.findAllByItemIdIn(itemsId).stream()
-                .map(commentMapper::toCommentDto)
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+    @Override
+    public List<ItemDto> getAllItemsByUser(long userId, PageCursor cursor, int size) {
+        log.info("вызван метод getAllItemsByUser в ItemService после курсора {}", cursor);
+        userValidator.isUserExists(userId);
+        return toItemDtosWithBookings(itemRepository.findAllWithBookingsByOwnerIdAfter(userId, LocalDateTime.now(),
+                cursor.id(), size));
+    }
 
+    @Override
+    public ItemDto getItemById(long id, long userId) {
+        log.info("вызван метод getItemById в ItemService");
+        Item item = getItemOrThrow(id);
+        ItemDto itemDto = itemMapper.toItemDto(item, getCommentByItem(id));
+        // bookings are shown to the owner only
+        if (isOwner(item, userId)) {
+            LocalDateTime now = LocalDateTime.now();
+            itemDto.setLastBooking(bookingTimeline.findLast(id, now).orElse(null));
+            itemDto.setNextBooking(bookingTimeline.findNext(id, now).orElse(null));
+        }
+        return itemDto;
+    }
 
-        return items.stream()
-                .map(i -> itemMapper.toItemDto(i, commentsByItem.get(i.getId())))
-                .map(i -> setLastAndNextBooking(i, bookingByItem.get(i.getId()), now))
-                .collect(Collectors.toList());
+    @Override
+    public String getItemTag(long id, long userId) {
+        Item item = getItemOrThrow(id);
+        // the names of the owner and of the comment authors are shown with the item
+        String tag = "item-" + id + "-" + item.getVersion() + "-" + item.getOwner().getVersion() + "-"
+                + commentRepository.findVersionsByItemId(id);
+        if (isOwner(item, userId)) {
+            LocalDateTime now = LocalDateTime.now();
+            tag += "-" + bookingTimeline.findLast(id, now).map(BookingShortDto::getId).orElse(0L)
+                    + "-" + bookingTimeline.findNext(id, now).map(BookingShortDto::getId).orElse(0L);
+        }
+        return tag;
     }
 
     @Override
-    public ItemDto getItemById(long id) {
-        log.info("вызван метод getItemById в ItemService");
-        return itemMapper.toItemDto(getItemOrThrow(id), getCommentByItem(id));
+    public List<ItemDto> getItemsByIds(List<Long> ids, long userId) {
+        log.info("вызван метод getItemsByIds в ItemService для {} вещей", ids.size());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> found = itemRepository.findAllWithOwnerByIdIn(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<CommentDto>> commentsByItem = getCommentsByItems(List.copyOf(found.keySet()));
+        LocalDateTime now = LocalDateTime.now();
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(item -> {
+                    ItemDto itemDto = itemMapper.toItemDto(item, commentsByItem.getOrDefault(item.getId(), List.of()));
+                    if (isOwner(item, userId)) {
+                        itemDto.setLastBooking(bookingTimeline.findLast(item.getId(), now).orElse(null));
+                        itemDto.setNextBooking(bookingTimeline.findNext(item.getId(), now).orElse(null));
+                    }
+                    return itemDto;
+                })
+                .toList();
     }
 
     @Override
@@ -102,49 +147,116 @@ public class ItemServiceImpl implements ItemService {
             ItemRequest request = getRequestOrThrow(itemDto.getRequestId());
             item.setRequest(request);
         }
-        return itemMapper.toItemDto(itemRepository.save(item), getCommentByItem(item.getId()));
+        Item saved = itemRepository.save(item);
+        AfterCommit.run(() -> {
+            searchIndex.index(saved);
+            if (saved.getRequest() != null) {
+                requestNotifier.itemsAdded(List.of(saved));
+            }
+        });
+        return itemMapper.toItemDto(saved, getCommentByItem(saved.getId()));
+    }
+
+    @Override
+    @Transactional
+    public ItemImportResult importItems(List<ItemDto> itemDtos, long userId) {
+        log.info("вызван метод importItems в ItemService для {} вещей", itemDtos.size());
+        User user = getUserOrThrow(userId);
+        List<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, ItemRequest> requests = requestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<Item> items = new ArrayList<>();
+        List<ItemImportResult.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < itemDtos.size(); i++) {
+            ItemDto itemDto = itemDtos.get(i);
+            ItemRequest request = itemDto.getRequestId() != null ? requests.get(itemDto.getRequestId()) : null;
+            if (itemDto.getRequestId() != null && request == null) {
+                errors.add(new ItemImportResult.RowError(i + 1,
+                        "Запрос c id " + itemDto.getRequestId() + " не найден"));
+                continue;
+            }
+            Item item = itemMapper.toItem(itemDto, user);
+            // ids are generated, an id sent in the row is ignored
+            item.setId(0);
+            item.setRequest(request);
+            items.add(item);
+        }
+        // ids come from the sequence, so the inserts are sent in JDBC batches on commit
+        List<Item> saved = itemRepository.saveAll(items);
+        // the events are sent once the items are visible, without holding the connection
+        AfterCommit.run(() -> {
+            saved.forEach(searchIndex::index);
+            requestNotifier.itemsAdded(saved);
+        });
+        log.info("импортировано {} вещей, отклонено строк: {}", saved.size(), errors.size());
+        return ItemImportResult.builder()
+                .imported(saved.size())
+                .ids(saved.stream().map(Item::getId).toList())
+                .errors(errors)
+                .build();
     }
 
     @Override
     public void delete(long itemId, long userId) {
         log.info("вызван метод delete в ItemService");
-        itemValidator.hasAccess(itemId, userId);
-        itemValidator.isItemExists(itemId);
-        userValidator.isUserExists(userId);
-        itemRepository.deleteById(itemId);
+        if (itemRepository.deleteByIdAndOwnerId(itemId, userId) == 0) {
+            // nothing deleted: tells a missing item from an item of another owner
+            itemValidator.getOwnedItem(itemId, userId);
+        }
+        AfterCommit.run(() -> searchIndex.remove(itemId));
     }
 
     @Override
+    @Transactional
     public ItemDto edit(ItemDto itemDto, long userId, long itemId) {
         log.info("вызван метод edit в ItemService");
-        itemValidator.isItemExists(itemId);
-        itemValidator.hasAccess(itemId, userId);
-        User user = getUserOrThrow(userId);
-        Item item = itemMapper.toItem(itemDto, user);
-
-        if (itemDto.getRequestId() != null) {
-            ItemRequest request = getRequestOrThrow(itemDto.getRequestId());
-            item.setRequest(request);
+        Item item = itemValidator.getOwnedItem(itemId, userId);
+        // the found item may be shared through the cache, so the changes go to a copy
+        Item edited = Item.builder()
+                .id(itemId)
+                .version(item.getVersion())
+                .owner(item.getOwner())
+                .name(itemDto.getName() != null ? itemDto.getName() : item.getName())
+                .description(itemDto.getDescription() != null ? itemDto.getDescription() : item.getDescription())
+                .available(itemDto.getAvailable() != null ? itemDto.getAvailable() : item.getAvailable())
+                .request(itemDto.getRequestId() != null ? getRequestOrThrow(itemDto.getRequestId()) : item.getRequest())
+                .build();
+        Item saved;
+        try {
+            saved = itemRepository.save(edited);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("вещь с id = " + itemId + " изменена другим запросом");
         }
-        return itemMapper.toItemDto(itemRepository.save(item), getCommentByItem(itemId));
+        AfterCommit.run(() -> searchIndex.index(saved));
+        return itemMapper.toItemDto(saved, getCommentByItem(itemId));
     }
 
     @Override
     public List<ItemDto> search(String query, int from, int size) {
         log.info("вызван метод search в ItemService");
 
-        List<Item> items = itemRepository.searchAvailableItems(query, from, size);
-
-        List<Long> itemsId = items.stream().map(Item::getId).toList();
-
-        Map<Long, List<CommentDto>> commentsByItem = commentRepository.findAllByItemIdIn(itemsId).stream()
-                .map(commentMapper::toCommentDto)
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+        List<Item> items = switch (searchMode) {
+            case INDEX -> findIndexed(searchIndex.search(query, from, size));
+            case LIKE -> itemRepository.searchAvailableItems(query, from, size);
+            case FULLTEXT -> itemRepository.searchAvailableItemsRanked(query, from, size);
+        };
+        return toItemDtos(items);
+    }
 
-        return items
-                .stream()
-                .map(item -> itemMapper.toItemDto(item, commentsByItem.get(item.getId())))
-                .collect(Collectors.toList());
+    @Override
+    public List<ItemDto> search(String query, PageCursor cursor, int size) {
+        log.info("вызван метод search в ItemService после курсора {}", cursor);
+
+        List<Item> items = switch (searchMode) {
+            case INDEX -> findIndexed(searchIndex.searchAfter(query, cursor.id(), size));
+            case LIKE -> itemRepository.searchAvailableItemsAfter(query, cursor.id(), size);
+            case FULLTEXT -> itemRepository.searchAvailableItemsRankedAfter(query, cursor.id(), size);
+        };
+        return toItemDtos(items);
     }
 
     @Override
@@ -158,6 +270,46 @@ public class ItemServiceImpl implements ItemService {
         return commentMapper.toCommentDto(commentRepository.save(comment));
     }
 
+    private List<ItemDto> toItemDtosWithBookings(List<ItemWithBookings> items) {
+        Map<Long, List<CommentDto>> commentsByItem = getCommentsByItems(
+                items.stream().map(ItemWithBookings::getId).toList());
+        return items.stream()
+                .map(item -> itemMapper.toItemDtoWithBookings(item, commentsByItem.get(item.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemDto> toItemDtos(List<Item> items) {
+        Map<Long, List<CommentDto>> commentsByItem = getCommentsByItems(items.stream().map(Item::getId).toList());
+        return items.stream()
+                .map(item -> itemMapper.toItemDto(item, commentsByItem.get(item.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<CommentDto>> getCommentsByItems(List<Long> itemsId) {
+        if (itemsId.isEmpty()) {
+            return Map.of();
+        }
+        return commentRepository.findAllByItemIdIn(itemsId).stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+    }
+
+    private List<Item> findIndexed(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> found = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static boolean isOwner(Item item, long userId) {
+        return item.getOwner() != null && item.getOwner().getId() == userId;
+    }
+
     private Item getItemOrThrow(long id) {
         log.info("вызван метод getItemOrThrow в ItemService");
         return itemRepository.findById(id).orElseThrow(
@@ -172,34 +324,6 @@ public class ItemServiceImpl implements ItemService {
         );
     }
 
-    private ItemDto setLastAndNextBooking(ItemDto itemDto, List<Booking> bookings, LocalDateTime now) {
-        log.info("вызван метод setLastAndNextBooking в ItemService");
-
-        if (bookings == null || bookings.isEmpty()) {
-            itemDto.setLastBooking(null);
-            itemDto.setNextBooking(null);
-            return itemDto;
-        }
-
-        BookingShortDto last = bookings.stream()
-                .map(bookingMapper::toBookingShortDto)
-                .filter(b -> b.getStart().isBefore(now))
-                .max(Comparator.comparing(BookingShortDto::getStart))
-                .orElse(null);
-
-        BookingShortDto next = bookings.stream()
-                .map(bookingMapper::toBookingShortDto)
-                .filter(b -> b.getStart().isAfter(now))
-                .findFirst()
-                .orElse(null);
-
-
-        itemDto.setLastBooking(last);
-        itemDto.setNextBooking(next);
-
-        return itemDto;
-    }
-
     private List<CommentDto> getCommentByItem(long itemId) {
         log.info("вызван метод getCommentByItem в ItemService для вещи с id = {}", itemId);
         return commentRepository.findAllByItemId(itemId).stream()
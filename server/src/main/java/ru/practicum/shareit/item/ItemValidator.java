@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
 
@@ -45,5 +46,17 @@ public class ItemValidator {
         }
     }
 
+    public Item getOwnedItem(long itemId, long userId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> {
+            log.error("вещь с введенным id не найдена");
+            return new NotFoundException("Вещь с id = " + itemId + " не найдена");
+        });
+        if (item.getOwner().getId() != userId) {
+            log.error("отсутствие прав доступа у пользователя");
+            throw new ForbiddenException("отсутствие прав доступа на изменения ресурса");
+        }
+        return item;
+    }
+
 
 }
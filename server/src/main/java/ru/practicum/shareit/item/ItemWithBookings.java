@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+/**
+ * Owner's item together with its last and next approved booking, read in one query.
+ * Booking columns are null when the item has no such booking.
+ */
+public interface ItemWithBookings {
+    long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+
+    long getOwnerId();
+
+    String getOwnerName();
+
+    Long getLastBookingId();
+
+    Long getLastBookerId();
+
+    LocalDateTime getLastStart();
+
+    LocalDateTime getLastEnd();
+
+    Long getNextBookingId();
+
+    Long getNextBookerId();
+
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.pagination;
+
+import jakarta.servlet.http.HttpServletResponse;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque position in a list sorted by (key, id): the sort key and id of the last row of the previous page.
+ * Lists sorted by id only carry no key. Clients get the cursor of the next page in the
+ * {@value #NEXT_CURSOR_HEADER} header and pass it back as the {@code cursor} parameter.
+ */
+public record PageCursor(LocalDateTime key, long id) {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final char SEPARATOR = '|';
+
+    public static PageCursor of(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(value));
+            }
+            return new PageCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    public static <T> void writeNext(HttpServletResponse response, List<T> page, int size,
+                                     Function<T, PageCursor> cursorOf) {
+        if (!page.isEmpty() && page.size() == size) {
+            response.setHeader(NEXT_CURSOR_HEADER, cursorOf.apply(page.getLast()).encode());
+        }
+    }
+
+    public LocalDateTime requireKey() {
+        if (key == null) {
+            throw new ValidationException("Курсор не подходит для этого списка");
+        }
+        return key;
+    }
+
+    public String encode() {
+        String value = key == null ? String.valueOf(id) : key.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,8 +1,15 @@
 package ru.practicum.shareit.request;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -28,26 +35,57 @@ public class ItemRequestController {
 
     @GetMapping
     public List<ItemRequestDto> getRequestsByUser(
-            @RequestHeader("X-Sharer-User-Id") long userId
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response
     ) {
-        log.info("getRequestsByUser in ItemRequestController");
-        return requestService.getRequestsByUser(userId);
+        log.info("getRequestsByUser in ItemRequestController from={}, size={}, cursor={}", from, size, cursor);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<ItemRequestDto> requests = pageCursor == null
+                ? requestService.getRequestsByUser(userId, from, size)
+                : requestService.getRequestsByUser(userId, pageCursor, size);
+        PageCursor.writeNext(response, requests, size, r -> new PageCursor(r.getCreated(), r.getId()));
+        return requests;
     }
 
     @GetMapping("/all")
     public List<ItemRequestDto> getAllRequests(
             @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @RequestParam(name = "size", defaultValue = "10") Integer size
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletResponse response
+    ) {
+        log.info("Get users with  from={}, size={}, cursor={}", from, size, cursor);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<ItemRequestDto> requests = pageCursor == null
+                ? requestService.getAllRequests(from, size)
+                : requestService.getAllRequests(pageCursor, size);
+        PageCursor.writeNext(response, requests, size, r -> new PageCursor(r.getCreated(), r.getId()));
+        return requests;
+    }
+
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            HttpServletRequest request
     ) {
-        log.info("Get users with  from={}, size={}", from, size);
-        return requestService.getAllRequests(from, size);
+        log.info("subscribe in ItemRequestController userId={}", userId);
+        // the etag filter would hold the events back until the stream ends
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        return requestService.subscribe(userId);
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(
-            @PathVariable Long requestId
+            @PathVariable Long requestId,
+            WebRequest request
     ) {
         log.info("Get request with requestId={}", requestId);
+        if (request.checkNotModified(requestService.getRequestTag(requestId))) {
+            return null;
+        }
         return requestService.getRequestById(requestId);
     }
 }
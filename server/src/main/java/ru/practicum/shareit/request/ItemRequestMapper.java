@@ -6,7 +6,10 @@ import org.springframework.stereotype.Component;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserShortDto;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @NoArgsConstructor
 @Component
@@ -24,6 +27,31 @@ public class ItemRequestMapper {
                 .build();
     }
 
+    // rows come ordered by request, a request without answers keeps null items like toItemRequestDto
+    public List<ItemRequestDto> toItemRequestDtos(List<ItemRequestWithItem> rows) {
+        Map<Long, ItemRequestDto> requests = new LinkedHashMap<>();
+        for (ItemRequestWithItem row : rows) {
+            ItemRequestDto request = requests.computeIfAbsent(row.getId(), id -> ItemRequestDto.builder()
+                    .id(id)
+                    .description(row.getDescription())
+                    .requestor(new UserShortDto(row.getRequestorId(), row.getRequestorName()))
+                    .created(row.getCreated())
+                    .build());
+            if (row.getItemId() != null) {
+                if (request.getItems() == null) {
+                    request.setItems(new ArrayList<>());
+                }
+                request.getItems().add(ItemShortDto.builder()
+                        .id(row.getItemId())
+                        .name(row.getItemName())
+                        .requestId(row.getId())
+                        .ownerId(row.getItemOwnerId())
+                        .build());
+            }
+        }
+        return List.copyOf(requests.values());
+    }
+
     public ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User user) {
         return ItemRequest.builder()
                 .id(itemRequestDto.getId())
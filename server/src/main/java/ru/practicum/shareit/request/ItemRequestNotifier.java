@@ -0,0 +1,116 @@
+package ru.practicum.shareit.request;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemShortDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriptions of requestors to the answers of their requests. An item created for a request is sent
+ * as an {@value #ITEM_EVENT} event to every open subscription of the requestor, so clients no longer poll
+ * GET /requests for new answers. Subscriptions live in this process only; an idle stream gets a comment
+ * every heartbeat, which keeps it inside the read timeout of the gateway.
+ */
+@Slf4j
+@Component
+public class ItemRequestNotifier {
+    public static final String ITEM_EVENT = "item";
+
+    private final ItemMapper itemMapper;
+    private final long timeoutMillis;
+    private final Map<Long, Set<SseEmitter>> subscriptions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("request-events-heartbeat").daemon().factory());
+
+    @Autowired
+    public ItemRequestNotifier(ItemMapper itemMapper,
+                               @Value("${shareit.requests.events.timeout:30m}") Duration timeout,
+                               @Value("${shareit.requests.events.heartbeat:15s}") Duration heartbeat) {
+        this.itemMapper = itemMapper;
+        this.timeoutMillis = timeout.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(long requestorId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // added and removed under the lock of the key, so an emitter never lands in a set dropped meanwhile
+        subscriptions.compute(requestorId, (id, emitters) -> {
+            Set<SseEmitter> subscribed = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            subscribed.add(emitter);
+            return subscribed;
+        });
+        emitter.onCompletion(() -> unsubscribe(requestorId, emitter));
+        emitter.onTimeout(() -> unsubscribe(requestorId, emitter));
+        emitter.onError(e -> unsubscribe(requestorId, emitter));
+        log.info("пользователь {} подписался на ответы на свои запросы", requestorId);
+        return emitter;
+    }
+
+    public void itemsAdded(List<Item> items) {
+        for (Item item : items) {
+            if (item.getRequest() == null) {
+                continue;
+            }
+            long requestorId = item.getRequest().getRequestor().getId();
+            Set<SseEmitter> emitters = subscriptions.get(requestorId);
+            if (emitters == null) {
+                continue;
+            }
+            ItemShortDto answer = itemMapper.toItemShortDto(item);
+            for (SseEmitter emitter : emitters) {
+                send(requestorId, emitter, SseEmitter.event().name(ITEM_EVENT).id(String.valueOf(item.getId()))
+                        .data(answer));
+            }
+        }
+    }
+
+    public int subscriptionCount(long requestorId) {
+        Set<SseEmitter> emitters = subscriptions.get(requestorId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeats.shutdownNow();
+        subscriptions.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscriptions.clear();
+    }
+
+    private void sendHeartbeats() {
+        subscriptions.forEach((requestorId, emitters) -> emitters.forEach(emitter ->
+                send(requestorId, emitter, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    // a subscriber gone away is dropped at once, the container completes the emitter later
+    private void send(long requestorId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("подписка пользователя {} закрыта: {}", requestorId, e.getMessage());
+            unsubscribe(requestorId, emitter);
+        }
+    }
+
+    private void unsubscribe(long requestorId, SseEmitter emitter) {
+        subscriptions.computeIfPresent(requestorId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
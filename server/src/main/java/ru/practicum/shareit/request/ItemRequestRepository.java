@@ -1,25 +1,76 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    String CACHE = "requests";
 
+    // one page of the user's requests is cut first, then joined with the answering items
     @Query(value = """
-            select * from requests r
-            where r.requestor_id = :requestorId
-            order by r.created desc
+            select r.id as id, r.description as description, cast(r.created as timestamp) as created,
+                   u.id as requestorId, u.name as requestorName,
+                   i.id as itemId, i.name as itemName, i.user_id as itemOwnerId
+            from (select * from requests
+                  where requestor_id = :requestorId
+                  order by created desc, id desc
+                  limit :size offset :from) r
+            join users u on u.id = r.requestor_id
+            left join items i on i.request_id = r.id
+            order by r.created desc, r.id desc, i.id
             """, nativeQuery = true)
-    List<ItemRequest> findAllByRequestorId(@Param("requestorId") long requestorId);
+    List<ItemRequestWithItem> findAllWithItemsByRequestorId(@Param("requestorId") long requestorId,
+                                                            @Param("from") int from,
+                                                            @Param("size") int size);
+
+    @Query(value = """
+            select r.id as id, r.description as description, cast(r.created as timestamp) as created,
+                   u.id as requestorId, u.name as requestorName,
+                   i.id as itemId, i.name as itemName, i.user_id as itemOwnerId
+            from (select * from requests
+                  where requestor_id = :requestorId
+                    and (created < :created or (created = :created and id < :id))
+                  order by created desc, id desc
+                  limit :size) r
+            join users u on u.id = r.requestor_id
+            left join items i on i.request_id = r.id
+            order by r.created desc, r.id desc, i.id
+            """, nativeQuery = true)
+    List<ItemRequestWithItem> findAllWithItemsByRequestorIdAfter(@Param("requestorId") long requestorId,
+                                                                 @Param("created") LocalDateTime created,
+                                                                 @Param("id") long id,
+                                                                 @Param("size") int size);
 
     @Query(value = """
             select * from requests r
-            order by r.created desc
+            order by r.created desc, r.id desc
             limit :size offset :from
             """, nativeQuery = true)
     List<ItemRequest> findAllRequests(@Param("from") int from,
                                       @Param("size") int size);
+
+    @Query(value = """
+            select * from requests r
+            where r.created < :created or (r.created = :created and r.id < :id)
+            order by r.created desc, r.id desc
+            limit :size
+            """, nativeQuery = true)
+    List<ItemRequest> findAllRequestsAfter(@Param("created") LocalDateTime created,
+                                           @Param("id") long id,
+                                           @Param("size") int size);
+
+    @Override
+    @Cacheable(cacheNames = CACHE, unless = "#result == null")
+    Optional<ItemRequest> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, key = "#result.id")
+    <S extends ItemRequest> S save(S entity);
 }
@@ -1,14 +1,27 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.PageCursor;
+
 import java.util.List;
 
 public interface ItemRequestService {
 
     ItemRequestDto create(ItemRequestDto itemRequestDto, long userId);
 
-    List<ItemRequestDto> getRequestsByUser(long userId);
+    List<ItemRequestDto> getRequestsByUser(long userId, int from, int size);
+
+    List<ItemRequestDto> getRequestsByUser(long userId, PageCursor cursor, int size);
 
     List<ItemRequestDto> getAllRequests(int from, int size);
 
+    List<ItemRequestDto> getAllRequests(PageCursor cursor, int size);
+
     ItemRequestDto getRequestById(long requestId);
+
+    // items answering the requests of the user are pushed to the returned emitter as they are created
+    SseEmitter subscribe(long userId);
+
+    // the ETag of getRequestById, changes with the version of the request and of the items answering it
+    String getRequestTag(long requestId);
 }
@@ -7,8 +7,10 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserValidator;
@@ -28,17 +30,20 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     UserRepository userRepository;
     ItemRepository itemRepository;
     ItemMapper itemMapper;
+    ItemRequestNotifier requestNotifier;
 
     @Autowired
     public ItemRequestServiceImpl(ItemRequestRepository requestRepository, ItemRequestMapper requestMapper,
                                   UserRepository userRepository, UserValidator userValidator,
-                                  ItemRepository itemRepository, ItemMapper itemMapper) {
+                                  ItemRepository itemRepository, ItemMapper itemMapper,
+                                  ItemRequestNotifier requestNotifier) {
         this.requestRepository = requestRepository;
         this.requestMapper = requestMapper;
         this.userRepository = userRepository;
         this.userValidator = userValidator;
         this.itemRepository = itemRepository;
         this.itemMapper = itemMapper;
+        this.requestNotifier = requestNotifier;
     }
 
     @Override
@@ -52,52 +57,70 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequestDto> getRequestsByUser(long userId) {
+    public List<ItemRequestDto> getRequestsByUser(long userId, int from, int size) {
         log.info("вызван метод getRequestsByUser в ItemRequestService");
         userValidator.isUserExists(userId);
-        List<ItemRequest> requests = requestRepository.findAllByRequestorId(userId);
+        return requestMapper.toItemRequestDtos(requestRepository.findAllWithItemsByRequestorId(userId, from, size));
+    }
 
-        List<Long> requestsId = requests.stream().map(ItemRequest::getId).toList();
+    @Override
+    public List<ItemRequestDto> getRequestsByUser(long userId, PageCursor cursor, int size) {
+        log.info("вызван метод getRequestsByUser в ItemRequestService после курсора {}", cursor);
+        userValidator.isUserExists(userId);
+        return requestMapper.toItemRequestDtos(requestRepository.findAllWithItemsByRequestorIdAfter(userId,
+                cursor.requireKey(), cursor.id(), size));
+    }
 
-        Map<Long, List<ItemShortDto>> itemsByRequest = itemRepository.findAllByRequestIdIn(requestsId).stream()
-                .map(itemMapper::toItemShortDto)
-                .collect(Collectors.groupingBy(ItemShortDto::getRequestId));
+    @Override
+    public List<ItemRequestDto> getAllRequests(int from, int size) {
+        log.info("вызван метод getAllRequests в ItemRequestService");
+        return toItemRequestDtos(requestRepository.findAllRequests(from, size));
+    }
 
+    @Override
+    public List<ItemRequestDto> getAllRequests(PageCursor cursor, int size) {
+        log.info("вызван метод getAllRequests в ItemRequestService после курсора {}", cursor);
+        return toItemRequestDtos(requestRepository.findAllRequestsAfter(cursor.requireKey(), cursor.id(), size));
+    }
 
+    @Override
+    public ItemRequestDto getRequestById(long requestId) {
+        log.info("вызван метод getRequestById в ItemRequestService");
+        ItemRequest request = requestRepository.findById(requestId).orElseThrow(
+                () -> new NotFoundException("запрос с введенным id = " + requestId + " не найден")
+        );
 
-        return requests.stream()
-                .map(ir -> requestMapper.toItemRequestDto(ir, itemsByRequest.get(ir.getId())))
-                .collect(Collectors.toList());
+        return requestMapper.toItemRequestDto(request, getItemsByRequest(request.getId()));
     }
 
     @Override
-    public List<ItemRequestDto> getAllRequests(int from, int size) {
-        log.info("вызван метод getAllRequests в ItemRequestService");
+    public SseEmitter subscribe(long userId) {
+        log.info("вызван метод subscribe в ItemRequestService");
+        userValidator.isUserExists(userId);
+        return requestNotifier.subscribe(userId);
+    }
 
-        List<ItemRequest> requests = requestRepository.findAllRequests(from, size);
+    @Override
+    public String getRequestTag(long requestId) {
+        ItemRequest request = requestRepository.findById(requestId).orElseThrow(
+                () -> new NotFoundException("запрос с введенным id = " + requestId + " не найден")
+        );
+        return "request-" + requestId + "-" + request.getVersion() + "-"
+                + itemRepository.findVersionsByRequestId(requestId);
+    }
 
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
         List<Long> requestsId = requests.stream().map(ItemRequest::getId).toList();
 
         Map<Long, List<ItemShortDto>> itemsByRequest = itemRepository.findAllByRequestIdIn(requestsId).stream()
                 .map(itemMapper::toItemShortDto)
                 .collect(Collectors.groupingBy(ItemShortDto::getRequestId));
 
-
         return requests.stream()
                 .map(ir -> requestMapper.toItemRequestDto(ir, itemsByRequest.get(ir.getId())))
                 .collect(Collectors.toList());
     }
 
-    @Override
-    public ItemRequestDto getRequestById(long requestId) {
-        log.info("вызван метод getRequestById в ItemRequestService");
-        ItemRequest request = requestRepository.findById(requestId).orElseThrow(
-                () -> new NotFoundException("запрос с введенным id = " + requestId + " не найден")
-        );
-
-        return requestMapper.toItemRequestDto(request, getItemsByRequest(request.getId()));
-    }
-
     private User getUserOrThrow(long userId) {
         log.info("вызван метод getUserOrThrow в ItemRequestService");
         return userRepository.findById(userId).orElseThrow(
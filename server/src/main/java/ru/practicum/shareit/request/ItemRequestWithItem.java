@@ -0,0 +1,25 @@
+package ru.practicum.shareit.request;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request of a user joined with one of its answering items, read in one query. A request without
+ * answers comes once with null item columns.
+ */
+public interface ItemRequestWithItem {
+    long getId();
+
+    String getDescription();
+
+    LocalDateTime getCreated();
+
+    long getRequestorId();
+
+    String getRequestorName();
+
+    Long getItemId();
+
+    String getItemName();
+
+    Long getItemOwnerId();
+}
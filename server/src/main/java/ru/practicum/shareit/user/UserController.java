@@ -1,8 +1,11 @@
 package ru.practicum.shareit.user;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -21,18 +24,35 @@ public class UserController {
     @GetMapping
     public List<UserDto> getAllUsers(
             @RequestParam int from,
-            @RequestParam int size
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response
     ) {
         log.info("getAllUsers in UserController");
-        return userService.getAllUsers(from, size);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<UserDto> users = pageCursor == null
+                ? userService.getAllUsers(from, size)
+                : userService.getAllUsers(pageCursor, size);
+        PageCursor.writeNext(response, users, size, u -> PageCursor.of(u.getId()));
+        return users;
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUserById(@PathVariable long userId) {
+    public UserDto getUserById(@PathVariable long userId, WebRequest request) {
         log.info("getUserById in UserController");
+        // an unchanged user is answered with 304 before it is mapped and written
+        if (request.checkNotModified(userService.getUserTag(userId))) {
+            return null;
+        }
         return userService.getUserById(userId);
     }
 
+    @PostMapping("/batch-get")
+    public List<UserDto> getUsersByIds(@RequestBody List<Long> ids) {
+        log.info("getUsersByIds in UserController");
+        return userService.getUsersByIds(ids);
+    }
+
     @PostMapping
     public UserDto create(@RequestBody UserDto userDto) {
         log.info("create in UserController");
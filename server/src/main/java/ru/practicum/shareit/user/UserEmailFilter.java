@@ -0,0 +1,141 @@
+package ru.practicum.shareit.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the emails of the users, built on startup and filled on create and edit.
+ * An email it has never seen is certainly free and is not looked up; any other answer only means
+ * "maybe taken" and goes to the database. Emails of deleted and edited users cannot be removed and stay
+ * probable positives until the next rebuild. Until the first rebuild every email is a probable positive.
+ * An email the filter misses while it is rebuilt is still rejected by the unique constraint uq_user_email.
+ */
+@Slf4j
+@Component
+public class UserEmailFilter {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+
+    private volatile Bits bits;
+    // emails added during a rebuild go to both filters, the scan may have passed their rows already
+    private volatile Bits building;
+
+    @Autowired
+    public UserEmailFilter(UserRepository userRepository,
+                           @Value("${shareit.users.email-filter.enabled:true}") boolean enabled,
+                           @Value("${shareit.users.email-filter.expected-users:1000000}") long expectedUsers,
+                           @Value("${shareit.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean mightExist(String email) {
+        Bits current = bits;
+        return current == null || current.mightContain(email);
+    }
+
+    public void add(String email) {
+        Bits next = building;
+        if (next != null) {
+            next.add(email);
+        }
+        Bits current = bits;
+        if (current != null) {
+            current.add(email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long users = userRepository.count();
+        log.info("построение фильтра имейлов по {} пользователям", users);
+        // room for twice the current users, so the filter keeps its rate while users sign up
+        Bits rebuilt = new Bits(Math.max(expectedUsers, users * 2), falsePositiveRate);
+        building = rebuilt;
+        long lastId = 0;
+        List<UserRepository.IdAndEmail> batch;
+        do {
+            batch = userRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (UserRepository.IdAndEmail user : batch) {
+                rebuilt.add(user.getEmail());
+                lastId = user.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        bits = rebuilt;
+        building = null;
+        log.info("фильтр имейлов построен: {} бит, {} хэшей", rebuilt.size, rebuilt.hashes);
+    }
+
+    private static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+
+        Bits(long expected, double falsePositiveRate) {
+            long optimal = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimal + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.size = (long) wordCount * 64;
+            this.hashes = (int) Math.max(1, Math.round((double) size / expected * Math.log(2)));
+        }
+
+        void add(String email) {
+            long hash = hash(email);
+            for (int i = 0; i < hashes; i++) {
+                long bit = index(hash, i);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = words.get(word);
+                } while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask));
+            }
+        }
+
+        boolean mightContain(String email) {
+            long hash = hash(email);
+            for (int i = 0; i < hashes; i++) {
+                long bit = index(hash, i);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // the k positions come from two halves of one 64-bit hash (Kirsch and Mitzenmacher)
+        private long index(long hash, int i) {
+            int low = (int) hash;
+            int high = (int) (hash >>> 32);
+            return Math.floorMod(low + (long) i * high, size);
+        }
+
+        // FNV-1a over the chars, spread by the splitmix64 finalizer
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            return hash ^ (hash >>> 31);
+        }
+    }
+}
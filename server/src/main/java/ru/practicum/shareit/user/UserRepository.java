@@ -1,5 +1,8 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -7,15 +10,45 @@ import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    String CACHE = "users";
 
     boolean existsByEmail(String email);
 
     Optional<User> findByEmail(String email);
 
+    // emails in id order for the rebuild of UserEmailFilter, without loading the users
+    List<IdAndEmail> findAllByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
     @Query(value = """
-            select * from user u
+            select * from users u
             order by u.id desc
             limit :size offset :from
             """, nativeQuery = true)
     List<User> findAll(int from, int size);
+
+    @Query(value = """
+            select * from users u
+            where u.id < :id
+            order by u.id desc
+            limit :size
+            """, nativeQuery = true)
+    List<User> findAllAfter(long id, int size);
+
+    @Override
+    @Cacheable(cacheNames = CACHE, unless = "#result == null")
+    Optional<User> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, key = "#result.id")
+    <S extends User> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE)
+    void deleteById(Long id);
+
+    interface IdAndEmail {
+        long getId();
+
+        String getEmail();
+    }
 }
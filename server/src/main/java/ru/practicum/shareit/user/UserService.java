@@ -1,5 +1,7 @@
 package ru.practicum.shareit.user;
 
+import ru.practicum.shareit.pagination.PageCursor;
+
 import java.util.List;
 
 public interface UserService {
@@ -7,8 +9,16 @@ public interface UserService {
 
     List<UserDto> getAllUsers(int from, int size);
 
+    List<UserDto> getAllUsers(PageCursor cursor, int size);
+
     UserDto getUserById(long id);
 
+    // the ETag of getUserById, changes with the version of the user
+    String getUserTag(long id);
+
+    // in the order of the ids, missing users are left out
+    List<UserDto> getUsersByIds(List<Long> ids);
+
     UserDto create(UserDto userDto);
 
     void delete(Long id);
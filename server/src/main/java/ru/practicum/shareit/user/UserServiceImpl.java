@@ -1,26 +1,48 @@
 package ru.practicum.shareit.user;
 
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.exceptions.DuplicatedDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class UserServiceImpl implements UserService {
+    static final String EMAIL_CONSTRAINT = "uq_user_email";
+
     UserRepository userRepository;
     UserMapper userMapper;
     UserValidator userValidator;
+    UserEmailFilter emailFilter;
+    ItemRepository itemRepository;
+    CacheManager cacheManager;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, UserValidator userValidator) {
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, UserValidator userValidator,
+                           UserEmailFilter emailFilter, ItemRepository itemRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.userValidator = userValidator;
+        this.emailFilter = emailFilter;
+        this.itemRepository = itemRepository;
+        this.cacheManager = cacheManager;
     }
 
     @Override
@@ -31,36 +53,75 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<UserDto> getAllUsers(PageCursor cursor, int size) {
+        log.info("получение всех пользователей в UserService после курсора {}", cursor);
+        return userRepository.findAllAfter(cursor.id(), size).stream()
+                .map(userMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public UserDto getUserById(long id) {
         log.info("получение пользователя в UserService id = {}", id);
         return userMapper.toUserDto(getUserOrThrow(id));
     }
 
+    @Override
+    public List<UserDto> getUsersByIds(List<Long> ids) {
+        log.info("получение {} пользователей по id в UserService", ids.size());
+        Map<Long, User> found = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(userMapper::toUserDto)
+                .toList();
+    }
+
+    @Override
+    public String getUserTag(long id) {
+        return "user-" + id + "-" + getUserOrThrow(id).getVersion();
+    }
+
     @Override
     public UserDto create(UserDto userDto) {
         log.info("создание пользователя в UserService {}", userDto);
         userValidator.isMailExists(userDto.getEmail());
         User user = userMapper.toUser(userDto);
-        return userMapper.toUserDto(userRepository.save(user));
+        User saved = saveUniqueEmail(user, () -> userRepository.save(user));
+        emailFilter.add(saved.getEmail());
+        return userMapper.toUserDto(saved);
     }
 
 
     @Override
+    @Transactional
     public UserDto edit(long userId, UserDto userDto) {
         log.info("редактирование пользователя в UserService");
-        userValidator.isUserExists(userId);
+        User user = userValidator.getExistingUser(userId);
         userValidator.validateEmailForOwner(userDto.getEmail(), userId);
-
-        User user = getUserOrThrow(userId);
-        if (userDto.getName() != null) {
-            user.setName(userDto.getName());
-        }
-
-        if (userDto.getEmail() != null) {
-            user.setEmail(userDto.getEmail());
+        // the found user may be shared through the cache, so the changes go to a copy
+        User edited = User.builder()
+                .id(user.getId())
+                .version(user.getVersion())
+                .name(userDto.getName() != null ? userDto.getName() : user.getName())
+                .email(userDto.getEmail() != null ? userDto.getEmail() : user.getEmail())
+                .build();
+        try {
+            // the update is sent on flush, so a taken email fails here and not on commit
+            User saved = saveUniqueEmail(edited, () -> {
+                User merged = userRepository.save(edited);
+                userRepository.flush();
+                return merged;
+            });
+            emailFilter.add(saved.getEmail());
+            evictOwnedItems(userId);
+            return userMapper.toUserDto(saved);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("пользователь с id = " + userId + " изменён другим запросом");
         }
-        return userMapper.toUserDto(userRepository.save(user));
     }
 
     @Override
@@ -70,10 +131,31 @@ public class UserServiceImpl implements UserService {
         userRepository.deleteById(id);
     }
 
+    // the email check may skip the database, the unique constraint still catches a taken email
+    private User saveUniqueEmail(User user, Supplier<User> save) {
+        try {
+            return save.get();
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (!message.toLowerCase().contains(EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            log.error("имейл {} уже используется, отклонено ограничением {}", user.getEmail(), EMAIL_CONSTRAINT);
+            throw new DuplicatedDataException("Этот имейл уже используется");
+        }
+    }
+
     private User getUserOrThrow(long id) {
         return userRepository.findById(id).orElseThrow(
                 () -> new NotFoundException("пользователь с введенным id = " + id + " не найдена")
         );
     }
 
+    // items are cached with their owner, whose name is shown with them; evicted after the commit (CacheConfig)
+    private void evictOwnedItems(long ownerId) {
+        Cache items = cacheManager.getCache(ItemRepository.CACHE);
+        if (items != null) {
+            itemRepository.findIdsByOwnerId(ownerId).forEach(items::evict);
+        }
+    }
 }
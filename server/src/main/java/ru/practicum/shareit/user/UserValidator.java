@@ -12,10 +12,12 @@ import java.util.Optional;
 @Component
 public class UserValidator {
     private final UserRepository userRepository;
+    private final UserEmailFilter emailFilter;
 
     @Autowired
-    public UserValidator(UserRepository userRepository) {
+    public UserValidator(UserRepository userRepository, UserEmailFilter emailFilter) {
         this.userRepository = userRepository;
+        this.emailFilter = emailFilter;
     }
 
 
@@ -26,15 +28,24 @@ public class UserValidator {
         }
     }
 
+    public User getExistingUser(long userId) {
+        return userRepository.findById(userId).orElseThrow(() -> {
+            log.error("пользователь с введенным id = {} не найден", userId);
+            return new NotFoundException("Пользователь с id = " + userId + " не найден");
+        });
+    }
+
     public void isMailExists(String email) {
-        if (userRepository.existsByEmail(email)) {
+        if (emailFilter.mightExist(email) && userRepository.existsByEmail(email)) {
             log.error("введен уже использующийся имейл");
             throw new DuplicatedDataException("Этот имейл уже используется");
         }
     }
 
     public void validateEmailForOwner(String email, long userId) {
-
+            if (email == null || !emailFilter.mightExist(email)) {
+                return;
+            }
             Optional<User> userOpt = userRepository.findByEmail(email);
             if (userOpt.isPresent() && userOpt.get().getId() != userId) {
                 log.error("Имейл {} уже используется другим пользователем id={}", email, userOpt.get().getId());
@@ -1,11 +1,11 @@
-CREATE TABLE IF NOT EXISTS users (
+CREATE TABLE users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) NOT NULL,
   CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
-CREATE TABLE IF NOT EXISTS requests (
+CREATE TABLE requests (
 id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 description VARCHAR(300),
 created DATE,
@@ -13,7 +13,7 @@ requestor_id BIGINT,
 CONSTRAINT fk_requestor FOREIGN KEY (requestor_id) REFERENCES users(id)
 );
 
-CREATE TABLE IF NOT EXISTS items (
+CREATE TABLE items (
 id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 name VARCHAR(255) NOT NULL,
 description VARCHAR(255),
@@ -24,7 +24,7 @@ CONSTRAINT fk_user FOREIGN KEY (user_id) REFERENCES users(id),
 CONSTRAINT fk_request FOREIGN KEY (request_id) REFERENCES requests(id)
 );
 
-CREATE TABLE IF NOT EXISTS comments (
+CREATE TABLE comments (
 id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 text VARCHAR(1000) NOT NULL,
 created TIMESTAMP,
@@ -34,7 +34,7 @@ CONSTRAINT fk_author FOREIGN KEY (author_id) REFERENCES users(id),
 CONSTRAINT fk_item FOREIGN KEY (item_id) REFERENCES items(id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
+CREATE TABLE bookings (
 id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 started TIMESTAMP,
 ended TIMESTAMP,
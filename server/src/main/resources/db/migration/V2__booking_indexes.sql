@@ -0,0 +1,15 @@
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_started ON bookings (booker_id, started DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_started ON bookings (booker_id, status, started DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_started ON bookings (item_id, status, started);
+
+CREATE INDEX IF NOT EXISTS ix_items_user_id ON items (user_id, id);
+
+CREATE INDEX IF NOT EXISTS ix_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item_id ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS ix_requests_requestor_created ON requests (requestor_id, created DESC);
+
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created DESC, id DESC);
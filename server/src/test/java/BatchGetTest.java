@@ -0,0 +1,125 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Batch lookups return the found entities in the order of the ids with a fixed number of queries,
+ * whatever the number of ids.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class,
+        properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                "shareit.booking.timeline.enabled=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchGetTest extends HibernateStatisticsTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto first;
+    private ItemDto second;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(TestUsers.user("owner"));
+        booker = userService.create(TestUsers.user("booker"));
+        first = itemService.create(item("дрель"), owner.getId());
+        second = itemService.create(item("пила"), owner.getId());
+    }
+
+    private static ItemDto item(String name) {
+        return ItemDto.builder().name(name).description("описание").available(true).build();
+    }
+
+    private ResultActions batchGet(String path, Long userId, List<Long> ids) throws Exception {
+        statistics.clear();
+        return mockMvc.perform(post(path).header("X-Sharer-User-Id", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void usersBatchGet_ShouldKeepOrderAndSkipMissing() throws Exception {
+        batchGet("/users/batch-get", owner.getId(), List.of(booker.getId(), 999_999L, owner.getId(), booker.getId()))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(booker.getId()))
+                .andExpect(jsonPath("$[1].id").value(owner.getId()));
+
+        assertTrue(statistics.getPrepareStatementCount() <= 1);
+    }
+
+    @Test
+    void itemsBatchGet_ShouldShowBookingsToOwnerOnly() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        long bookingId = bookingService.create(BookingRequestDto.builder().itemId(second.getId())
+                .start(start).end(start.plusHours(2)).build(), booker.getId()).getId();
+        bookingService.approved(owner.getId(), bookingId, true);
+
+        batchGet("/items/batch-get", owner.getId(), List.of(second.getId(), first.getId()))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(second.getId()))
+                .andExpect(jsonPath("$[0].owner.name").value("owner"))
+                .andExpect(jsonPath("$[0].nextBooking.id").value(bookingId))
+                .andExpect(jsonPath("$[0].comments.length()").value(0))
+                .andExpect(jsonPath("$[1].id").value(first.getId()));
+        // items with their owners and the comments of all items
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+
+        batchGet("/items/batch-get", booker.getId(), List.of(second.getId()))
+                .andExpect(jsonPath("$[0].nextBooking").doesNotExist());
+    }
+
+    @Test
+    void bookingsBatchGet_ShouldReturnOnlyBookingsOfUser() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+        long firstBooking = bookingService.create(BookingRequestDto.builder().itemId(first.getId())
+                .start(start).end(start.plusHours(2)).build(), booker.getId()).getId();
+        long secondBooking = bookingService.create(BookingRequestDto.builder().itemId(second.getId())
+                .start(start).end(start.plusHours(2)).build(), booker.getId()).getId();
+        UserDto stranger = userService.create(TestUsers.user("stranger"));
+
+        batchGet("/bookings/batch-get", owner.getId(), List.of(secondBooking, firstBooking))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(secondBooking))
+                .andExpect(jsonPath("$[0].item.name").value("пила"))
+                .andExpect(jsonPath("$[0].booker.name").value("booker"))
+                .andExpect(jsonPath("$[1].id").value(firstBooking));
+        // the user check and the bookings with their items, owners and bookers
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+
+        batchGet("/bookings/batch-get", stranger.getId(), List.of(secondBooking, firstBooking))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
@@ -20,11 +21,15 @@ import ru.practicum.shareit.user.UserShortDto;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.function.Consumer;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = ShareItTestApplication.class)
@@ -126,4 +131,28 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(1)));
     }
+
+    @Test
+    void exportBookingsByUser_shouldWriteOneJsonPerLine() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<BookingResponseDto> consumer = invocation.getArgument(1);
+            consumer.accept(responseDto);
+            consumer.accept(BookingResponseDto.builder().id(2L).status(Status.APPROVED).build());
+            return null;
+        }).when(bookingService).exportBookingsByUser(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], BookingResponseDto.class).getId());
+        assertEquals(Status.APPROVED, objectMapper.readValue(lines[1], BookingResponseDto.class).getStatus());
+    }
 }
@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Counts the statements Hibernate prepares while a page of bookings is loaded and mapped to dto:
+ * item, owner, request and booker must not be loaded one by one.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class BookingFetchStatementsTest extends HibernateStatisticsTest {
+    private static final int PAGE_SIZE = 5;
+    private static final int BOOKINGS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = persist(User.builder().name("owner").email("fetch-owner@mail.ru").build());
+        booker = persist(User.builder().name("booker").email("fetch-booker@mail.ru").build());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        // every booking has its own item, request and second booker, so lazy loading would cost a select per row
+        for (int i = 0; i < BOOKINGS; i++) {
+            User requestor = persist(User.builder().name("requestor " + i).email("fetch-r" + i + "@mail.ru").build());
+            ItemRequest request = persist(ItemRequest.builder().description("нужна вещь " + i)
+                    .requestor(requestor).created(now).build());
+            Item item = persist(Item.builder().name("вещь " + i).description("описание").available(true)
+                    .owner(owner).request(request).build());
+            User other = persist(User.builder().name("other " + i).email("fetch-o" + i + "@mail.ru").build());
+            persist(Booking.builder().item(item).booker(booker).status(i % 2 == 0 ? Status.WAITING : Status.APPROVED)
+                    .start(now.minusDays(i)).end(now.minusDays(i).plusHours(1)).build());
+            persist(Booking.builder().item(item).booker(other).status(Status.REJECTED)
+                    .start(now.plusDays(i + 1)).end(now.plusDays(i + 2)).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void bookerPages_ShouldTakeOneStatement() {
+        for (BookingState state : BookingState.values()) {
+            List<BookingResponseDto> page = countStatements(1, state,
+                    () -> bookingService.getBookingByUser(booker.getId(), state, 0, PAGE_SIZE));
+            if (!page.isEmpty()) {
+                BookingResponseDto last = page.getLast();
+                countStatements(1, state, () -> bookingService.getBookingByUser(booker.getId(), state,
+                        new PageCursor(last.getStart(), last.getId()), PAGE_SIZE));
+            }
+        }
+        assertEquals(PAGE_SIZE, countStatements(1, BookingState.ALL,
+                () -> bookingService.getBookingByUser(booker.getId(), BookingState.ALL, 0, PAGE_SIZE)).size());
+    }
+
+    @Test
+    void ownerPages_ShouldTakeOneStatementBesidesOwnerCheck() {
+        for (BookingState state : BookingState.values()) {
+            List<BookingResponseDto> page = countStatements(2, state,
+                    () -> bookingService.getBookingByUserItem(owner.getId(), state, 0, PAGE_SIZE));
+            if (!page.isEmpty()) {
+                BookingResponseDto last = page.getLast();
+                countStatements(2, state, () -> bookingService.getBookingByUserItem(owner.getId(), state,
+                        new PageCursor(last.getStart(), last.getId()), PAGE_SIZE));
+            }
+        }
+    }
+
+    @Test
+    void export_ShouldTakeOneStatementBesidesUserCheck() {
+        List<BookingResponseDto> exported = countStatements(2, "export", () -> {
+            List<BookingResponseDto> rows = new ArrayList<>();
+            bookingService.exportBookingsByUser(booker.getId(), rows::add);
+            return rows;
+        });
+        assertEquals(BOOKINGS, exported.size());
+    }
+
+    private List<BookingResponseDto> countStatements(long expected, Object label,
+                                                     Supplier<List<BookingResponseDto>> page) {
+        entityManager.clear();
+        statistics.clear();
+        List<BookingResponseDto> result = page.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "лишние запросы: " + label);
+        result.forEach(dto -> {
+            assertNotNull(dto.getItem().getRequestId());
+            assertNotNull(dto.getItem().getOwnerId());
+            assertFalse(dto.getBooker().getName().isEmpty());
+        });
+        return result;
+    }
+}
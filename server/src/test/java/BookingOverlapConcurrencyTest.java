@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exceptions.DuplicatedDataException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires bookings of random overlapping intervals at one item from many threads and expects
+ * no two waiting bookings of the item to overlap. Not transactional: every booking commits on its own.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class)
+@ActiveProfiles("test")
+class BookingOverlapConcurrencyTest {
+    private static final int BOOKINGS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingService bookingService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("overlap-owner@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("overlap-booker@mail.ru").build());
+        item = itemRepository.save(Item.builder().name("дрель").description("популярная").available(true)
+                .owner(owner).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(itemBookings());
+        itemRepository.delete(item);
+        userRepository.deleteAll(List.of(owner, booker));
+    }
+
+    @Test
+    void parallelBookingsOfHotItem_ShouldNeverOverlap() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        Random random = new Random(42);
+        List<BookingRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = base.plusHours(random.nextInt(BOOKINGS / 2));
+            requests.add(BookingRequestDto.builder().itemId(item.getId()).start(start)
+                    .end(start.plusHours(1 + random.nextInt(12))).build());
+        }
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (BookingRequestDto request : requests) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        bookingService.create(request, booker.getId());
+                        accepted.incrementAndGet();
+                    } catch (DuplicatedDataException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Booking> saved = itemBookings();
+        saved.sort(Comparator.comparing(Booking::getStart));
+        for (int i = 1; i < saved.size(); i++) {
+            Booking previous = saved.get(i - 1);
+            Booking current = saved.get(i);
+            assertFalse(previous.getEnd().isAfter(current.getStart()),
+                    () -> "пересекаются бронирования " + previous.getId() + " и " + current.getId());
+        }
+        assertEquals(BOOKINGS, accepted.get() + rejected.get());
+        assertEquals(accepted.get(), saved.size());
+        assertTrue(accepted.get() > 0 && rejected.get() > 0);
+    }
+
+    private List<Booking> itemBookings() {
+        return new ArrayList<>(bookingRepository.findAll().stream()
+                .filter(b -> b.getItem().getId() == item.getId())
+                .toList());
+    }
+}
@@ -0,0 +1,162 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingOverlapIndex;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.exceptions.DuplicatedDataException;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingOverlapIndexTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingOverlapIndex overlapIndex;
+    private final AtomicLong ids = new AtomicLong(100);
+    private final List<Booking> saved = new ArrayList<>();
+    private final UnaryOperator<Booking> save = booking -> {
+        booking.setId(ids.incrementAndGet());
+        saved.add(booking);
+        return booking;
+    };
+
+    @BeforeEach
+    void setUp() {
+        overlapIndex = new BookingOverlapIndex(bookingRepository, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        overlapIndex.close();
+    }
+
+    // the repository finds the bookings saved so far, as the database would
+    private void loadSaved() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(anyLong(), any(), any()))
+                .thenAnswer(inv -> saved.stream()
+                        .filter(b -> b.getItem().getId() == inv.<Long>getArgument(0))
+                        .filter(b -> inv.<List<Status>>getArgument(1).contains(b.getStatus()))
+                        .toList());
+    }
+
+    private Booking createBooking(long itemId, int fromHour, int toHour) {
+        return Booking.builder()
+                .item(Item.builder().id(itemId).build())
+                .start(START.plusHours(fromHour))
+                .end(START.plusHours(toHour))
+                .status(Status.WAITING)
+                .build();
+    }
+
+    @Test
+    void reserve_ShouldRejectOverlapsAndAllowAdjacentBookings() {
+        loadSaved();
+
+        overlapIndex.reserve(createBooking(1L, 10, 20), save);
+
+        assertThrows(DuplicatedDataException.class, () -> overlapIndex.reserve(createBooking(1L, 15, 25), save));
+        assertThrows(DuplicatedDataException.class, () -> overlapIndex.reserve(createBooking(1L, 5, 11), save));
+        assertThrows(DuplicatedDataException.class, () -> overlapIndex.reserve(createBooking(1L, 12, 13), save));
+        assertThrows(DuplicatedDataException.class, () -> overlapIndex.reserve(createBooking(1L, 0, 30), save));
+        assertNotNull(overlapIndex.reserve(createBooking(1L, 20, 25), save));
+        assertNotNull(overlapIndex.reserve(createBooking(1L, 5, 10), save));
+        // loaded on the first reservation and again before each rejection
+        verify(bookingRepository, times(5)).findAllByItemIdAndStatusInAndEndAfter(anyLong(), any(), any());
+    }
+
+    @Test
+    void reserve_WhenOverlappingBookingRejectedElsewhere_ShouldAcceptAfterReload() {
+        loadSaved();
+        Booking rejected = overlapIndex.reserve(createBooking(1L, 10, 20), save);
+        rejected.setStatus(Status.REJECTED);
+
+        assertNotNull(overlapIndex.reserve(createBooking(1L, 15, 25), save));
+        assertThrows(DuplicatedDataException.class, () -> overlapIndex.reserve(createBooking(1L, 20, 30), save));
+    }
+
+    @Test
+    void reserve_ShouldCheckBookingsSavedBefore() {
+        Booking saved = createBooking(1L, 10, 20);
+        saved.setId(1L);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L),
+                eq(List.of(Status.WAITING, Status.APPROVED)), any())).thenReturn(List.of(saved));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(2L), any(), any())).thenReturn(List.of());
+
+        assertThrows(DuplicatedDataException.class, () -> overlapIndex.reserve(createBooking(1L, 19, 21), save));
+        assertNotNull(overlapIndex.reserve(createBooking(2L, 19, 21), save));
+    }
+
+    @Test
+    void release_ShouldFreeTheTime() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any())).thenReturn(List.of());
+        Booking rejected = overlapIndex.reserve(createBooking(1L, 10, 20), save);
+
+        overlapIndex.release(rejected);
+
+        assertNotNull(overlapIndex.reserve(createBooking(1L, 15, 25), save));
+    }
+
+    @Test
+    void prune_ShouldDropItemsWithEndedBookingsOnly() {
+        loadSaved();
+        overlapIndex.reserve(createBooking(1L, 10, 20), save);
+        overlapIndex.reserve(createBooking(2L, 10, 40), save);
+
+        overlapIndex.prune(START.plusHours(30));
+
+        // the item with a running booking is kept, the other one is loaded again
+        overlapIndex.reserve(createBooking(2L, 40, 45), save);
+        overlapIndex.reserve(createBooking(1L, 50, 60), save);
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any());
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndAfter(eq(2L), any(), any());
+    }
+
+    @Test
+    void reserve_WhenConstraintRejectsSave_ShouldThrowAndReloadItem() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any())).thenReturn(List.of());
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("insert",
+                new SQLException("conflicting key value violates exclusion constraint \"ex_bookings_item_overlap\""));
+
+        assertThrows(DuplicatedDataException.class, () -> overlapIndex.reserve(createBooking(1L, 10, 20), b -> {
+            throw violation;
+        }));
+        overlapIndex.reserve(createBooking(1L, 10, 20), save);
+
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any());
+    }
+
+    @Test
+    void reserve_WhenOtherConstraintFails_ShouldRethrow() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any())).thenReturn(List.of());
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("insert",
+                new SQLException("violates foreign key constraint \"fk_booker_id\""));
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> overlapIndex.reserve(createBooking(1L, 10, 20), b -> {
+                    throw violation;
+                })));
+    }
+}
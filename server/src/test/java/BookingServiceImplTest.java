@@ -1,4 +1,5 @@
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -6,9 +7,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.*;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.exceptions.DuplicatedDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -17,12 +21,16 @@ import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserValidator;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest(classes = ShareItTestApplication.class)
@@ -48,6 +56,15 @@ class BookingServiceImplTest {
     @Mock
     private UserValidator userValidator;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BookingTimeline bookingTimeline;
+
+    @Mock
+    private BookingOverlapIndex bookingOverlapIndex;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -136,6 +153,8 @@ class BookingServiceImplTest {
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         doNothing().when(bookingValidator).isItemAvailable(itemId);
         when(bookingMapper.toBooking(requestDto, item, user)).thenReturn(booking);
+        when(bookingOverlapIndex.reserve(eq(booking), any()))
+                .thenAnswer(inv -> inv.<UnaryOperator<Booking>>getArgument(1).apply(booking));
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(bookingMapper.toBookingResponseDto(booking)).thenReturn(expectedDto);
 
@@ -146,6 +165,30 @@ class BookingServiceImplTest {
         assertEquals(Status.WAITING, booking.getStatus());
         verify(bookingRepository).save(booking);
         verify(bookingValidator).isItemAvailable(itemId);
+        verify(bookingOverlapIndex).reserve(eq(booking), any());
+    }
+
+    @Test
+    void create_WhenItemAlreadyBooked_ShouldThrowException() {
+        Long userId = 1L;
+        Long itemId = 1L;
+        User user = createTestUser(userId);
+        Item item = createTestItem(itemId, createTestUser(2L));
+        BookingRequestDto requestDto = BookingRequestDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        Booking booking = createTestBooking(0L, item, user);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(bookingMapper.toBooking(requestDto, item, user)).thenReturn(booking);
+        when(bookingOverlapIndex.reserve(eq(booking), any()))
+                .thenThrow(new DuplicatedDataException("вещь уже забронирована"));
+
+        assertThrows(DuplicatedDataException.class, () -> bookingService.create(requestDto, userId));
+        verify(bookingTimeline, never()).update(any());
     }
 
     @Test
@@ -172,8 +215,7 @@ class BookingServiceImplTest {
         Booking booking = createTestBooking(bookingId, item, booker);
         BookingResponseDto expectedDto = new BookingResponseDto();
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        doNothing().when(bookingValidator).isOwner(ownerId, booking);
+        when(bookingValidator.getOwnedBooking(bookingId, ownerId)).thenReturn(booking);
         doNothing().when(bookingValidator).statusIsWaiting(booking);
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(bookingMapper.toBookingResponseDto(booking)).thenReturn(expectedDto);
@@ -183,9 +225,12 @@ class BookingServiceImplTest {
         assertNotNull(result);
         assertEquals(expectedDto, result);
         assertEquals(Status.APPROVED, booking.getStatus());
-        verify(bookingValidator).isOwner(ownerId, booking);
+        verify(bookingValidator).getOwnedBooking(bookingId, ownerId);
+        verifyNoInteractions(userValidator);
         verify(bookingValidator).statusIsWaiting(booking);
         verify(bookingRepository).save(booking);
+        verify(bookingTimeline).update(booking);
+        verify(bookingOverlapIndex, never()).release(any());
     }
 
     @Test
@@ -198,8 +243,7 @@ class BookingServiceImplTest {
         Booking booking = createTestBooking(bookingId, item, booker);
         BookingResponseDto expectedDto = new BookingResponseDto();
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        doNothing().when(bookingValidator).isOwner(ownerId, booking);
+        when(bookingValidator.getOwnedBooking(bookingId, ownerId)).thenReturn(booking);
         doNothing().when(bookingValidator).statusIsWaiting(booking);
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(bookingMapper.toBookingResponseDto(booking)).thenReturn(expectedDto);
@@ -209,6 +253,49 @@ class BookingServiceImplTest {
         assertNotNull(result);
         assertEquals(expectedDto, result);
         assertEquals(Status.REJECTED, booking.getStatus());
+        verify(bookingOverlapIndex).release(booking);
+    }
+
+    @Test
+    void approved_InTransaction_ShouldUpdateTimelineAfterCommitOnly() {
+        Long ownerId = 1L;
+        Long bookingId = 1L;
+        Booking booking = createTestBooking(bookingId, createTestItem(1L, createTestUser(ownerId)), createTestUser(2L));
+
+        when(bookingValidator.getOwnedBooking(bookingId, ownerId)).thenReturn(booking);
+        when(bookingRepository.save(booking)).thenReturn(booking);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.approved(ownerId, bookingId, true);
+            verify(bookingTimeline, never()).update(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookingTimeline).update(booking);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void approved_WhenRejectedInTransaction_ShouldReleaseTimeAfterCommitOnly() {
+        Long ownerId = 1L;
+        Long bookingId = 1L;
+        Booking booking = createTestBooking(bookingId, createTestItem(1L, createTestUser(ownerId)), createTestUser(2L));
+
+        when(bookingValidator.getOwnedBooking(bookingId, ownerId)).thenReturn(booking);
+        when(bookingRepository.save(booking)).thenReturn(booking);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.approved(ownerId, bookingId, false);
+            verify(bookingOverlapIndex, never()).release(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookingOverlapIndex).release(booking);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -223,15 +310,38 @@ class BookingServiceImplTest {
         List<BookingResponseDto> expectedDtos = List.of(new BookingResponseDto());
 
 
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(userId)).thenReturn(bookings);
+        when(bookingRepository.findAllByBookerId(userId, 0, 10)).thenReturn(bookings);
         when(bookingMapper.toBookingResponseDto(any(Booking.class))).thenReturn(new BookingResponseDto());
 
 
-        List<BookingResponseDto> result = bookingService.getBookingByUser(userId, BookingState.ALL, null, null);
+        List<BookingResponseDto> result = bookingService.getBookingByUser(userId, BookingState.ALL, 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(bookingRepository).findAllByBookerIdOrderByStartDesc(userId);
+        verify(bookingRepository).findAllByBookerId(userId, 0, 10);
+    }
+
+    @Test
+    void exportBookingsByUser_ShouldPassEveryBookingAndCloseStream() {
+        long userId = 1L;
+        User booker = createTestUser(userId);
+        List<Booking> bookings = List.of(
+                createTestBooking(1L, createTestItem(1L, createTestUser(2L)), booker),
+                createTestBooking(2L, createTestItem(2L, createTestUser(2L)), booker)
+        );
+        AtomicBoolean closed = new AtomicBoolean();
+        when(bookingRepository.streamAllByBookerId(userId))
+                .thenReturn(bookings.stream().onClose(() -> closed.set(true)));
+        when(bookingMapper.toBookingResponseDto(any(Booking.class)))
+                .thenAnswer(invocation -> BookingResponseDto.builder()
+                        .id(invocation.<Booking>getArgument(0).getId()).build());
+
+        List<Long> exported = new ArrayList<>();
+        bookingService.exportBookingsByUser(userId, booking -> exported.add(booking.getId()));
+
+        assertEquals(List.of(1L, 2L), exported);
+        assertTrue(closed.get());
+        verify(userValidator).isUserExists(userId);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingTimeline;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingTimelineTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingTimeline timeline;
+
+    @BeforeEach
+    void setUp() {
+        timeline = new BookingTimeline(bookingRepository, new BookingMapper(), true);
+    }
+
+    private Booking createBooking(long id, long itemId, LocalDateTime start, Status status) {
+        return Booking.builder()
+                .id(id)
+                .item(Item.builder().id(itemId).build())
+                .booker(User.builder().id(100 + id).build())
+                .start(start)
+                .end(start.plusHours(3))
+                .status(status)
+                .build();
+    }
+
+    private void rebuildWith(List<Booking> bookings) {
+        when(bookingRepository.findAllByStatusAndIdGreaterThanOrderByIdAsc(eq(Status.APPROVED), eq(0L), any()))
+                .thenReturn(new ArrayList<>(bookings));
+        timeline.rebuild();
+    }
+
+    private Long id(Optional<BookingShortDto> booking) {
+        return booking.map(BookingShortDto::getId).orElse(null);
+    }
+
+    @Test
+    void findLastAndNext_ShouldUseApprovedBookingsAroundNow() {
+        rebuildWith(List.of(
+                createBooking(1L, 1L, NOW.minusDays(3), Status.APPROVED),
+                createBooking(2L, 1L, NOW.plusDays(2), Status.APPROVED),
+                createBooking(3L, 1L, NOW.minusDays(1), Status.APPROVED),
+                createBooking(4L, 1L, NOW.plusDays(1), Status.APPROVED),
+                createBooking(5L, 2L, NOW.plusDays(1), Status.APPROVED)
+        ));
+
+        assertTrue(timeline.isReady());
+        assertEquals(3L, id(timeline.findLast(1L, NOW)));
+        assertEquals(4L, id(timeline.findNext(1L, NOW)));
+        assertNull(id(timeline.findLast(2L, NOW)));
+        assertEquals(5L, id(timeline.findNext(2L, NOW)));
+        assertTrue(timeline.findNext(9L, NOW).isEmpty());
+        verify(bookingRepository, never()).findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(anyLong(),
+                any(), any());
+    }
+
+    @Test
+    void findLastAndNext_ShouldKeepExactTimesAndBooker() {
+        Booking booking = createBooking(7L, 1L, NOW.minusNanos(1_000), Status.APPROVED);
+        rebuildWith(List.of(booking));
+
+        BookingShortDto last = timeline.findLast(1L, NOW).orElseThrow();
+
+        assertEquals(booking.getStart(), last.getStart());
+        assertEquals(booking.getEnd(), last.getEnd());
+        assertEquals(107L, last.getBookerId());
+        // a booking starting exactly now is neither last nor next
+        assertTrue(timeline.findNext(1L, NOW.minusNanos(1_000)).isEmpty());
+        assertTrue(timeline.findLast(1L, NOW.minusNanos(1_000)).isEmpty());
+    }
+
+    @Test
+    void findLastAndNext_WithEqualStarts_ShouldBreakTiesById() {
+        rebuildWith(List.of(
+                createBooking(8L, 1L, NOW.minusDays(1), Status.APPROVED),
+                createBooking(6L, 1L, NOW.minusDays(1), Status.APPROVED),
+                createBooking(9L, 1L, NOW.plusDays(1), Status.APPROVED),
+                createBooking(5L, 1L, NOW.plusDays(1), Status.APPROVED)
+        ));
+
+        assertEquals(8L, id(timeline.findLast(1L, NOW)));
+        assertEquals(5L, id(timeline.findNext(1L, NOW)));
+    }
+
+    @Test
+    void update_ShouldAddApprovedAndDropOtherStatuses() {
+        rebuildWith(List.of(createBooking(1L, 1L, NOW.plusDays(5), Status.APPROVED)));
+
+        timeline.update(createBooking(2L, 1L, NOW.plusDays(1), Status.WAITING));
+        assertEquals(1L, id(timeline.findNext(1L, NOW)));
+
+        timeline.update(createBooking(2L, 1L, NOW.plusDays(1), Status.APPROVED));
+        assertEquals(2L, id(timeline.findNext(1L, NOW)));
+
+        timeline.update(createBooking(2L, 1L, NOW.plusDays(1), Status.REJECTED));
+        assertEquals(1L, id(timeline.findNext(1L, NOW)));
+
+        timeline.update(createBooking(1L, 1L, NOW.plusDays(5), Status.REJECTED));
+        assertTrue(timeline.findNext(1L, NOW).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldReadInBatchesAndKeepUpdatesMadeMeanwhile() {
+        List<Booking> firstBatch = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            firstBatch.add(createBooking(id, 1L, NOW.minusDays(1).minusMinutes(id), Status.APPROVED));
+        }
+        when(bookingRepository.findAllByStatusAndIdGreaterThanOrderByIdAsc(eq(Status.APPROVED), eq(0L), any()))
+                .thenReturn(firstBatch);
+        when(bookingRepository.findAllByStatusAndIdGreaterThanOrderByIdAsc(eq(Status.APPROVED), eq(1000L), any()))
+                .thenAnswer(invocation -> {
+                    // approved while the timeline is being built
+                    timeline.update(createBooking(2000L, 1L, NOW.plusDays(1), Status.APPROVED));
+                    return List.of(createBooking(1001L, 2L, NOW.minusDays(2), Status.APPROVED));
+                });
+
+        timeline.rebuild();
+
+        assertEquals(1L, id(timeline.findLast(1L, NOW)));
+        assertEquals(2000L, id(timeline.findNext(1L, NOW)));
+        assertEquals(1001L, id(timeline.findLast(2L, NOW)));
+        verify(bookingRepository).findAllByStatusAndIdGreaterThanOrderByIdAsc(Status.APPROVED, 1000L,
+                Limit.of(1000));
+    }
+
+    @Test
+    void findLastAndNext_BeforeRebuild_ShouldAskDatabase() {
+        Booking last = createBooking(1L, 1L, NOW.minusDays(1), Status.APPROVED);
+        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(1L, NOW, Status.APPROVED))
+                .thenReturn(Optional.of(last));
+        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(1L, NOW, Status.APPROVED))
+                .thenReturn(Optional.empty());
+
+        assertFalse(timeline.isReady());
+        assertEquals(1L, id(timeline.findLast(1L, NOW)));
+        assertTrue(timeline.findNext(1L, NOW).isEmpty());
+    }
+
+    @Test
+    void disabledTimeline_ShouldNotLoadBookings() {
+        BookingTimeline disabled = new BookingTimeline(bookingRepository, new BookingMapper(), false);
+
+        disabled.rebuild();
+        disabled.update(createBooking(1L, 1L, NOW, Status.APPROVED));
+
+        assertFalse(disabled.isReady());
+        verify(bookingRepository, never()).findAllByStatusAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingValidator;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.exceptions.ForbiddenException;
@@ -13,6 +14,8 @@ import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -22,11 +25,14 @@ class BookingValidatorTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private BookingRepository bookingRepository;
+
     private BookingValidator bookingValidator;
 
     @BeforeEach
     void setUp() {
-        bookingValidator = new BookingValidator(itemRepository, null);
+        bookingValidator = new BookingValidator(itemRepository, bookingRepository);
     }
 
     @Test
@@ -93,6 +99,29 @@ class BookingValidatorTest {
         assertEquals("отсутствие доступа у пользователя с id = 1", exception.getMessage());
     }
 
+    @Test
+    void getOwnedBooking_WhenUserIsOwner_ShouldReturnBooking() {
+        Booking booking = createBookingWithBookerAndOwner(1L, 2L);
+        when(bookingRepository.findWithItemAndBookerById(5L)).thenReturn(Optional.of(booking));
+
+        assertSame(booking, bookingValidator.getOwnedBooking(5L, 2L));
+    }
+
+    @Test
+    void getOwnedBooking_WhenUserIsNotOwner_ShouldThrowForbiddenException() {
+        Booking booking = createBookingWithBookerAndOwner(1L, 2L);
+        when(bookingRepository.findWithItemAndBookerById(5L)).thenReturn(Optional.of(booking));
+
+        assertThrows(ForbiddenException.class, () -> bookingValidator.getOwnedBooking(5L, 1L));
+    }
+
+    @Test
+    void getOwnedBooking_WhenBookingNotFound_ShouldThrowNotFoundException() {
+        when(bookingRepository.findWithItemAndBookerById(5L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingValidator.getOwnedBooking(5L, 2L));
+    }
+
     @Test
     void hasItem_WhenUserHasItems_ShouldNotThrowException() {
         long userId = 1L;
@@ -0,0 +1,158 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Users, items and requests are found by id through the cache: a repeated booking of the same item
+ * by the same user only checks availability and inserts, and edits and deletes evict the entry.
+ * The caches are filled on commit, so the data of the tests is committed.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EntityCacheTest extends HibernateStatisticsTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(User.builder().name("owner").email(email("cache-owner")).build());
+        booker = userRepository.save(User.builder().name("booker").email(email("cache-booker")).build());
+        item = itemRepository.save(Item.builder().name("дрель").description("описание").available(true)
+                .owner(owner).build());
+    }
+
+    private static String email(String name) {
+        return name + "-" + UUID.randomUUID() + "@mail.ru";
+    }
+
+    @Test
+    void repeatedBookingCreate_ShouldFindUserAndItemInCache() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        bookingService.create(booking(start), booker.getId());
+        statistics.clear();
+
+        bookingService.create(booking(start.plusDays(1)), booker.getId());
+
+        // availability check and insert
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", UserRepository.CACHE).tag("result", "hit")
+                .functionCounter().count() > 0);
+    }
+
+    @Test
+    void edit_ShouldEvictCachedUser() {
+        assertEquals("booker", userService.getUserById(booker.getId()).getName());
+
+        userService.edit(booker.getId(), UserDto.builder().name("new booker").build());
+
+        assertEquals("new booker", userService.getUserById(booker.getId()).getName());
+    }
+
+    @Test
+    void edit_ShouldEvictItemsOfEditedOwnerOnly() {
+        Item other = itemRepository.save(Item.builder().name("пила").description("описание").available(true)
+                .owner(booker).build());
+        itemRepository.findById(item.getId());
+        itemRepository.findById(other.getId());
+
+        userService.edit(item.getOwner().getId(), UserDto.builder().name("new owner").build());
+
+        assertNull(cacheManager.getCache(ItemRepository.CACHE).get(item.getId()));
+        assertNotNull(cacheManager.getCache(ItemRepository.CACHE).get(other.getId()));
+        assertEquals("new owner", itemRepository.findById(item.getId()).orElseThrow().getOwner().getName());
+    }
+
+    @Test
+    void deleteById_ShouldEvictCachedItem() {
+        assertTrue(itemRepository.findById(item.getId()).isPresent());
+
+        itemRepository.deleteById(item.getId());
+
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+
+    @Test
+    void itemGet_AfterBookingCreate_ShouldShowCachedItemWithOwner() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        mockMvc.perform(post("/bookings").header("X-Sharer-User-Id", booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking(start))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{id}", item.getId()).header("X-Sharer-User-Id", booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owner.name").value("owner"));
+    }
+
+    @Test
+    void rolledBackEdit_ShouldKeepCachedItem() {
+        assertTrue(itemRepository.findById(item.getId()).isPresent());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Item edited = itemRepository.findById(item.getId()).orElseThrow();
+            itemRepository.save(Item.builder().id(edited.getId()).version(edited.getVersion()).name("пила")
+                    .description(edited.getDescription()).available(true).owner(edited.getOwner()).build());
+            // evicted on commit, the transaction still finds the cached item
+            assertEquals("дрель", cacheManager.getCache(ItemRepository.CACHE).get(item.getId(), Item.class).getName());
+            status.setRollbackOnly();
+        });
+
+        assertEquals("дрель", itemRepository.findById(item.getId()).orElseThrow().getName());
+        assertEquals("дрель", cacheManager.getCache(ItemRepository.CACHE).get(item.getId(), Item.class).getName());
+    }
+
+    private BookingRequestDto booking(LocalDateTime start) {
+        return BookingRequestDto.builder().itemId(item.getId()).start(start).end(start.plusHours(2)).build();
+    }
+}
@@ -0,0 +1,26 @@
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// integration tests that count the statements and cache hits of Hibernate
+abstract class HibernateStatisticsTest {
+    @Autowired
+    protected EntityManager entityManager;
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    protected Statistics statistics;
+
+    @BeforeEach
+    void initStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    protected <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -11,9 +11,14 @@ import ru.practicum.shareit.item.InMemoryItemStorage;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -92,7 +97,8 @@ class InMemoryItemStorageTest {
 
         Optional<Item> retrievedItem = itemStorage.getItemById(createdItem.getId());
         assertTrue(retrievedItem.isPresent());
-        assertEquals(createdItem, retrievedItem.get());
+        assertEquals(createdItem.getId(), retrievedItem.get().getId());
+        assertEquals("New Item", retrievedItem.get().getName());
     }
 
     @Test
@@ -128,7 +134,7 @@ class InMemoryItemStorageTest {
         Optional<Item> result = itemStorage.getItemById(itemId);
 
         assertTrue(result.isPresent());
-        assertEquals(createdItem, result.get());
+        assertEquals(createdItem.getId(), result.get().getId());
         assertEquals("Item 1", result.get().getName());
         assertEquals(testUser1, result.get().getOwner());
     }
@@ -357,4 +363,131 @@ class InMemoryItemStorageTest {
         assertTrue(exception.getMessage().contains("не найдена"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void search_WhenTextIsPartOfWord_ShouldReturnItemsInIdOrder() {
+        itemStorage.create(testItem2);
+        itemStorage.create(testItem1);
+
+        List<Item> result = itemStorage.search("ESCR");
+
+        assertEquals(List.of(1L, 2L), result.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    void search_WhenTextHasSeveralWords_ShouldMatchWholeText() {
+        itemStorage.create(testItem1);
+        itemStorage.create(testItem2);
+
+        List<Item> result = itemStorage.search("item 2");
+
+        assertEquals(1, result.size());
+        assertEquals("Item 2", result.getFirst().getName());
+    }
+
+    @Test
+    void edit_WhenNameChanged_ShouldReindexSearch() {
+        Item item = itemStorage.create(testItem1);
+
+        itemStorage.edit(Item.builder().name("Дрель").build(), item.getId());
+
+        assertTrue(itemStorage.search("item").isEmpty());
+        assertTrue(itemStorage.search("it").isEmpty());
+        assertEquals(1, itemStorage.search("дрел").size());
+        assertEquals(1, itemStorage.search("ре").size());
+    }
+
+    @Test
+    void edit_ShouldNotChangeItemReadBefore() {
+        Item item = itemStorage.create(testItem1);
+        Item read = itemStorage.getItemById(item.getId()).orElseThrow();
+
+        itemStorage.edit(Item.builder().name("Дрель").available(false).build(), item.getId());
+
+        assertEquals("Item 1", read.getName());
+        assertTrue(read.getAvailable());
+        assertEquals("Дрель", itemStorage.getItemById(item.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void create_ShouldKeepItsOwnCopy() {
+        Item created = itemStorage.create(testItem1);
+
+        testItem1.setName("Changed by caller");
+        created.setAvailable(false);
+        itemStorage.getItemById(created.getId()).orElseThrow().setName("Changed by reader");
+
+        Item stored = itemStorage.getItemById(created.getId()).orElseThrow();
+        assertEquals("Item 1", stored.getName());
+        assertTrue(stored.getAvailable());
+        assertEquals(1, itemStorage.search("item 1").size());
+    }
+
+    @Test
+    void search_WhenTextHasSeveralWords_ShouldMatchInnerWordsWhole() {
+        itemStorage.create(Item.builder().name("Дрель ударная мощная").description("").available(true)
+                .owner(testUser1).build());
+        itemStorage.create(Item.builder().name("Дрель ударнаямощная").description("").available(true)
+                .owner(testUser1).build());
+
+        assertEquals(List.of(1L), itemStorage.search("рель ударная мощ").stream().map(Item::getId).toList());
+        assertEquals(List.of(1L), itemStorage.search("ударная мощная").stream().map(Item::getId).toList());
+        assertTrue(itemStorage.search("рель дарная мощ").isEmpty());
+        assertTrue(itemStorage.search("рель удар").stream().map(Item::getId).toList().containsAll(List.of(1L, 2L)));
+        assertTrue(itemStorage.search(" рель ").isEmpty());
+        assertEquals(List.of(1L), itemStorage.search(" ударная ").stream().map(Item::getId).toList());
+    }
+
+    @Test
+    void search_WhenTextHasNoLettersOrDigits_ShouldReturnEmptyList() {
+        itemStorage.create(testItem1);
+
+        assertTrue(itemStorage.search(" - ").isEmpty());
+    }
+
+    @Test
+    void edit_WhenItemNotExists_ShouldThrowNotFoundException() {
+        assertThrows(NotFoundException.class, () -> itemStorage.edit(Item.builder().name("Дрель").build(), 999L));
+    }
+
+    @Test
+    void delete_WhenItemExists_ShouldRemoveItFromIndexes() {
+        Item item = itemStorage.create(testItem1);
+        itemStorage.create(testItem2);
+
+        itemStorage.delete(item.getId(), testUser1.getId());
+
+        assertEquals(1, itemStorage.getAllItemsByUser(testUser1.getId()).size());
+        assertEquals(1, itemStorage.search("item").size());
+        assertThrows(NotFoundException.class, () -> itemStorage.hasAccess(item.getId(), testUser1.getId()));
+    }
+
+    @Test
+    void create_WhenCalledConcurrently_ShouldIndexEveryItemOnce() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                User owner = t % 2 == 0 ? testUser1 : testUser2;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        itemStorage.create(Item.builder().name("дрель " + i).description("описание")
+                                .available(true).owner(owner).build());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Item> found = itemStorage.search("дрель");
+        assertEquals(threads * perThread, found.size());
+        assertEquals(threads * perThread, found.stream().map(Item::getId).distinct().count());
+        assertEquals(threads * perThread / 2, itemStorage.getAllItemsByUser(testUser1.getId()).size());
+        assertEquals(threads * perThread / 2, itemStorage.getAllItemsByUser(testUser2.getId()).size());
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.CommentDto;
 import ru.practicum.shareit.item.ItemDto;
@@ -95,7 +96,7 @@ class ItemControllerTest {
         Long itemId = 1L;
         ItemDto expectedItem = createTestItemDto();
 
-        when(itemService.getItemById(itemId))
+        when(itemService.getItemById(itemId, userId))
                 .thenReturn(expectedItem);
 
 
@@ -106,7 +107,41 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.name").value("Test Item"))
                 .andExpect(jsonPath("$.description").value("Test Description"));
 
-        verify(itemService).getItemById(itemId);
+        verify(itemService).getItemById(itemId, userId);
+    }
+
+    @Test
+    void getItemById_WhenOwner_ShouldReturnLastAndNextBooking() throws Exception {
+        ItemDto expectedItem = createTestItemDto();
+        LocalDateTime now = LocalDateTime.now();
+        expectedItem.setLastBooking(BookingShortDto.builder().id(3L).bookerId(2L)
+                .start(now.minusDays(2)).end(now.minusDays(1)).build());
+        expectedItem.setNextBooking(BookingShortDto.builder().id(4L).bookerId(2L)
+                .start(now.plusDays(1)).end(now.plusDays(2)).build());
+        expectedItem.setComments(List.of(createTestCommentDto()));
+
+        when(itemService.getItemById(1L, 1L))
+                .thenReturn(expectedItem);
+
+        mockMvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking.id").value(3L))
+                .andExpect(jsonPath("$.lastBooking.bookerId").value(2L))
+                .andExpect(jsonPath("$.nextBooking.id").value(4L))
+                .andExpect(jsonPath("$.comments[0].text").value("Test comment"));
+    }
+
+    @Test
+    void getItemById_WhenNotOwner_ShouldReturnNoBookings() throws Exception {
+        when(itemService.getItemById(1L, 2L))
+                .thenReturn(createTestItemDto());
+
+        mockMvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking").doesNotExist())
+                .andExpect(jsonPath("$.nextBooking").doesNotExist());
     }
 
     @Test
@@ -339,7 +374,7 @@ class ItemControllerTest {
         Long userId = 1L;
         Long itemId = 999L;
 
-        when(itemService.getItemById(itemId))
+        when(itemService.getItemById(itemId, userId))
                 .thenThrow(new NotFoundException("Item not found"));
 
         // Act & Assert
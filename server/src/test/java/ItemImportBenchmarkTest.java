@@ -0,0 +1,55 @@
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares items created one by one with the batched import of the same rows.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=ItemImportBenchmarkTest [-Dbenchmark.items=N]}.
+ */
+@Slf4j
+@SpringBootTest(classes = ShareItTestApplication.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ItemImportBenchmarkTest {
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void compareCreateAndImport() {
+        int items = Integer.getInteger("benchmark.items", 20_000);
+        long ownerId = userService.create(UserDto.builder().name("bench").email("bench-import@mail.ru").build())
+                .getId();
+        List<ItemDto> rows = IntStream.range(0, items)
+                .mapToObj(i -> ItemDto.builder().name("дрель " + i).description("описание " + i).available(true)
+                        .build())
+                .toList();
+        // warm up both paths
+        rows.subList(0, 500).forEach(row -> itemService.create(row, ownerId));
+        itemService.importItems(rows.subList(0, 500), ownerId);
+
+        long started = System.nanoTime();
+        rows.forEach(row -> itemService.create(row, ownerId));
+        log.info("create one by one: {} rows/s", rate(items, started));
+
+        started = System.nanoTime();
+        assertEquals(items, itemService.importItems(rows, ownerId).getImported());
+        log.info("batched import:    {} rows/s", rate(items, started));
+    }
+
+    private static long rate(int rows, long started) {
+        return rows * 1_000_000_000L / Math.max(1, System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemImportResult;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ShareItTestApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ItemImportTest extends HibernateStatisticsTest {
+    private static final int ROWS = 120;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(UserDto.builder().name("owner")
+                .email("owner-" + UUID.randomUUID() + "@mail.ru").build());
+    }
+
+    private static ItemDto item(int i) {
+        return ItemDto.builder().name("вещь " + i).description("описание " + i).available(true).build();
+    }
+
+    @Test
+    @DisplayName("Импорт сохраняет вещи пачками и сообщает об ошибочных строках")
+    void importItems_ShouldInsertInBatchesAndReportRows() {
+        ItemRequestDto request = requestService.create(ItemRequestDto.builder().description("нужна дрель").build(),
+                owner.getId());
+        List<ItemDto> rows = new ArrayList<>(IntStream.range(0, ROWS).mapToObj(ItemImportTest::item).toList());
+        rows.get(5).setRequestId(request.getId());
+        rows.get(7).setRequestId(999_999L);
+        rows.get(9).setId(1L);
+
+        statistics.clear();
+        ItemImportResult result = itemService.importItems(rows, owner.getId());
+
+        assertEquals(ROWS - 1, result.getImported());
+        assertEquals(List.of(new ItemImportResult.RowError(8, "Запрос c id 999999 не найден")), result.getErrors());
+        assertEquals(ROWS - 1, new HashSet<>(result.getIds()).size());
+        assertEquals(ROWS - 1, statistics.getEntityInsertCount());
+        // the user, the requests, a few sequence blocks and one statement per batch instead of one per row
+        assertTrue(statistics.getPrepareStatementCount() < 20, () -> "statements: "
+                + statistics.getPrepareStatementCount());
+
+        ItemDto answer = itemService.getItemsByIds(List.of(result.getIds().get(5)), owner.getId()).getFirst();
+        assertEquals("вещь 5", answer.getName());
+        assertEquals(request.getId(), answer.getRequestId());
+        assertEquals(ROWS - 1, itemService.getAllItemsByUser(owner.getId(), 0, ROWS * 2).size());
+    }
+
+    @Test
+    @DisplayName("Вещи, добавленные SQL, и импортированные вещи получают разные id")
+    void importItems_AfterSqlInsert_ShouldNotReuseIds() {
+        itemService.importItems(List.of(item(1)), owner.getId());
+        jdbcTemplate.update("insert into items (name, description, available, user_id) values ('sql', 'sql', true, ?)",
+                owner.getId());
+
+        ItemImportResult result = itemService.importItems(IntStream.range(0, ROWS).mapToObj(ItemImportTest::item)
+                .toList(), owner.getId());
+
+        assertEquals(ROWS, result.getImported());
+        assertEquals(ROWS + 2, itemService.getAllItemsByUser(owner.getId(), 0, ROWS * 2).size());
+    }
+
+    @Test
+    @DisplayName("Импорт для несуществующего пользователя")
+    void importItems_WhenUserNotFound_ShouldThrow() {
+        assertThrows(NotFoundException.class, () -> itemService.importItems(List.of(item(1)), 999_999L));
+    }
+}
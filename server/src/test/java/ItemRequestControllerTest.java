@@ -4,6 +4,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequestController;
 import ru.practicum.shareit.request.ItemRequestDto;
 import ru.practicum.shareit.request.ItemRequestService;
@@ -57,16 +61,17 @@ class ItemRequestControllerTest {
     void getRequestsByUser_ShouldCallServiceAndReturnList() {
         // given
         long userId = 1L;
-        when(requestService.getRequestsByUser(userId)).thenReturn(itemRequestDtoList);
+        when(requestService.getRequestsByUser(userId, 0, 10)).thenReturn(itemRequestDtoList);
 
         // when
-        List<ItemRequestDto> result = itemRequestController.getRequestsByUser(userId);
+        List<ItemRequestDto> result = itemRequestController.getRequestsByUser(userId, 0, 10, null,
+                new MockHttpServletResponse());
 
         // then
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(itemRequestDto, result.get(0));
-        verify(requestService).getRequestsByUser(userId);
+        verify(requestService).getRequestsByUser(userId, 0, 10);
         verifyNoMoreInteractions(requestService);
     }
 
@@ -74,15 +79,16 @@ class ItemRequestControllerTest {
     void getRequestsByUser_WhenEmptyList_ShouldReturnEmptyList() {
         // given
         long userId = 1L;
-        when(requestService.getRequestsByUser(userId)).thenReturn(List.of());
+        when(requestService.getRequestsByUser(userId, 0, 10)).thenReturn(List.of());
 
         // when
-        List<ItemRequestDto> result = itemRequestController.getRequestsByUser(userId);
+        List<ItemRequestDto> result = itemRequestController.getRequestsByUser(userId, 0, 10, null,
+                new MockHttpServletResponse());
 
         // then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(requestService).getRequestsByUser(userId);
+        verify(requestService).getRequestsByUser(userId, 0, 10);
     }
 
     @Test
@@ -93,7 +99,8 @@ class ItemRequestControllerTest {
         when(requestService.getAllRequests(from, size)).thenReturn(itemRequestDtoList);
 
         // when
-        List<ItemRequestDto> result = itemRequestController.getAllRequests(from, size);
+        List<ItemRequestDto> result = itemRequestController.getAllRequests(from, size, null,
+                new MockHttpServletResponse());
 
         // then
         assertNotNull(result);
@@ -110,7 +117,8 @@ class ItemRequestControllerTest {
         when(requestService.getAllRequests(from, size)).thenReturn(itemRequestDtoList);
 
         // when
-        List<ItemRequestDto> result = itemRequestController.getAllRequests(from, size);
+        List<ItemRequestDto> result = itemRequestController.getAllRequests(from, size, null,
+                new MockHttpServletResponse());
 
         // then
         assertNotNull(result);
@@ -127,7 +135,8 @@ class ItemRequestControllerTest {
         when(requestService.getAllRequests(from, size)).thenReturn(List.of());
 
         // when
-        List<ItemRequestDto> result = itemRequestController.getAllRequests(from, size);
+        List<ItemRequestDto> result = itemRequestController.getAllRequests(from, size, null,
+                new MockHttpServletResponse());
 
         // then
         assertNotNull(result);
@@ -135,6 +144,23 @@ class ItemRequestControllerTest {
         verify(requestService).getAllRequests(from, size);
     }
 
+    @Test
+    void getAllRequests_WithCursor_ShouldCallKeysetServiceAndReturnNextCursor() {
+        // given
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2024, 1, 10, 12, 0), 7L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(requestService.getAllRequests(cursor, 1)).thenReturn(itemRequestDtoList);
+
+        // when
+        List<ItemRequestDto> result = itemRequestController.getAllRequests(0, 1, cursor.encode(), response);
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals(new PageCursor(itemRequestDto.getCreated(), itemRequestDto.getId()),
+                PageCursor.decode(response.getHeader(PageCursor.NEXT_CURSOR_HEADER)));
+        verify(requestService, never()).getAllRequests(anyInt(), anyInt());
+    }
+
     @Test
     void getRequestById_ShouldCallServiceAndReturnDto() {
         // given
@@ -142,11 +168,13 @@ class ItemRequestControllerTest {
         when(requestService.getRequestById(requestId)).thenReturn(itemRequestDto);
 
         // when
-        ItemRequestDto result = itemRequestController.getRequestById(requestId);
+        ItemRequestDto result = itemRequestController.getRequestById(requestId,
+                new ServletWebRequest(new MockHttpServletRequest()));
 
         // then
         assertNotNull(result);
         assertEquals(itemRequestDto, result);
+        verify(requestService).getRequestTag(requestId);
         verify(requestService).getRequestById(requestId);
         verifyNoMoreInteractions(requestService);
     }
@@ -164,7 +192,8 @@ class ItemRequestControllerTest {
         when(requestService.getRequestById(requestId)).thenReturn(differentDto);
 
         // when
-        ItemRequestDto result = itemRequestController.getRequestById(requestId);
+        ItemRequestDto result = itemRequestController.getRequestById(requestId,
+                new ServletWebRequest(new MockHttpServletRequest()));
 
         // then
         assertNotNull(result);
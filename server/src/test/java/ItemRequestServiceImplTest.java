@@ -108,9 +108,9 @@ class ItemRequestServiceImplTest {
     void getRequestsByUser_WithEmptyResult_ShouldReturnEmptyList() {
         long userId = 1L;
         doNothing().when(userValidator).isUserExists(userId);
-        when(requestRepository.findAllByRequestorId(userId)).thenReturn(List.of());
+        when(requestRepository.findAllWithItemsByRequestorId(userId, 0, 10)).thenReturn(List.of());
 
-        List<ItemRequestDto> result = itemRequestService.getRequestsByUser(userId);
+        List<ItemRequestDto> result = itemRequestService.getRequestsByUser(userId, 0, 10);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
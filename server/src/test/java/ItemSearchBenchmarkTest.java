@@ -0,0 +1,87 @@
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.ItemSearchMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the SQL LIKE search with the in-process index on the same data set.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=ItemSearchBenchmarkTest [-Dbenchmark.items=N]}.
+ */
+@Slf4j
+@SpringBootTest(classes = ShareItTestApplication.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ItemSearchBenchmarkTest {
+    private static final String[] WORDS = {"дрель", "пила", "молоток", "отвертка", "лестница", "палатка",
+            "велосипед", "самокат", "проектор", "гитара", "миксер", "пылесос", "удочка", "лыжи", "коньки"};
+    private static final List<String> QUERIES = List.of("дрель", "ток", "ипед", "гитара 1", "пы");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void compareLikeAndIndex() {
+        int items = Integer.getInteger("benchmark.items", 200_000);
+        seed(items);
+        ItemSearchIndex searchIndex = new ItemSearchIndex(itemRepository, ItemSearchMode.INDEX);
+        long started = System.nanoTime();
+        searchIndex.rebuild();
+        log.info("index rebuild for {} items: {} ms", items, (System.nanoTime() - started) / 1_000_000);
+
+        for (String query : QUERIES) {
+            for (int from : new int[]{0, 1000}) {
+                List<Long> like = measure("LIKE  ", query, from,
+                        () -> itemRepository.searchAvailableItems(query, from, 20).stream()
+                                .map(item -> item.getId()).toList());
+                List<Long> indexed = measure("INDEX ", query, from, () -> searchIndex.search(query, from, 20));
+                assertEquals(like, indexed);
+            }
+        }
+    }
+
+    private List<Long> measure(String label, String query, int from, Supplier<List<Long>> search) {
+        List<Long> result = search.get();
+        int rounds = 20;
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            search.get();
+        }
+        log.info("{} query='{}' from={}: {} us/op", label, query, from, (System.nanoTime() - started) / rounds / 1000);
+        return result;
+    }
+
+    private void seed(int items) {
+        jdbcTemplate.update("insert into users (name, email) values ('bench', 'bench@mail.ru')");
+        long ownerId = jdbcTemplate.queryForObject("select id from users where email = 'bench@mail.ru'", Long.class);
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String description = WORDS[random.nextInt(WORDS.length)] + " и " + WORDS[random.nextInt(WORDS.length)];
+            rows.add(new Object[]{name, description, random.nextInt(10) > 0, ownerId});
+            if (rows.size() == 5000) {
+                jdbcTemplate.batchUpdate("insert into items (name, description, available, user_id) values (?, ?, ?, ?)",
+                        rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into items (name, description, available, user_id) values (?, ?, ?, ?)",
+                    rows);
+        }
+    }
+}
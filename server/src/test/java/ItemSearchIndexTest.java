@@ -0,0 +1,151 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.ItemSearchMode;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ItemSearchIndex(itemRepository, ItemSearchMode.INDEX);
+    }
+
+    private Item createItem(long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+
+    @Test
+    void search_ShouldMatchSubstringInNameOrDescriptionIgnoringCase() {
+        searchIndex.index(createItem(1L, "Дрель", "Простая дрель", true));
+        searchIndex.index(createItem(2L, "Отвертка", "Аккумуляторная ДРЕЛЬ-шуруповерт", true));
+        searchIndex.index(createItem(3L, "Молоток", "Обычный", true));
+
+        assertEquals(List.of(1L, 2L), searchIndex.search("дРеЛь", 0, 10));
+        assertEquals(List.of(2L), searchIndex.search("ль-шуру", 0, 10));
+        assertEquals(List.of(3L), searchIndex.search("ток", 0, 10));
+        assertTrue(searchIndex.search("пила", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_ShortQuery_ShouldUseShortGramsAndKeepIdOrder() {
+        searchIndex.index(createItem(7L, "Аб", "вг", true));
+        searchIndex.index(createItem(3L, "ааб", "", true));
+        searchIndex.index(createItem(5L, "Пила", null, true));
+
+        assertEquals(List.of(3L, 7L), searchIndex.search("аб", 0, 10));
+        assertEquals(List.of(5L), searchIndex.search("и", 0, 10));
+        assertTrue(searchIndex.search("б в", 0, 10).isEmpty());
+        assertEquals(List.of(7L), searchIndex.search("вг", 0, 10));
+    }
+
+    @Test
+    void search_ShouldNotMatchAcrossNameAndDescription() {
+        searchIndex.index(createItem(1L, "abc", "def", true));
+
+        assertTrue(searchIndex.search("cde", 0, 10).isEmpty());
+        assertTrue(searchIndex.search("c d", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldApplyFromAndSize() {
+        for (long id = 1; id <= 20; id++) {
+            searchIndex.index(createItem(id, "Вещь " + id, "описание", true));
+        }
+
+        assertEquals(List.of(6L, 7L, 8L), searchIndex.search("вещь", 5, 3));
+        assertEquals(List.of(20L), searchIndex.search("описание", 19, 5));
+        assertTrue(searchIndex.search("описание", 20, 5).isEmpty());
+    }
+
+    @Test
+    void index_ShouldFollowEditsAndAvailability() {
+        searchIndex.index(createItem(1L, "Дрель", "ударная", true));
+        searchIndex.index(createItem(1L, "Перфоратор", "ударный", true));
+
+        assertTrue(searchIndex.search("дрель", 0, 10).isEmpty());
+        assertEquals(List.of(1L), searchIndex.search("перфо", 0, 10));
+
+        searchIndex.index(createItem(1L, "Перфоратор", "ударный", false));
+        assertTrue(searchIndex.search("перфо", 0, 10).isEmpty());
+
+        searchIndex.index(createItem(1L, "Перфоратор", "ударный", true));
+        searchIndex.remove(1L);
+        assertTrue(searchIndex.search("перфо", 0, 10).isEmpty());
+    }
+
+    @Test
+    void index_ShouldStayConsistentAfterCompaction() {
+        for (int round = 0; round < 50; round++) {
+            for (long id = 1; id <= 40; id++) {
+                searchIndex.index(createItem(id, "вещь " + round, "описание номер " + id, true));
+            }
+        }
+
+        assertEquals(40, searchIndex.search("вещь 49", 0, 100).size());
+        assertTrue(searchIndex.search("вещь 48", 0, 100).isEmpty());
+        assertEquals(List.of(7L), searchIndex.search("номер 7", 0, 100));
+    }
+
+    @Test
+    void searchAfter_ShouldContinueAfterCursorId() {
+        for (long id = 1; id <= 9; id++) {
+            searchIndex.index(createItem(id, "Дрель " + id, "аб", true));
+        }
+        searchIndex.index(createItem(10L, "Пила", "", true));
+
+        assertEquals(List.of(4L, 5L, 6L), searchIndex.searchAfter("дрель", 3L, 3));
+        assertEquals(List.of(8L, 9L), searchIndex.searchAfter("аб", 7L, 3));
+        assertEquals(List.of(9L), searchIndex.searchAfter("ь ", 8L, 3));
+        assertTrue(searchIndex.searchAfter("дрель", 9L, 3).isEmpty());
+        assertEquals(searchIndex.search("дрель", 3, 3), searchIndex.searchAfter("дрель", 3L, 3));
+    }
+
+    @Test
+    void rebuild_ShouldLoadAvailableItemsInBatches() {
+        when(itemRepository.findAllByAvailableIsTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(createItem(1L, "Дрель", "", true), createItem(2L, "Пила", "", true)));
+
+        searchIndex.rebuild();
+
+        assertEquals(List.of(1L), searchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(2L), searchIndex.search("пил", 0, 10));
+        verify(itemRepository).findAllByAvailableIsTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+    }
+
+    @Test
+    void disabledIndex_ShouldIgnoreUpdatesAndSkipRebuild() {
+        ItemSearchIndex disabled = new ItemSearchIndex(itemRepository, ItemSearchMode.LIKE);
+
+        disabled.index(createItem(1L, "Дрель", "", true));
+        disabled.rebuild();
+
+        assertFalse(disabled.isEnabled());
+        assertTrue(disabled.search("дрель", 0, 10).isEmpty());
+        verify(itemRepository, never()).findAllByAvailableIsTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+}
@@ -4,11 +4,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import ru.practicum.shareit.booking.BookingRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingTimeline;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.exceptions.ForbiddenException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestNotifier;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserValidator;
@@ -29,9 +35,6 @@ class ItemServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @Mock
-    private BookingRepository bookingRepository;
-
     @Mock
     private CommentRepository commentRepository;
 
@@ -49,20 +52,32 @@ class ItemServiceImplTest {
     @Mock
     private UserValidator userValidator;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private BookingTimeline bookingTimeline;
+
+    @Mock
+    private ItemRequestNotifier requestNotifier;
+
+    @Mock
+    private ItemRequestRepository requestRepository;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
     @Test
     void getAllItemsByUser_ShouldReturnItems() {
         long userId = 1L;
-        Item item = Item.builder().id(1L).build();
+        ItemWithBookings item = mock(ItemWithBookings.class);
+        when(item.getId()).thenReturn(1L);
         ItemDto itemDto = ItemDto.builder().id(1L).build();
 
         userValidator.isUserExists(userId);
-        when(itemRepository.findAllByOwnerId(userId, 0, 10)).thenReturn(List.of(item));
-        when(bookingRepository.findAllByItemIdInAndStatusOrderByStartAsc(anyList(), any())).thenReturn(List.of());
-        when(commentRepository.findAllByItemIdIn(anyList())).thenReturn(List.of());
-        when(itemMapper.toItemDto(any(), any())).thenReturn(itemDto);
+        when(itemRepository.findAllWithBookingsByOwnerId(eq(userId), any(), eq(0), eq(10))).thenReturn(List.of(item));
+        when(commentRepository.findAllByItemIdIn(List.of(1L))).thenReturn(List.of());
+        when(itemMapper.toItemDtoWithBookings(eq(item), any())).thenReturn(itemDto);
 
         List<ItemDto> result = itemService.getAllItemsByUser(userId, 0, 10);
 
@@ -80,11 +95,32 @@ class ItemServiceImplTest {
         when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of());
         when(itemMapper.toItemDto(item, List.of())).thenReturn(itemDto);
 
-        ItemDto result = itemService.getItemById(itemId);
+        ItemDto result = itemService.getItemById(itemId, 1L);
 
         assertNotNull(result);
         assertEquals(itemId, result.getId());
         verify(itemRepository).findById(itemId);
+        verifyNoInteractions(bookingTimeline);
+    }
+
+    @Test
+    void getItemById_WhenOwner_ShouldAddLastAndNextBooking() {
+        long itemId = 1L;
+        long ownerId = 2L;
+        Item item = Item.builder().id(itemId).owner(User.builder().id(ownerId).build()).build();
+        BookingShortDto last = BookingShortDto.builder().id(10L).build();
+        BookingShortDto next = BookingShortDto.builder().id(11L).build();
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of());
+        when(itemMapper.toItemDto(item, List.of())).thenReturn(ItemDto.builder().id(itemId).build());
+        when(bookingTimeline.findLast(eq(itemId), any())).thenReturn(Optional.of(last));
+        when(bookingTimeline.findNext(eq(itemId), any())).thenReturn(Optional.of(next));
+
+        ItemDto result = itemService.getItemById(itemId, ownerId);
+
+        assertEquals(last, result.getLastBooking());
+        assertEquals(next, result.getNextBooking());
     }
 
     @Test
@@ -92,7 +128,7 @@ class ItemServiceImplTest {
         long itemId = 1L;
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
-        assertThrows(NotFoundException.class, () -> itemService.getItemById(itemId));
+        assertThrows(NotFoundException.class, () -> itemService.getItemById(itemId, 1L));
     }
 
     @Test
@@ -114,6 +150,7 @@ class ItemServiceImplTest {
         assertNotNull(result);
         verify(userRepository).findById(userId);
         verify(itemRepository).save(item);
+        verify(searchIndex).index(item);
     }
 
     @Test
@@ -130,13 +167,25 @@ class ItemServiceImplTest {
         long itemId = 1L;
         long userId = 1L;
 
-        doNothing().when(itemValidator).hasAccess(itemId, userId);
-        doNothing().when(itemValidator).isItemExists(itemId);
-        doNothing().when(userValidator).isUserExists(userId);
+        when(itemRepository.deleteByIdAndOwnerId(itemId, userId)).thenReturn(1);
 
         itemService.delete(itemId, userId);
 
-        verify(itemRepository).deleteById(itemId);
+        verify(itemRepository).deleteByIdAndOwnerId(itemId, userId);
+        verifyNoInteractions(itemValidator);
+        verify(searchIndex).remove(itemId);
+    }
+
+    @Test
+    void delete_WhenNotDeleted_ShouldThrowValidatorException() {
+        long itemId = 1L;
+        long userId = 2L;
+
+        when(itemRepository.deleteByIdAndOwnerId(itemId, userId)).thenReturn(0);
+        when(itemValidator.getOwnedItem(itemId, userId)).thenThrow(new ForbiddenException("нет доступа"));
+
+        assertThrows(ForbiddenException.class, () -> itemService.delete(itemId, userId));
+        verify(searchIndex, never()).remove(anyLong());
     }
 
     @Test
@@ -145,23 +194,72 @@ class ItemServiceImplTest {
         long userId = 1L;
         ItemDto itemDto = ItemDto.builder().name("Updated").build();
         User user = User.builder().id(userId).build();
-        Item item = Item.builder().id(itemId).build();
+        Item item = Item.builder().id(itemId).name("Old").description("Desc").available(true).owner(user).build();
         ItemDto updatedDto = ItemDto.builder().id(itemId).build();
 
-        doNothing().when(itemValidator).isItemExists(itemId);
-        doNothing().when(itemValidator).hasAccess(itemId, userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemMapper.toItem(itemDto, user)).thenReturn(item);
-        when(itemRepository.save(item)).thenReturn(item);
+        when(itemValidator.getOwnedItem(itemId, userId)).thenReturn(item);
+        when(itemRepository.save(any(Item.class))).thenAnswer(inv -> inv.getArgument(0));
         when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of());
-        when(itemMapper.toItemDto(item, List.of())).thenReturn(updatedDto);
+        when(itemMapper.toItemDto(any(Item.class), eq(List.of()))).thenReturn(updatedDto);
 
         ItemDto result = itemService.edit(itemDto, userId, itemId);
 
         assertNotNull(result);
-        verify(itemValidator).isItemExists(itemId);
-        verify(itemValidator).hasAccess(itemId, userId);
-        verify(itemRepository).save(item);
+        verify(itemValidator).getOwnedItem(itemId, userId);
+        verify(itemRepository).save(argThat(edited -> edited.getId() == itemId
+                && edited.getName().equals("Updated")
+                && edited.getDescription().equals("Desc")
+                && edited.getAvailable()
+                && edited.getOwner() == user));
+        // the item found through the cache stays unchanged
+        assertEquals("Old", item.getName());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void edit_InTransaction_ShouldIndexItemAfterCommitOnly() {
+        long itemId = 1L;
+        long userId = 1L;
+        User user = User.builder().id(userId).build();
+        Item item = Item.builder().id(itemId).name("Old").description("Desc").available(true).owner(user).build();
+
+        when(itemValidator.getOwnedItem(itemId, userId)).thenReturn(item);
+        when(itemRepository.save(any(Item.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.edit(ItemDto.builder().name("Updated").build(), userId, itemId);
+            verify(searchIndex, never()).index(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(searchIndex).index(argThat(indexed -> indexed.getName().equals("Updated")));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void importItems_InTransaction_ShouldNotifyAfterCommitOnly() {
+        long userId = 1L;
+        ItemDto itemDto = ItemDto.builder().name("Item").description("Desc").available(true).build();
+        User user = User.builder().id(userId).build();
+        Item item = Item.builder().id(1L).build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemMapper.toItem(itemDto, user)).thenReturn(item);
+        when(itemRepository.saveAll(List.of(item))).thenReturn(List.of(item));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.importItems(List.of(itemDto), userId);
+            verify(requestNotifier, never()).itemsAdded(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(requestNotifier).itemsAdded(List.of(item));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -181,6 +279,44 @@ class ItemServiceImplTest {
         verify(itemRepository).searchAvailableItems(query, 0, 10);
     }
 
+    @Test
+    void search_WithIndexMode_ShouldReturnItemsInIndexOrder() {
+        ItemServiceImpl indexedService = new ItemServiceImpl(itemRepository, userRepository, itemMapper,
+                itemValidator, commentRepository, userValidator, commentMapper, null, searchIndex, ItemSearchMode.INDEX,
+                bookingTimeline, requestNotifier);
+        Item first = Item.builder().id(2L).build();
+        Item second = Item.builder().id(5L).build();
+
+        when(searchIndex.search("дрель", 0, 10)).thenReturn(List.of(2L, 5L));
+        when(itemRepository.findAllById(List.of(2L, 5L))).thenReturn(List.of(second, first));
+        when(commentRepository.findAllByItemIdIn(anyList())).thenReturn(List.of());
+        when(itemMapper.toItemDto(any(), any()))
+                .thenAnswer(inv -> ItemDto.builder().id(((Item) inv.getArgument(0)).getId()).build());
+
+        List<ItemDto> result = indexedService.search("дрель", 0, 10);
+
+        assertEquals(List.of(2L, 5L), result.stream().map(ItemDto::getId).toList());
+        verify(itemRepository, never()).searchAvailableItems(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void search_WithFulltextMode_ShouldUseRankedQuery() {
+        ItemServiceImpl fulltextService = new ItemServiceImpl(itemRepository, userRepository, itemMapper,
+                itemValidator, commentRepository, userValidator, commentMapper, null, searchIndex, ItemSearchMode.FULLTEXT,
+                bookingTimeline, requestNotifier);
+        Item item = Item.builder().id(3L).build();
+
+        when(itemRepository.searchAvailableItemsRanked("дрель", 0, 10)).thenReturn(List.of(item));
+        when(commentRepository.findAllByItemIdIn(anyList())).thenReturn(List.of());
+        when(itemMapper.toItemDto(any(), any())).thenReturn(ItemDto.builder().id(3L).build());
+
+        List<ItemDto> result = fulltextService.search("дрель", 0, 10);
+
+        assertEquals(1, result.size());
+        verify(itemRepository, never()).searchAvailableItems(anyString(), anyInt(), anyInt());
+        verify(searchIndex, never()).search(anyString(), anyInt(), anyInt());
+    }
+
     @Test
     void search_WithBlankQuery_ShouldReturnEmptyList() {
         List<ItemDto> result = itemService.search("   ", 0, 10);
@@ -8,6 +8,10 @@ import ru.practicum.shareit.exceptions.ForbiddenException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.ItemValidator;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -70,4 +74,28 @@ class ItemValidatorTest {
         verify(itemRepository).existsById(itemId);
     }
 
-}
\ No newline at end of file
+    @Test
+    void getOwnedItem_WhenUserIsOwner_ShouldReturnItem() {
+        Item item = Item.builder().id(1L).owner(User.builder().id(2L).build()).build();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        assertSame(item, itemValidator.getOwnedItem(1L, 2L));
+    }
+
+    @Test
+    void getOwnedItem_WhenUserIsNotOwner_ShouldThrowForbiddenException() {
+        Item item = Item.builder().id(1L).owner(User.builder().id(2L).build()).build();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        assertThrows(ForbiddenException.class, () -> itemValidator.getOwnedItem(1L, 3L));
+    }
+
+    @Test
+    void getOwnedItem_WhenItemDoesNotExist_ShouldThrowNotFoundException() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemValidator.getOwnedItem(1L, 2L));
+        assertEquals("Вещь с id = 1 не найдена", exception.getMessage());
+    }
+}
@@ -0,0 +1,189 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Walks every list both with from/size and with cursors and expects the same rows in the same order.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class)
+@ActiveProfiles("test")
+@Transactional
+class KeysetPaginationTest {
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("keyset-owner@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("keyset-booker@mail.ru").build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(itemRepository.save(Item.builder().name("дрель " + i).description("описание")
+                    .available(true).owner(owner).build()));
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        // equal start times check the id tie-breaker
+        for (int i = 0; i < 3; i++) {
+            saveBooking(items.get(i), now.minusDays(10), now.minusDays(5), Status.APPROVED);
+            saveBooking(items.get(i), now.minusDays(1), now.plusDays(1), Status.APPROVED);
+            saveBooking(items.get(i), now.plusDays(3), now.plusDays(4), Status.WAITING);
+            saveBooking(items.get(i + 1), now.plusDays(5), now.plusDays(6), Status.REJECTED);
+        }
+
+        // requests.created is a DATE column, equal days check the id tie-breaker
+        LocalDateTime today = now.truncatedTo(ChronoUnit.DAYS);
+        for (int i = 0; i < 5; i++) {
+            requestRepository.save(ItemRequest.builder().description("нужна дрель " + i).requestor(booker)
+                    .created(today.minusDays(i / 2)).build());
+        }
+    }
+
+    @Test
+    void bookingsByBooker_ShouldMatchOffsetPages() {
+        for (BookingState state : BookingState.values()) {
+            assertSamePages((from, size) -> bookingService.getBookingByUser(booker.getId(), state, from, size),
+                    (cursor, size) -> bookingService.getBookingByUser(booker.getId(), state, cursor, size),
+                    b -> new PageCursor(b.getStart(), b.getId()), BookingResponseDto::getId, state);
+        }
+    }
+
+    @Test
+    void exportBookingsByBooker_ShouldMatchAllPages() {
+        List<Long> exported = new ArrayList<>();
+        bookingService.exportBookingsByUser(booker.getId(), b -> exported.add(b.getId()));
+
+        List<Long> paged = new ArrayList<>();
+        for (int from = 0; from < exported.size() + PAGE_SIZE; from += PAGE_SIZE) {
+            bookingService.getBookingByUser(booker.getId(), BookingState.ALL, from, PAGE_SIZE)
+                    .forEach(b -> paged.add(b.getId()));
+        }
+
+        assertEquals(12, exported.size());
+        assertEquals(paged, exported);
+    }
+
+    @Test
+    void bookingsByOwner_ShouldMatchOffsetPages() {
+        for (BookingState state : BookingState.values()) {
+            assertSamePages((from, size) -> bookingService.getBookingByUserItem(owner.getId(), state, from, size),
+                    (cursor, size) -> bookingService.getBookingByUserItem(owner.getId(), state, cursor, size),
+                    b -> new PageCursor(b.getStart(), b.getId()), BookingResponseDto::getId, state);
+        }
+    }
+
+    @Test
+    void itemsByOwner_ShouldMatchOffsetPages() {
+        assertSamePages((from, size) -> itemService.getAllItemsByUser(owner.getId(), from, size),
+                (cursor, size) -> itemService.getAllItemsByUser(owner.getId(), cursor, size),
+                i -> PageCursor.of(i.getId()), ItemDto::getId, "items");
+    }
+
+    @Test
+    void searchAvailableItems_ShouldMatchOffsetPages() {
+        assertSamePages((from, size) -> itemRepository.searchAvailableItems("ДРЕЛЬ", from, size),
+                (cursor, size) -> itemRepository.searchAvailableItemsAfter("ДРЕЛЬ", cursor.id(), size),
+                i -> PageCursor.of(i.getId()), Item::getId, "search");
+    }
+
+    @Test
+    void allRequests_ShouldMatchOffsetPages() {
+        assertSamePages((from, size) -> requestService.getAllRequests(from, size),
+                (cursor, size) -> requestService.getAllRequests(cursor, size),
+                r -> new PageCursor(r.getCreated(), r.getId()), ItemRequestDto::getId, "requests");
+    }
+
+    @Test
+    void requestsByRequestor_ShouldMatchOffsetPages() {
+        assertSamePages((from, size) -> requestService.getRequestsByUser(booker.getId(), from, size),
+                (cursor, size) -> requestService.getRequestsByUser(booker.getId(), cursor, size),
+                r -> new PageCursor(r.getCreated(), r.getId()), ItemRequestDto::getId, "own requests");
+    }
+
+    @Test
+    void allUsers_ShouldMatchOffsetPages() {
+        assertSamePages((from, size) -> userService.getAllUsers(from, size),
+                (cursor, size) -> userService.getAllUsers(cursor, size),
+                u -> PageCursor.of(u.getId()), UserDto::getId, "users");
+    }
+
+    private void saveBooking(Item item, LocalDateTime start, LocalDateTime end, Status status) {
+        bookingRepository.save(Booking.builder().item(item).booker(booker).start(start).end(end)
+                .status(status).build());
+    }
+
+    private <T> void assertSamePages(BiFunction<Integer, Integer, List<T>> offsetPage,
+                                     BiFunction<PageCursor, Integer, List<T>> keysetPage,
+                                     Function<T, PageCursor> cursorOf, Function<T, Long> idOf, Object label) {
+        List<Long> byOffset = new ArrayList<>();
+        List<T> page;
+        int from = 0;
+        do {
+            page = offsetPage.apply(from, PAGE_SIZE);
+            page.forEach(row -> byOffset.add(idOf.apply(row)));
+            from += PAGE_SIZE;
+        } while (page.size() == PAGE_SIZE);
+
+        List<Long> byCursor = new ArrayList<>();
+        page = offsetPage.apply(0, PAGE_SIZE);
+        page.forEach(row -> byCursor.add(idOf.apply(row)));
+        while (page.size() == PAGE_SIZE && byCursor.size() <= byOffset.size()) {
+            page = keysetPage.apply(cursorOf.apply(page.getLast()), PAGE_SIZE);
+            page.forEach(row -> byCursor.add(idOf.apply(row)));
+        }
+
+        assertFalse(byOffset.isEmpty(), "пустой список: " + label);
+        assertEquals(byOffset, byCursor, "разный порядок страниц: " + label);
+    }
+}
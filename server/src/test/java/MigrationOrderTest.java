@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every statement of the migrations of a vendor, taken in version order, may only touch
+ * tables and sequences created by an earlier statement, so a fresh database migrates
+ * from scratch.
+ */
+class MigrationOrderTest {
+    private static final Pattern VERSION = Pattern.compile("V(\\d+)__\\w+\\.sql");
+    private static final Pattern CREATED = Pattern.compile(
+            "\\bCREATE\\s+(?:TABLE|SEQUENCE)\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REFERENCED = Pattern.compile(
+            "\\b(?:ALTER\\s+TABLE|ALTER\\s+SEQUENCE|ON|REFERENCES|FROM|NEXT\\s+VALUE\\s+FOR)\\s+(\\w+)"
+                    + "|\\b(?:nextval|setval)\\('(\\w+)'", Pattern.CASE_INSENSITIVE);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "postgresql"})
+    @DisplayName("Миграции вендора ссылаются только на уже созданные таблицы")
+    void migrations_ShouldOnlyTouchCreatedTables(String vendor) throws IOException {
+        List<String> scripts = loadScripts("classpath:db/migration/*.sql", "classpath:db/vendor/" + vendor + "/*.sql");
+
+        assertTrue(scripts.size() > 1);
+        assertEquals(List.of(), undefinedReferences(scripts));
+    }
+
+    @Test
+    @DisplayName("Изменение таблицы до ее создания обнаруживается")
+    void undefinedReferences_ShouldReportAlterBeforeCreate() {
+        List<String> scripts = List.of(
+                "ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector;",
+                "CREATE TABLE items (id BIGINT PRIMARY KEY);");
+
+        assertEquals(List.of("items"), undefinedReferences(scripts));
+    }
+
+    private static List<String> loadScripts(String... locations) throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<Resource> resources = new ArrayList<>();
+        for (String location : locations) {
+            resources.addAll(Arrays.asList(resolver.getResources(location)));
+        }
+        resources.sort(Comparator.comparingInt(MigrationOrderTest::version));
+        List<String> scripts = new ArrayList<>();
+        for (Resource resource : resources) {
+            scripts.add(resource.getContentAsString(StandardCharsets.UTF_8));
+        }
+        return scripts;
+    }
+
+    private static int version(Resource resource) {
+        Matcher matcher = VERSION.matcher(resource.getFilename());
+        assertTrue(matcher.matches(), "имя миграции " + resource.getFilename());
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static List<String> undefinedReferences(List<String> scripts) {
+        Set<String> created = new HashSet<>();
+        List<String> undefined = new ArrayList<>();
+        scripts.stream()
+                .map(script -> script.replaceAll("--[^\\n]*", ""))
+                .flatMap(script -> Stream.of(script.split(";")))
+                .forEach(statement -> {
+                    Matcher references = REFERENCED.matcher(statement);
+                    while (references.find()) {
+                        String name = (references.group(1) != null ? references.group(1) : references.group(2))
+                                .toLowerCase();
+                        if (!created.contains(name)) {
+                            undefined.add(name);
+                        }
+                    }
+                    Matcher creates = CREATED.matcher(statement);
+                    while (creates.find()) {
+                        created.add(creates.group(1).toLowerCase());
+                    }
+                });
+        return undefined;
+    }
+}
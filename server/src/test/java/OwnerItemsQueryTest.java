@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Owner's item list: last and next approved booking and comments come from two statements
+ * besides the user check, whatever the length of the booking history.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class OwnerItemsQueryTest extends HibernateStatisticsTest {
+    @Autowired
+    private ItemService itemService;
+
+    private User owner;
+    private Item booked;
+    private Item free;
+    private Booking last;
+    private Booking next;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        owner = persist(User.builder().name("owner").email("owner-items@mail.ru").build());
+        User booker = persist(User.builder().name("booker").email("owner-items-booker@mail.ru").build());
+        booked = persist(Item.builder().name("дрель").description("ударная").available(true).owner(owner).build());
+        free = persist(Item.builder().name("пила").description("цепная").available(true).owner(owner).build());
+
+        for (int i = 2; i < 20; i++) {
+            persist(booking(booked, booker, now.minusDays(i), Status.APPROVED));
+            persist(booking(booked, booker, now.plusDays(i), Status.APPROVED));
+        }
+        last = persist(booking(booked, booker, now.minusDays(1), Status.APPROVED));
+        next = persist(booking(booked, booker, now.plusDays(1), Status.APPROVED));
+        // closer than last and next, but not approved
+        persist(booking(booked, booker, now.minusHours(1), Status.REJECTED));
+        persist(booking(booked, booker, now.plusHours(1), Status.WAITING));
+        persist(booking(free, booker, now.plusHours(1), Status.WAITING));
+
+        persist(Comment.builder().item(booked).author(booker).text("хорошая").created(now).build());
+        persist(Comment.builder().item(booked).author(booker).text("мощная").created(now).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getAllItemsByUser_ShouldReturnLastAndNextApprovedBookings() {
+        statistics.clear();
+        List<ItemDto> items = itemService.getAllItemsByUser(owner.getId(), 0, 10);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(List.of(free.getId(), booked.getId()), items.stream().map(ItemDto::getId).toList());
+
+        ItemDto freeDto = items.get(0);
+        assertNull(freeDto.getLastBooking());
+        assertNull(freeDto.getNextBooking());
+        assertNull(freeDto.getComments());
+
+        ItemDto bookedDto = items.get(1);
+        assertEquals(last.getId(), bookedDto.getLastBooking().getId());
+        assertEquals(last.getStart(), bookedDto.getLastBooking().getStart());
+        assertEquals(last.getBooker().getId(), bookedDto.getLastBooking().getBookerId());
+        assertEquals(next.getId(), bookedDto.getNextBooking().getId());
+        assertEquals(next.getEnd(), bookedDto.getNextBooking().getEnd());
+        assertEquals("owner", bookedDto.getOwner().getName());
+        assertEquals("дрель", bookedDto.getName());
+        assertEquals(2, bookedDto.getComments().size());
+        assertEquals("booker", bookedDto.getComments().getFirst().getAuthorName());
+    }
+
+    @Test
+    void getAllItemsByUser_WithCursor_ShouldContinueAfterItem() {
+        List<ItemDto> items = itemService.getAllItemsByUser(owner.getId(), PageCursor.of(free.getId()), 10);
+
+        assertEquals(List.of(booked.getId()), items.stream().map(ItemDto::getId).toList());
+        assertEquals(next.getId(), items.getFirst().getNextBooking().getId());
+    }
+
+    private Booking booking(Item item, User booker, LocalDateTime start, Status status) {
+        return Booking.builder().item(item).booker(booker).start(start).end(start.plusHours(2)).status(status).build();
+    }
+}
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decode_ShouldRestoreEncodedCursor() {
+        PageCursor withKey = new PageCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000), 42L);
+        PageCursor idOnly = PageCursor.of(7L);
+
+        assertEquals(withKey, PageCursor.decode(withKey.encode()));
+        assertEquals(idOnly, PageCursor.decode(idOnly.encode()));
+    }
+
+    @Test
+    void decode_WhenBlank_ShouldReturnNull() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    void decode_WhenMalformed_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> PageCursor.decode("не курсор"));
+        assertThrows(ValidationException.class, () -> PageCursor.decode("YWJj"));
+    }
+
+    @Test
+    void requireKey_WhenCursorHasNoKey_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> PageCursor.of(1L).requireKey());
+    }
+
+    @Test
+    void writeNext_ShouldSetHeaderOnlyForFullPage() {
+        MockHttpServletResponse full = new MockHttpServletResponse();
+        MockHttpServletResponse partial = new MockHttpServletResponse();
+
+        PageCursor.writeNext(full, List.of(1L, 2L), 2, PageCursor::of);
+        PageCursor.writeNext(partial, List.of(1L), 2, PageCursor::of);
+
+        assertEquals(PageCursor.of(2L), PageCursor.decode(full.getHeader(PageCursor.NEXT_CURSOR_HEADER)));
+        assertNull(partial.getHeader(PageCursor.NEXT_CURSOR_HEADER));
+    }
+}
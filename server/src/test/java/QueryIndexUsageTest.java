@@ -0,0 +1,251 @@
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every {@code @Query} repository method on H2, takes the SQL Hibernate sent
+ * and expects EXPLAIN to show no full scan of the filtered tables. Each query is also
+ * explained with its tables limited to the index it was written for and the primary key,
+ * as H2 backs foreign keys with indexes of its own that postgres does not have.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class)
+@ActiveProfiles("test")
+@Import(QueryIndexUsageTest.SqlRecorder.class)
+@Transactional
+class QueryIndexUsageTest {
+    private static final Pattern INDEX_LOOKUP = Pattern.compile("/\\* PUBLIC\\.\\w*(INDEX|IX_|PRIMARY_KEY)\\w*(:| \\*/)");
+    private static final Pattern FULL_INDEX_READ = Pattern.compile("/\\* PUBLIC\\.(\\w+) \\*/");
+    private static final String NOT_ALIAS = "(?!(?:where|join|left|inner|on|order|limit|offset|group)\\b)";
+
+    private static final String BOOKER = "ix_bookings_booker_started";
+    private static final String BOOKER_STATUS = "ix_bookings_booker_status_started";
+    private static final String ITEM_STATUS = "ix_bookings_item_status_started";
+    private static final String OWNER = "ix_items_user_id";
+    private static final String REQUEST = "ix_items_request_id";
+    private static final String COMMENT_ITEM = "ix_comments_item_id";
+    private static final String REQUESTOR = "ix_requests_requestor_created";
+    private static final String CREATED = "ix_requests_created";
+
+    // the index every query is written for, queries by primary key expect none
+    private static final Map<String, List<String>> EXPECTED_INDEXES = Map.ofEntries(
+            Map.entry("findAllByBookerId", List.of(BOOKER)),
+            Map.entry("findAllByBookerIdAfter", List.of(BOOKER)),
+            Map.entry("streamAllByBookerId", List.of(BOOKER)),
+            Map.entry("findCurrentByBookerId", List.of(BOOKER)),
+            Map.entry("findCurrentByBookerIdAfter", List.of(BOOKER)),
+            Map.entry("findPastByBookerId", List.of(BOOKER)),
+            Map.entry("findPastByBookerIdAfter", List.of(BOOKER)),
+            Map.entry("findFutureByBookerId", List.of(BOOKER)),
+            Map.entry("findFutureByBookerIdAfter", List.of(BOOKER)),
+            Map.entry("findStatusByBookerId", List.of(BOOKER_STATUS)),
+            Map.entry("findStatusByBookerIdAfter", List.of(BOOKER_STATUS)),
+            Map.entry("findAllByOwner", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findAllByOwnerAfter", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findCurrentByOwnerItem", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findCurrentByOwnerItemAfter", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findPastByOwnerItem", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findPastByOwnerItemAfter", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findFutureByOwnerItem", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findFutureByOwnerItemAfter", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findStatusByOwnerItem", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findStatusByOwnerItemAfter", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findAllVisibleByIdIn", List.of()),
+            Map.entry("findWithItemAndBookerById", List.of()),
+            Map.entry("findAllWithBookingsByOwnerId", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("findAllWithBookingsByOwnerIdAfter", List.of(OWNER, ITEM_STATUS)),
+            Map.entry("deleteByIdAndOwnerId", List.of()),
+            Map.entry("findById", List.of()),
+            Map.entry("findAllWithOwnerByIdIn", List.of()),
+            Map.entry("findIdsByOwnerId", List.of(OWNER)),
+            Map.entry("findVersionsByRequestId", List.of(REQUEST)),
+            Map.entry("findAllRequests", List.of(CREATED)),
+            Map.entry("findAllRequestsAfter", List.of(CREATED)),
+            Map.entry("findAllWithItemsByRequestorId", List.of(REQUESTOR, REQUEST)),
+            Map.entry("findAllWithItemsByRequestorIdAfter", List.of(REQUESTOR, REQUEST)),
+            Map.entry("findAllByItemId", List.of(COMMENT_ITEM)),
+            Map.entry("findAllByItemIdIn", List.of(COMMENT_ITEM)),
+            Map.entry("findVersionsByItemId", List.of(COMMENT_ITEM)));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SqlRecorder sqlRecorder;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void bookingQueries_ShouldUseIndexes() {
+        Map<String, List<String>> queries = executedQueries(bookingRepository, BookingRepository.class);
+
+        assertFalse(queries.isEmpty());
+        queries.forEach(this::assertIndexesUsed);
+    }
+
+    @Test
+    void itemAndRequestQueries_ShouldUseIndexes() {
+        Map<String, List<String>> queries = new LinkedHashMap<>(executedQueries(itemRepository, ItemRepository.class));
+        queries.putAll(executedQueries(requestRepository, ItemRequestRepository.class));
+        queries.putAll(executedQueries(commentRepository, CommentRepository.class));
+
+        assertFalse(queries.isEmpty());
+        queries.forEach(this::assertIndexesUsed);
+    }
+
+    private void assertIndexesUsed(String method, List<String> statements) {
+        List<String> expected = EXPECTED_INDEXES.get(method);
+        assertNotNull(expected, () -> "не указан индекс запроса " + method);
+        statements.forEach(this::assertNoTableScan);
+
+        // later statements load lazy associations of the rows found, the first one is the query itself
+        String plan = explain(restrictIndexes(statements.get(0), expected));
+        for (String index : expected) {
+            assertTrue(plan.contains("/* PUBLIC." + index.toUpperCase()),
+                    () -> method + " не использует " + index + ":\n" + plan);
+        }
+        assertFalse(plan.contains(".tableScan"), () -> method + ", полный просмотр таблицы:\n" + plan);
+        // a read of a whole index is only expected as the ordered read of the index the query is written for
+        Matcher fullRead = FULL_INDEX_READ.matcher(plan);
+        while (fullRead.find()) {
+            String index = fullRead.group(1).toLowerCase();
+            assertTrue(expected.contains(index), () -> method + ", полный просмотр индекса " + index + ":\n" + plan);
+        }
+    }
+
+    private void assertNoTableScan(String sql) {
+        String plan = explain(sql);
+        assertTrue(INDEX_LOOKUP.matcher(plan).find(), () -> "нет индекса:\n" + plan);
+        assertFalse(plan.contains(".tableScan"), () -> "полный просмотр таблицы:\n" + plan);
+    }
+
+    // H2 plans statements with unset parameters, so the SQL is explained as Hibernate prepared it
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    // every table of an expected index may only be read through it or through its primary key
+    private String restrictIndexes(String sql, List<String> indexes) {
+        Map<String, List<String>> byTable = indexes.stream()
+                .collect(Collectors.groupingBy(index -> index.split("_")[1]));
+        for (Map.Entry<String, List<String>> table : byTable.entrySet()) {
+            List<String> allowed = new ArrayList<>(table.getValue());
+            allowed.add(jdbcTemplate.queryForObject("""
+                    select index_name from information_schema.indexes
+                    where table_name = upper(?) and index_type_name = 'PRIMARY KEY'
+                    """, String.class, table.getKey()));
+            sql = Pattern.compile("\\b((?:from|join)\\s+(?:\\w+\\.)?" + table.getKey() + "\\b(?:\\s+" + NOT_ALIAS + "\\w+)?)",
+                            Pattern.CASE_INSENSITIVE)
+                    .matcher(sql)
+                    .replaceAll("$1 use index (" + String.join(", ", allowed) + ")");
+        }
+        return sql;
+    }
+
+    private Map<String, List<String>> executedQueries(Object repository, Class<?> repositoryType) {
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        Arrays.stream(repositoryType.getDeclaredMethods())
+                .filter(m -> m.isAnnotationPresent(Query.class))
+                // substring search and postgres full-text queries are not served by btree indexes
+                .filter(m -> !m.getAnnotation(Query.class).value().contains(" like ")
+                        && !m.getAnnotation(Query.class).value().contains("ts_rank"))
+                .sorted(Comparator.comparing(Method::getName))
+                .forEach(m -> {
+                    sqlRecorder.statements.clear();
+                    invoke(repository, m);
+                    queries.put(m.getName(), List.copyOf(sqlRecorder.statements));
+                });
+        return queries;
+    }
+
+    private static void invoke(Object repository, Method method) {
+        Object[] args = Arrays.stream(method.getParameters()).map(QueryIndexUsageTest::argument).toArray();
+        try {
+            if (method.invoke(repository, args) instanceof Stream<?> stream) {
+                try (stream) {
+                    stream.count();
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(method.getName(), e);
+        }
+    }
+
+    private static Object argument(Parameter parameter) {
+        Class<?> type = parameter.getType();
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == Status.class) {
+            return Status.WAITING;
+        }
+        if (type == List.class) {
+            return List.of(1L, 2L, 3L);
+        }
+        if (type == String.class) {
+            return "дрель";
+        }
+        if (type == int.class || type == Integer.class) {
+            Param param = parameter.getAnnotation(Param.class);
+            String name = param != null ? param.value() : parameter.getName();
+            return "from".equals(name) ? 0 : 10;
+        }
+        // an id of no row, the plan does not depend on it and a delete removes nothing other tests committed
+        return -1L;
+    }
+
+    @TestConfiguration
+    static class SqlRecorder implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorderCustomizer() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        }
+    }
+}
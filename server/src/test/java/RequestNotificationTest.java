@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestNotifier;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Items answering a request are pushed to the open subscriptions of its requestor only.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class,
+        properties = "shareit.requests.events.heartbeat=100ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestNotificationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private ItemRequestNotifier requestNotifier;
+
+    private UserDto requestor;
+    private UserDto owner;
+    private ItemRequestDto request;
+
+    @BeforeEach
+    void setUp() {
+        requestor = userService.create(TestUsers.user("requestor"));
+        owner = userService.create(TestUsers.user("owner"));
+        request = requestService.create(ItemRequestDto.builder().description("нужна дрель").build(),
+                requestor.getId());
+    }
+
+    private static ItemDto item(String name, Long requestId) {
+        return ItemDto.builder().name(name).description("ответ").available(true).requestId(requestId).build();
+    }
+
+    private MockHttpServletResponse subscribe(long userId) throws Exception {
+        return mockMvc.perform(get("/requests/subscribe").header("X-Sharer-User-Id", userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    @Test
+    @DisplayName("Вещь-ответ приходит подписчику событием, остальные вещи не приходят")
+    void create_WhenItemAnswersRequest_ShouldNotifyRequestor() throws Exception {
+        MockHttpServletResponse events = subscribe(requestor.getId());
+        MockHttpServletResponse otherEvents = subscribe(owner.getId());
+
+        ItemDto answer = itemService.create(item("дрель", request.getId()), owner.getId());
+        itemService.create(item("пила", null), owner.getId());
+
+        String content = events.getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(content.contains("event:" + ItemRequestNotifier.ITEM_EVENT + "\n"), content);
+        assertTrue(content.contains("id:" + answer.getId() + "\n"), content);
+        assertTrue(content.contains("\"requestId\":" + request.getId()), content);
+        assertTrue(content.contains("\"ownerId\":" + owner.getId()), content);
+        assertFalse(content.contains("пила"), content);
+        assertFalse(otherEvents.getContentAsString(StandardCharsets.UTF_8).contains("event:"), otherEvents.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Импортированные вещи-ответы тоже приходят подписчику")
+    void importItems_WhenItemsAnswerRequest_ShouldNotifyRequestor() throws Exception {
+        MockHttpServletResponse events = subscribe(requestor.getId());
+
+        itemService.importItems(List.of(item("дрель", request.getId()), item("пила", null),
+                item("перфоратор", request.getId())), owner.getId());
+
+        String content = events.getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(content.contains("дрель") && content.contains("перфоратор"), content);
+        assertFalse(content.contains("пила"), content);
+    }
+
+    @Test
+    @DisplayName("Каждая подписка пользователя получает событие")
+    void create_WithTwoSubscriptions_ShouldNotifyBoth() throws Exception {
+        MockHttpServletResponse first = subscribe(requestor.getId());
+        MockHttpServletResponse second = subscribe(requestor.getId());
+
+        itemService.create(item("дрель", request.getId()), owner.getId());
+
+        assertEquals(2, requestNotifier.subscriptionCount(requestor.getId()));
+        assertTrue(first.getContentAsString(StandardCharsets.UTF_8).contains("дрель"));
+        assertTrue(second.getContentAsString(StandardCharsets.UTF_8).contains("дрель"));
+    }
+
+    @Test
+    @DisplayName("Неактивная подписка получает heartbeat")
+    void subscribe_WhenIdle_ShouldReceiveHeartbeat() throws Exception {
+        MockHttpServletResponse events = subscribe(requestor.getId());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!events.getContentAsString(StandardCharsets.UTF_8).contains(":heartbeat") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertTrue(events.getContentAsString(StandardCharsets.UTF_8).contains(":heartbeat"), events.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Подписка несуществующего пользователя")
+    void subscribe_WhenUserNotFound_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/requests/subscribe").header("X-Sharer-User-Id", 999_999L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemShortDto;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A page of the user's own requests comes with the answering items in one query, whatever the
+ * number of requests and answers.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestorRequestsQueryTest extends HibernateStatisticsTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService requestService;
+
+    private UserDto requestor;
+    private UserDto owner;
+    // newest first
+    private final List<ItemRequestDto> requests = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        requestor = userService.create(TestUsers.user("requestor"));
+        owner = userService.create(TestUsers.user("owner"));
+        requests.clear();
+        for (int i = 0; i < 5; i++) {
+            requests.addFirst(requestService.create(ItemRequestDto.builder().description("нужна дрель " + i).build(),
+                    requestor.getId()));
+        }
+        // the newest request has two answers, the next one none, the rest one each
+        answer(requests.get(0), "дрель");
+        answer(requests.get(0), "перфоратор");
+        for (int i = 2; i < requests.size(); i++) {
+            answer(requests.get(i), "шуруповерт " + i);
+        }
+    }
+
+    private void answer(ItemRequestDto request, String name) {
+        itemService.create(ItemDto.builder().name(name).description("ответ").available(true)
+                .requestId(request.getId()).build(), owner.getId());
+    }
+
+    @Test
+    @DisplayName("Страница запросов с вещами-ответами читается одним запросом к базе")
+    void getRequestsByUser_ShouldReadPageWithItemsInOneQuery() {
+        statistics.clear();
+        List<ItemRequestDto> page = requestService.getRequestsByUser(requestor.getId(), 0, 3);
+
+        assertEquals(requests.subList(0, 3).stream().map(ItemRequestDto::getId).toList(),
+                page.stream().map(ItemRequestDto::getId).toList());
+        assertEquals(List.of("дрель", "перфоратор"),
+                page.get(0).getItems().stream().map(ItemShortDto::getName).toList());
+        assertEquals(owner.getId(), page.get(0).getItems().getFirst().getOwnerId());
+        assertEquals(page.get(0).getId(), page.get(0).getItems().getFirst().getRequestId());
+        assertNull(page.get(1).getItems());
+        assertEquals(1, page.get(2).getItems().size());
+        assertEquals(requestor.getName(), page.get(0).getRequestor().getName());
+        // the check that the user exists and the page itself
+        assertTrue(statistics.getPrepareStatementCount() <= 2, () -> "statements: "
+                + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Курсор продолжает список со следующего запроса, размер страницы считается по запросам")
+    void getRequestsByUser_WithCursor_ShouldContinueAfterIt() {
+        // created is read back as a day, so the cursor comes from a page and not from create
+        ItemRequestDto last = requestService.getRequestsByUser(requestor.getId(), 0, 3).getLast();
+
+        List<ItemRequestDto> page = requestService.getRequestsByUser(requestor.getId(),
+                new PageCursor(last.getCreated(), last.getId()), 2);
+
+        assertEquals(List.of(requests.get(3).getId(), requests.get(4).getId()),
+                page.stream().map(ItemRequestDto::getId).toList());
+        assertEquals(1, page.getFirst().getItems().size());
+    }
+
+    @Test
+    @DisplayName("Курсор без ключа сортировки не подходит для списка запросов")
+    void getRequestsByUser_WithIdOnlyCursor_ShouldThrow() {
+        assertThrows(ValidationException.class,
+                () -> requestService.getRequestsByUser(requestor.getId(), PageCursor.of(1L), 2));
+    }
+
+    @Test
+    @DisplayName("Запросы несуществующего пользователя")
+    void getRequestsByUser_WhenUserNotFound_ShouldThrow() {
+        assertThrows(NotFoundException.class, () -> requestService.getRequestsByUser(999_999L, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Полная страница отдает курсор следующей, по умолчанию в странице 10 запросов")
+    void getRequestsByUser_ShouldWriteNextCursor() throws Exception {
+        ItemRequestDto last = requestService.getRequestsByUser(requestor.getId(), 0, 2).getLast();
+
+        mockMvc.perform(get("/requests").header("X-Sharer-User-Id", requestor.getId()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].items").value(nullValue()))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        new PageCursor(last.getCreated(), last.getId()).encode()));
+
+        mockMvc.perform(get("/requests").header("X-Sharer-User-Id", requestor.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+    }
+}
@@ -0,0 +1,109 @@
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Answering items of a page of requests are read again from the second-level and query caches,
+ * a new answer drops the cached result.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class)
+@ActiveProfiles("test")
+class SecondLevelCacheTest extends HibernateStatisticsTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UserDto requestor;
+    private UserDto owner;
+    private ItemRequestDto request;
+
+    @BeforeEach
+    void setUp() {
+        requestor = userService.create(TestUsers.user("requestor"));
+        owner = userService.create(TestUsers.user("owner"));
+        request = requestService.create(ItemRequestDto.builder().description("нужна дрель").build(),
+                requestor.getId());
+        answer("дрель");
+    }
+
+    private void answer(String name) {
+        itemService.create(ItemDto.builder().name(name).description("ответ").available(true)
+                .requestId(request.getId()).build(), owner.getId());
+    }
+
+    @Test
+    @DisplayName("Повторное чтение страницы запросов обходится без запросов к базе за вещами")
+    void getAllRequests_WhenReadAgain_ShouldUseCaches() {
+        requestService.getAllRequests(0, 10);
+
+        statistics.clear();
+        List<ItemRequestDto> requests = requestService.getAllRequests(0, 10);
+
+        assertEquals(request.getId(), requests.getFirst().getId());
+        assertEquals(1, requests.getFirst().getItems().size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getQueryCacheMissCount());
+        // only the page of requests itself
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Новая вещь-ответ сбрасывает закэшированный результат")
+    void getAllRequests_AfterNewAnswer_ShouldShowIt() {
+        requestService.getAllRequests(0, 10);
+
+        answer("перфоратор");
+
+        assertEquals(2, requestService.getAllRequests(0, 10).getFirst().getItems().size());
+    }
+
+    @Test
+    @DisplayName("Регионы сущностей ограничены по размеру, отметки изменений таблиц не вытесняются")
+    void regions_ShouldBeSizedFromApplicationConf() {
+        CacheManager cacheManager = (CacheManager) entityManagerFactory.getProperties()
+                .get(ConfigSettings.CACHE_MANAGER);
+
+        assertEquals(OptionalLong.of(10_000), cacheManager.getCache(User.class.getName())
+                .getConfiguration(CaffeineConfiguration.class).getMaximumSize());
+        assertEquals(OptionalLong.empty(), cacheManager.getCache("default-update-timestamps-region")
+                .getConfiguration(CaffeineConfiguration.class).getMaximumSize());
+    }
+
+    @Test
+    @DisplayName("Доля попаданий публикуется по регионам")
+    void hitRatio_ShouldBeReportedPerRegion() {
+        requestService.getAllRequests(0, 10);
+        requestService.getAllRequests(0, 10);
+
+        double users = meterRegistry.get("hibernate.cache.hit.ratio").tag("region", User.class.getName())
+                .gauge().value();
+        double queries = meterRegistry.get("hibernate.cache.hit.ratio").tag("region", "default-query-results-region")
+                .gauge().value();
+        assertTrue(users > 0 && users <= 1, () -> "users: " + users);
+        assertTrue(queries > 0 && queries <= 1, () -> "queries: " + queries);
+    }
+}
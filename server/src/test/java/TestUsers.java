@@ -0,0 +1,13 @@
+import ru.practicum.shareit.user.UserDto;
+
+import java.util.UUID;
+
+// users for tests that share one database, so every email is unique
+final class TestUsers {
+    private TestUsers() {
+    }
+
+    static UserDto user(String name) {
+        return UserDto.builder().name(name).email(name + "-" + UUID.randomUUID() + "@mail.ru").build();
+    }
+}
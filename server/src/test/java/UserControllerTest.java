@@ -129,6 +129,23 @@ class UserControllerTest {
         verify(userService).getUserById(userId);
     }
 
+    @Test
+    void getUserById_WhenEtagMatches_ShouldReturnNotModified() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(createTestUserDto());
+
+        String etag = mockMvc.perform(get("/users/{userId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users/{userId}", 1L).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/users/{userId}", 1L).header("If-None-Match", "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
 
     @Test
     void create_WhenValidRequest_ShouldCreateUser() throws Exception {
@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exceptions.DuplicatedDataException;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserEmailFilter;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * New emails are checked without a query, taken ones through the database, and an email the filter
+ * has missed is still rejected by the unique constraint.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class)
+@ActiveProfiles("test")
+class UserEmailFilterTest extends HibernateStatisticsTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserEmailFilter emailFilter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static String email() {
+        return "user-" + UUID.randomUUID() + "@mail.ru";
+    }
+
+    private static UserDto user(String email) {
+        return UserDto.builder().name("user").email(email).build();
+    }
+
+    private void insertBehindFilter(String email) {
+        jdbcTemplate.update("insert into users (name, email) values ('sql', ?)", email);
+    }
+
+    @Test
+    @DisplayName("Новый имейл не проверяется запросом к базе")
+    void create_WithNewEmail_ShouldOnlyInsert() {
+        String email = email();
+        assertFalse(emailFilter.mightExist(email));
+
+        statistics.clear();
+        userService.create(user(email));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(emailFilter.mightExist(email));
+    }
+
+    @Test
+    @DisplayName("Занятый имейл отклоняется проверкой в базе")
+    void create_WithTakenEmail_ShouldThrow() {
+        String email = email();
+        userService.create(user(email));
+
+        assertThrows(DuplicatedDataException.class, () -> userService.create(user(email)));
+    }
+
+    @Test
+    @DisplayName("Имейл, пропущенный фильтром, отклоняется ограничением уникальности")
+    void create_WhenFilterMissedEmail_ShouldThrowFromConstraint() {
+        String email = email();
+        insertBehindFilter(email);
+
+        assertThrows(DuplicatedDataException.class, () -> userService.create(user(email)));
+    }
+
+    @Test
+    @DisplayName("Смена имейла на пропущенный фильтром отклоняется ограничением уникальности")
+    void edit_WhenFilterMissedEmail_ShouldThrowFromConstraint() {
+        String email = email();
+        insertBehindFilter(email);
+        UserDto user = userService.create(user(email()));
+
+        assertThrows(DuplicatedDataException.class,
+                () -> userService.edit(user.getId(), UserDto.builder().email(email).build()));
+        assertNotEquals(email, userService.getUserById(user.getId()).getEmail());
+    }
+
+    @Test
+    @DisplayName("Новый имейл после редактирования попадает в фильтр")
+    void edit_WithNewEmail_ShouldAddItToFilter() {
+        UserDto user = userService.create(user(email()));
+        String email = email();
+
+        userService.edit(user.getId(), UserDto.builder().email(email).build());
+
+        assertTrue(emailFilter.mightExist(email));
+        assertThrows(DuplicatedDataException.class, () -> userService.create(user(email)));
+    }
+
+    @Test
+    @DisplayName("Перестроение подхватывает имейлы из базы")
+    void rebuild_ShouldLoadEmailsFromDatabase() {
+        String email = email();
+        insertBehindFilter(email);
+
+        emailFilter.rebuild();
+
+        assertTrue(emailFilter.mightExist(email));
+    }
+}
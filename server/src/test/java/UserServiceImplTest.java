@@ -5,9 +5,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import ru.practicum.shareit.exceptions.DuplicatedDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.*;
 
 import java.util.List;
@@ -31,6 +34,15 @@ class UserServiceImplTest {
     @Mock
     private UserValidator userValidator;
 
+    @Mock
+    private UserEmailFilter emailFilter;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -194,6 +206,32 @@ class UserServiceImplTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void create_WhenEmailTakenMeanwhile_ShouldThrowDuplicatedDataException() {
+        UserDto userDto = UserDto.builder().name("New User").email("new@email.com").build();
+        User user = User.builder().name("New User").email("new@email.com").build();
+
+        when(userMapper.toUser(userDto)).thenReturn(user);
+        when(userRepository.save(user)).thenThrow(new DataIntegrityViolationException("insert",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.UQ_USER_EMAIL\"")));
+
+        assertThrows(DuplicatedDataException.class, () -> userService.create(userDto));
+        verify(emailFilter, never()).add(anyString());
+    }
+
+    @Test
+    void create_WhenOtherConstraintFails_ShouldRethrow() {
+        UserDto userDto = UserDto.builder().name("New User").email("new@email.com").build();
+        User user = User.builder().name("New User").email("new@email.com").build();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("insert",
+                new RuntimeException("NULL not allowed for column \"NAME\""));
+
+        when(userMapper.toUser(userDto)).thenReturn(user);
+        when(userRepository.save(user)).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> userService.create(userDto)));
+    }
+
     @Test
     void edit_WhenValidUpdate_ShouldUpdateUser() {
         Long userId = 1L;
@@ -211,9 +249,8 @@ class UserServiceImplTest {
 
         UserDto expectedDto = createTestUserDto();
 
-        doNothing().when(userValidator).isUserExists(userId);
+        when(userValidator.getExistingUser(userId)).thenReturn(existingUser);
         doNothing().when(userValidator).validateEmailForOwner(updateDto.getEmail(), userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.save(any(User.class))).thenReturn(updatedUser);
         when(userMapper.toUserDto(updatedUser)).thenReturn(expectedDto);
 
@@ -223,9 +260,8 @@ class UserServiceImplTest {
 
         assertNotNull(result);
         assertEquals(expectedDto, result);
-        verify(userValidator).isUserExists(userId);
+        verify(userValidator).getExistingUser(userId);
         verify(userValidator).validateEmailForOwner(updateDto.getEmail(), userId);
-        verify(userRepository).findById(userId);
         verify(userRepository).save(any(User.class));
         verify(userMapper).toUserDto(updatedUser);
     }
@@ -246,15 +282,14 @@ class UserServiceImplTest {
 
         UserDto expectedDto = createTestUserDto();
 
-        doNothing().when(userValidator).isUserExists(userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userValidator.getExistingUser(userId)).thenReturn(existingUser);
         when(userRepository.save(any(User.class))).thenReturn(updatedUser);
         when(userMapper.toUserDto(updatedUser)).thenReturn(expectedDto);
 
         UserDto result = userService.edit(userId, updateDto);
 
         assertNotNull(result);
-        verify(userValidator).isUserExists(userId);
+        verify(userValidator).getExistingUser(userId);
         verify(userValidator, never()).validateEmailForOwner(anyString(), anyLong());
         verify(userRepository).save(argThat(user ->
                 user.getName().equals("Only Name Updated") &&
@@ -278,16 +313,15 @@ class UserServiceImplTest {
 
         UserDto expectedDto = createTestUserDto();
 
-        doNothing().when(userValidator).isUserExists(userId);
+        when(userValidator.getExistingUser(userId)).thenReturn(existingUser);
         doNothing().when(userValidator).validateEmailForOwner(updateDto.getEmail(), userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.save(any(User.class))).thenReturn(updatedUser);
         when(userMapper.toUserDto(updatedUser)).thenReturn(expectedDto);
 
         UserDto result = userService.edit(userId, updateDto);
 
         assertNotNull(result);
-        verify(userValidator).isUserExists(userId);
+        verify(userValidator).getExistingUser(userId);
         verify(userValidator).validateEmailForOwner(updateDto.getEmail(), userId);
         verify(userRepository).save(argThat(user ->
                 user.getName().equals(existingUser.getName()) &&
@@ -302,15 +336,13 @@ class UserServiceImplTest {
                 .name("Updated Name")
                 .build();
 
-        doThrow(new NotFoundException("User not found"))
-                .when(userValidator).isUserExists(userId);
+        when(userValidator.getExistingUser(userId)).thenThrow(new NotFoundException("User not found"));
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> userService.edit(userId, updateDto));
 
         assertNotNull(exception);
-        verify(userValidator).isUserExists(userId);
-        verify(userRepository, never()).findById(anyLong());
+        verify(userValidator).getExistingUser(userId);
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -321,7 +353,7 @@ class UserServiceImplTest {
                 .email("existing@email.com")
                 .build();
 
-        doNothing().when(userValidator).isUserExists(userId);
+        when(userValidator.getExistingUser(userId)).thenReturn(createTestUser(userId));
         doThrow(new DuplicatedDataException("Email already used"))
                 .when(userValidator).validateEmailForOwner(updateDto.getEmail(), userId);
 
@@ -329,7 +361,7 @@ class UserServiceImplTest {
                 () -> userService.edit(userId, updateDto));
 
         assertNotNull(exception);
-        verify(userValidator).isUserExists(userId);
+        verify(userValidator).getExistingUser(userId);
         verify(userValidator).validateEmailForOwner(updateDto.getEmail(), userId);
         verify(userRepository, never()).save(any(User.class));
     }
@@ -0,0 +1,86 @@
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserEmailFilter;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.UserServiceImpl;
+import ru.practicum.shareit.user.UserValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compares signups with the email checked in the database with signups checked by the email filter first.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=UserSignupBenchmarkTest [-Dbenchmark.users=N]}.
+ */
+@Slf4j
+@SpringBootTest(classes = ShareItTestApplication.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserSignupBenchmarkTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void compareDatabaseCheckAndFilter() {
+        int users = Integer.getInteger("benchmark.users", 20_000);
+        seed(users * 5);
+        UserService checked = service(false);
+        UserService filtered = service(true);
+        // warm up both paths
+        signup(checked, "warm-db", 500);
+        signup(filtered, "warm-filter", 500);
+
+        long started = System.nanoTime();
+        signup(checked, "db", users);
+        log.info("email checked in the database: {} signups/s", rate(users, started));
+
+        started = System.nanoTime();
+        signup(filtered, "filter", users);
+        log.info("email checked by the filter:   {} signups/s", rate(users, started));
+    }
+
+    private UserService service(boolean filterEnabled) {
+        UserEmailFilter filter = new UserEmailFilter(userRepository, filterEnabled, 1_000_000, 0.01);
+        filter.rebuild();
+        return new UserServiceImpl(userRepository, userMapper, new UserValidator(userRepository, filter), filter,
+                itemRepository, cacheManager);
+    }
+
+    private static void signup(UserService service, String prefix, int users) {
+        IntStream.range(0, users).forEach(i -> service.create(UserDto.builder().name(prefix + " " + i)
+                .email(prefix + "-" + i + "@mail.ru").build()));
+    }
+
+    private void seed(int users) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            rows.add(new Object[]{"seed " + i, "seed-" + i + "@mail.ru"});
+            if (rows.size() == 5000) {
+                jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", rows);
+    }
+
+    private static long rate(int rows, long started) {
+        return rows * 1_000_000_000L / Math.max(1, System.nanoTime() - started);
+    }
+}
@@ -1,5 +1,6 @@
 
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -8,6 +9,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.exceptions.DuplicatedDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserEmailFilter;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserValidator;
 
@@ -23,9 +25,17 @@ class UserValidatorTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserEmailFilter emailFilter;
+
     @InjectMocks
     private UserValidator userValidator;
 
+    @BeforeEach
+    void setUp() {
+        when(emailFilter.mightExist(anyString())).thenReturn(true);
+    }
+
     @Test
     void isUserExists_WhenUserExists_ShouldNotThrowException() {
         Long userId = 1L;
@@ -112,4 +122,40 @@ class UserValidatorTest {
         assertDoesNotThrow(() -> userValidator.validateEmailForOwner(email, userId));
         verify(userRepository, never()).findByEmail(anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getExistingUser_WhenUserExists_ShouldReturnUser() {
+        User user = User.builder().id(1L).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertSame(user, userValidator.getExistingUser(1L));
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void getExistingUser_WhenUserDoesNotExist_ShouldThrowNotFoundException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> userValidator.getExistingUser(1L));
+        assertEquals("Пользователь с id = 1 не найден", exception.getMessage());
+    }
+
+    @Test
+    void isMailExists_WhenFilterHasNotSeenEmail_ShouldSkipRepository() {
+        String email = "new@email.com";
+        when(emailFilter.mightExist(email)).thenReturn(false);
+
+        assertDoesNotThrow(() -> userValidator.isMailExists(email));
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void validateEmailForOwner_WhenFilterHasNotSeenEmail_ShouldSkipRepository() {
+        String email = "new@email.com";
+        when(emailFilter.mightExist(email)).thenReturn(false);
+
+        assertDoesNotThrow(() -> userValidator.validateEmailForOwner(email, 1L));
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+}
@@ -0,0 +1,180 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Single users, items, requests and bookings carry an ETag built from the entity versions: it is
+ * answered with 304 until the entity or what is shown with it changes.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VersionEtagTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(TestUsers.user("owner"));
+        booker = userService.create(TestUsers.user("booker"));
+        item = itemService.create(ItemDto.builder().name("дрель").description("описание").available(true).build(),
+                owner.getId());
+    }
+
+    private String etag(String path, long userId) throws Exception {
+        return mockMvc.perform(get(path).header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private void expectNotModified(String path, long userId, String etag) throws Exception {
+        mockMvc.perform(get(path).header("X-Sharer-User-Id", userId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("ETag пользователя меняется с его версией")
+    void getUser_ShouldUseVersionEtag() throws Exception {
+        String path = "/users/" + owner.getId();
+        String etag = etag(path, owner.getId());
+        assertEquals("\"user-" + owner.getId() + "-0\"", etag);
+        expectNotModified(path, owner.getId(), etag);
+
+        mockMvc.perform(patch(path).contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"new name\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(path).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"user-" + owner.getId() + "-1\""))
+                .andExpect(jsonPath("$.name").value("new name"));
+    }
+
+    @Test
+    @DisplayName("ETag вещи меняется при её изменении и отличается для владельца")
+    void getItem_ShouldChangeWithItemAndBookings() throws Exception {
+        String path = "/items/" + item.getId();
+        String ownerEtag = etag(path, owner.getId());
+        String bookerEtag = etag(path, booker.getId());
+        assertNotEquals(ownerEtag, bookerEtag);
+        expectNotModified(path, owner.getId(), ownerEtag);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        long bookingId = bookingService.create(BookingRequestDto.builder().itemId(item.getId())
+                .start(start).end(start.plusHours(2)).build(), booker.getId()).getId();
+        bookingService.approved(owner.getId(), bookingId, true);
+
+        String bookedEtag = etag(path, owner.getId());
+        assertNotEquals(ownerEtag, bookedEtag);
+        expectNotModified(path, booker.getId(), bookerEtag);
+
+        itemService.edit(ItemDto.builder().name("перфоратор").build(), owner.getId(), item.getId());
+
+        assertNotEquals(bookedEtag, etag(path, owner.getId()));
+        assertNotEquals(bookerEtag, etag(path, booker.getId()));
+    }
+
+    @Test
+    @DisplayName("ETag вещи меняется при переименовании владельца")
+    void getItem_ShouldChangeWithOwnerName() throws Exception {
+        String path = "/items/" + item.getId();
+        String etag = etag(path, booker.getId());
+
+        userService.edit(owner.getId(), UserDto.builder().name("new owner").build());
+
+        mockMvc.perform(get(path).header("X-Sharer-User-Id", booker.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owner.name").value("new owner"));
+    }
+
+    @Test
+    @DisplayName("ETag запроса меняется, когда на него отвечают вещью")
+    void getRequest_ShouldChangeWithAnsweringItems() throws Exception {
+        ItemRequestDto request = requestService.create(ItemRequestDto.builder().description("нужна дрель").build(),
+                booker.getId());
+        String path = "/requests/" + request.getId();
+        String etag = etag(path, booker.getId());
+        expectNotModified(path, booker.getId(), etag);
+
+        ItemDto answer = itemService.create(ItemDto.builder().name("дрель").description("ответ").available(true)
+                .requestId(request.getId()).build(), owner.getId());
+        String answeredEtag = etag(path, booker.getId());
+        assertNotEquals(etag, answeredEtag);
+
+        itemService.edit(ItemDto.builder().description("новое описание").build(), owner.getId(), answer.getId());
+        assertNotEquals(answeredEtag, etag(path, booker.getId()));
+    }
+
+    @Test
+    @DisplayName("ETag бронирования меняется при подтверждении")
+    void getBooking_ShouldChangeWhenApproved() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS);
+        long bookingId = bookingService.create(BookingRequestDto.builder().itemId(item.getId())
+                .start(start).end(start.plusHours(2)).build(), booker.getId()).getId();
+        String path = "/bookings/" + bookingId;
+        String etag = etag(path, booker.getId());
+        expectNotModified(path, owner.getId(), etag);
+
+        bookingService.approved(owner.getId(), bookingId, true);
+
+        mockMvc.perform(get(path).header("X-Sharer-User-Id", booker.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("APPROVED"));
+    }
+
+    @Test
+    @DisplayName("Изменение устаревшей копии пользователя отклоняется")
+    void edit_WhenCachedUserIsStale_ShouldThrowConflict() {
+        User stale = userRepository.findById(owner.getId()).orElseThrow();
+        userService.edit(owner.getId(), UserDto.builder().name("first").build());
+        cacheManager.getCache(UserRepository.CACHE).put(owner.getId(), stale);
+
+        assertThrows(ConflictException.class,
+                () -> userService.edit(owner.getId(), UserDto.builder().name("second").build()));
+        cacheManager.getCache(UserRepository.CACHE).evict(owner.getId());
+        assertEquals("first", userService.getUserById(owner.getId()).getName());
+    }
+}
@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.exceptions.ForbiddenException;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Counts the statements of a write with empty caches: the entity is checked and loaded by one
+ * query, then written by one.
+ */
+@SpringBootTest(classes = ShareItTestApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class WriteStatementsTest extends HibernateStatisticsTest {
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BookingService bookingService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = persist(User.builder().name("owner").email("write-owner@mail.ru").build());
+        booker = persist(User.builder().name("booker").email("write-booker@mail.ru").build());
+        item = persist(Item.builder().name("дрель").description("описание").available(true).owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        booking = persist(Booking.builder().item(item).booker(booker).status(Status.WAITING)
+                .start(start).end(start.plusDays(1)).build());
+        entityManager.flush();
+    }
+
+    @Test
+    void itemEdit_ShouldLoadItemUpdateItAndReadComments() {
+        // the owner shown in the response is fetched with the item
+        countStatements(3, () -> itemService.edit(ItemDto.builder().name("перфоратор").build(),
+                owner.getId(), item.getId()));
+
+        ItemDto edited = itemService.getItemById(item.getId(), owner.getId());
+        assertEquals("перфоратор", edited.getName());
+        assertEquals("описание", edited.getDescription());
+    }
+
+    @Test
+    void itemDelete_ShouldTakeOneStatement() {
+        entityManager.remove(booking);
+        entityManager.flush();
+
+        countStatements(1, () -> itemService.delete(item.getId(), owner.getId()));
+
+        assertNull(entityManager.find(Item.class, item.getId()));
+    }
+
+    @Test
+    void itemDelete_ByOtherUserOrOfMissingItem_ShouldNotDelete() {
+        assertThrows(ForbiddenException.class, () -> itemService.delete(item.getId(), booker.getId()));
+        assertThrows(NotFoundException.class, () -> itemService.delete(item.getId() + 1000, owner.getId()));
+    }
+
+    @Test
+    void bookingApprove_ShouldLoadBookingWithItemAndBookerAndUpdateIt() {
+        countStatements(2, () -> bookingService.approved(owner.getId(), booking.getId(), true));
+
+        assertEquals(Status.APPROVED, entityManager.find(Booking.class, booking.getId()).getStatus());
+    }
+
+    @Test
+    void userEdit_ShouldLoadUserAndUpdateIt() {
+        // the third statement finds the ids of the user's items to evict them from the item cache
+        countStatements(3, () -> userService.edit(booker.getId(), UserDto.builder().name("new booker").build()));
+
+        assertEquals("new booker", userService.getUserById(booker.getId()).getName());
+    }
+
+    private void countStatements(long expected, Runnable write) {
+        entityManager.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+        statistics.clear();
+        write.run();
+        entityManager.flush();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+}